@@ -0,0 +1,140 @@
+package com.nutrisci.calculator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.nutrisci.meal.NutrientRegistry;
+
+/**
+ * Daily reference amounts per nutrient, for "% of daily value" comparisons.
+ *
+ * Nutrients are keyed by CNF NutrientID and resolved to registry indexes when
+ * compared, so the table works whatever order nutrients were first loaded in.
+ * Amounts are in the CNF unit of each nutrient (g, mg or µg per day). The
+ * defaults follow Health Canada's Table of Daily Values for adults, with
+ * 2000 kcal and 50 g protein as reference amounts.
+ */
+public class DailyReferenceValues {
+    private final List<Reference> references = new ArrayList<>();
+
+    /**
+     * Get a new table of the default adult daily values
+     */
+    public static DailyReferenceValues getDefaults() {
+        return new DailyReferenceValues()
+            .set(208, "Energy", 2000, "kcal")
+            .set(203, "Protein", 50, "g")
+            .set(204, "Fat", 75, "g")
+            .set(606, "Saturated fat", 20, "g")
+            .set(291, "Fibre", 28, "g")
+            .set(269, "Sugars", 100, "g")
+            .set(307, "Sodium", 2300, "mg")
+            .set(306, "Potassium", 3400, "mg")
+            .set(301, "Calcium", 1300, "mg")
+            .set(303, "Iron", 18, "mg")
+            .set(304, "Magnesium", 420, "mg")
+            .set(305, "Phosphorus", 1250, "mg")
+            .set(309, "Zinc", 11, "mg")
+            .set(401, "Vitamin C", 90, "mg")
+            .set(404, "Thiamin", 1.2, "mg")
+            .set(405, "Riboflavin", 1.3, "mg")
+            .set(415, "Vitamin B6", 1.7, "mg")
+            .set(418, "Vitamin B12", 2.4, "µg")
+            .set(435, "Folate", 400, "µg DFE");
+    }
+
+    /**
+     * Add a reference amount
+     * @param nutrientId CNF NutrientID
+     * @param label Name to show
+     * @param amount Reference amount per day
+     * @param unit Unit of the amount
+     * @return this table
+     */
+    public DailyReferenceValues set(int nutrientId, String label, double amount, String unit) {
+        references.removeIf(reference -> reference.nutrientId == nutrientId);
+        references.add(new Reference(nutrientId, label, amount, unit));
+        return this;
+    }
+
+    /**
+     * Get the reference amount of one nutrient
+     * @param nutrientId CNF NutrientID
+     * @return The amount per day, or NaN if the table has none for the nutrient
+     */
+    public double getAmount(int nutrientId) {
+        for (Reference reference : references) {
+            if (reference.nutrientId == nutrientId) {
+                return reference.amount;
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Compare accumulated totals with every reference amount
+     * @param totals Totals over one or more days
+     * @param days Number of days the totals cover; amounts are averaged per day
+     * @return One comparison per reference nutrient, in table order
+     */
+    public List<Comparison> compare(NutrientAccumulator totals, int days) {
+        NutrientRegistry registry = NutrientRegistry.getInstance();
+        List<Comparison> comparisons = new ArrayList<>(references.size());
+        for (Reference reference : references) {
+            // Energy is compared against calories from macronutrients, which every food has
+            double amount = reference.nutrientId == 208
+                ? totals.getCalories()
+                : totals.getTotal(registry.indexOfNutrientId(reference.nutrientId));
+            double perDay = amount / Math.max(1, days);
+            comparisons.add(new Comparison(reference, perDay, perDay / reference.amount * 100));
+        }
+        return Collections.unmodifiableList(comparisons);
+    }
+
+    /**
+     * One reference amount
+     */
+    public static class Reference {
+        private final int nutrientId;
+        private final String label;
+        private final double amount;
+        private final String unit;
+
+        Reference(int nutrientId, String label, double amount, String unit) {
+            this.nutrientId = nutrientId;
+            this.label = label;
+            this.amount = amount;
+            this.unit = unit;
+        }
+
+        public int getNutrientId() { return nutrientId; }
+        public String getLabel() { return label; }
+        public double getAmount() { return amount; }
+        public String getUnit() { return unit; }
+    }
+
+    /**
+     * Intake of one nutrient against its reference amount
+     */
+    public static class Comparison {
+        private final Reference reference;
+        private final double amountPerDay;
+        private final double percentOfDailyValue;
+
+        Comparison(Reference reference, double amountPerDay, double percentOfDailyValue) {
+            this.reference = reference;
+            this.amountPerDay = amountPerDay;
+            this.percentOfDailyValue = percentOfDailyValue;
+        }
+
+        public Reference getReference() { return reference; }
+        public double getAmountPerDay() { return amountPerDay; }
+        public double getPercentOfDailyValue() { return percentOfDailyValue; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.1f %s (%.0f%% DV)", reference.label, amountPerDay, reference.unit, percentOfDailyValue);
+        }
+    }
+}
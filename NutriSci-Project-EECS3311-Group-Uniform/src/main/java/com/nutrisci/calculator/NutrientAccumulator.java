@@ -0,0 +1,180 @@
+package com.nutrisci.calculator;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.Meal;
+import com.nutrisci.meal.NutrientRegistry;
+
+/**
+ * Mutable running totals of every nutrient, plus calories from macronutrients.
+ *
+ * Totals are a dense array indexed by NutrientRegistry, so adding a food is
+ * one pass over its own nutrient array: vitamins and minerals are summed in
+ * the same loop as protein and fat. Unlike NutritionalData.add, adding
+ * changes the accumulator in place, so summing foods, meals, days or a whole
+ * range allocates nothing per item. A missing nutrient counts as zero.
+ * Calories are 4 kcal/g protein and carbohydrate and 9 kcal/g fat, as in
+ * FoodItem.calculateCaloriesFromMacros. Each food counts for its portion
+ * (FoodItem.getGrams), applied while adding rather than by copying the food.
+ *
+ * An accumulator can be reset and reused, but is not thread-safe.
+ */
+public class NutrientAccumulator {
+    private double calories;
+    private double[] totals = new double[NutrientRegistry.getInstance().size()];
+
+    /**
+     * Add one food, scaled to its portion
+     * @return this accumulator
+     */
+    public NutrientAccumulator add(FoodItem item) {
+        ensureCapacity(item.getNutrientSlotCount());
+        item.addNutrientsTo(totals);
+        calories += (item.getNutrientOrZero(NutrientRegistry.PROTEIN) * 4
+                   + item.getNutrientOrZero(NutrientRegistry.CARBOHYDRATE) * 4
+                   + item.getNutrientOrZero(NutrientRegistry.FAT) * 9) * item.getPortionScale();
+        return this;
+    }
+
+    /**
+     * Add every food in a list
+     * @return this accumulator
+     */
+    public NutrientAccumulator addAll(List<FoodItem> items) {
+        // Indexed loop: no iterator per call
+        for (int i = 0; i < items.size(); i++) {
+            add(items.get(i));
+        }
+        return this;
+    }
+
+    /**
+     * Add every food of a meal
+     * @return this accumulator
+     */
+    public NutrientAccumulator add(Meal meal) {
+        return addAll(meal.getFoodItems());
+    }
+
+    /**
+     * Add every food of several meals, such as a day or a date range
+     * @return this accumulator
+     */
+    public NutrientAccumulator addMeals(Collection<? extends Meal> meals) {
+        for (Meal meal : meals) {
+            add(meal);
+        }
+        return this;
+    }
+
+    /**
+     * Add macronutrient totals that were already computed
+     * @return this accumulator
+     */
+    public NutrientAccumulator add(NutritionalData data) {
+        if (data != null) {
+            calories += data.getCalories();
+            totals[NutrientRegistry.PROTEIN] += data.getProtein();
+            totals[NutrientRegistry.CARBOHYDRATE] += data.getCarbs();
+            totals[NutrientRegistry.FAT] += data.getFat();
+            totals[NutrientRegistry.FIBRE] += data.getFiber();
+        }
+        return this;
+    }
+
+    /**
+     * Add another accumulator's totals
+     * @return this accumulator
+     */
+    public NutrientAccumulator add(NutrientAccumulator other) {
+        ensureCapacity(other.totals.length);
+        for (int i = 0; i < other.totals.length; i++) {
+            totals[i] += other.totals[i];
+        }
+        calories += other.calories;
+        return this;
+    }
+
+    /**
+     * Subtract another accumulator's totals, e.g. to take back a meal that was removed
+     * @return this accumulator
+     */
+    public NutrientAccumulator subtract(NutrientAccumulator other) {
+        ensureCapacity(other.totals.length);
+        for (int i = 0; i < other.totals.length; i++) {
+            totals[i] -= other.totals[i];
+        }
+        calories -= other.calories;
+        return this;
+    }
+
+    /**
+     * Set every total back to zero so the accumulator can be reused
+     * @return this accumulator
+     */
+    public NutrientAccumulator reset() {
+        Arrays.fill(totals, 0);
+        calories = 0;
+        return this;
+    }
+
+    private void ensureCapacity(int length) {
+        if (length > totals.length) {
+            totals = Arrays.copyOf(totals, Math.max(length, NutrientRegistry.getInstance().size()));
+        }
+    }
+
+    /**
+     * Copy the current macronutrient totals into an immutable NutritionalData
+     */
+    public NutritionalData toNutritionalData() {
+        return new NutritionalData(calories, getProtein(), getCarbs(), getFat(), getFiber());
+    }
+
+    /**
+     * Get the total of any nutrient
+     * @param index The NutrientRegistry index
+     * @return The total, or 0 if no food had the nutrient
+     */
+    public double getTotal(int index) {
+        return index >= 0 && index < totals.length ? totals[index] : 0;
+    }
+
+    /**
+     * Get the total of any nutrient by its CNF name, e.g. "IRON, FE"
+     * @return The total, or 0 if no food had the nutrient
+     */
+    public double getTotal(String nutrientName) {
+        return getTotal(NutrientRegistry.getInstance().indexOf(nutrientName));
+    }
+
+    /**
+     * Get a copy of every total, indexed by NutrientRegistry
+     */
+    public double[] getTotals() {
+        return totals.clone();
+    }
+
+    public double getCalories() {
+        return calories;
+    }
+
+    public double getProtein() {
+        return totals[NutrientRegistry.PROTEIN];
+    }
+
+    public double getCarbs() {
+        return totals[NutrientRegistry.CARBOHYDRATE];
+    }
+
+    public double getFat() {
+        return totals[NutrientRegistry.FAT];
+    }
+
+    public double getFiber() {
+        return totals[NutrientRegistry.FIBRE];
+    }
+}
@@ -1,28 +1,83 @@
 package com.nutrisci.calculator;
 
+import java.util.Collection;
 import java.util.List;
 import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.Meal;
+import com.nutrisci.model.GoalType;
 
 // Performs nutritional calculations for meals
 public class NutritionalCalculator {
+    // CNF NutrientIDs of what each goal type measures
+    private static final int ENERGY_ID = 208;
+    private static final int PROTEIN_ID = 203;
+    private static final int FIBRE_ID = 291;
+
+    private final DailyReferenceValues dailyValues;
+
+    public NutritionalCalculator() {
+        this(DailyReferenceValues.getDefaults());
+    }
+
+    /**
+     * Create a calculator that compares intake with the given daily values
+     * @param dailyValues Reference amounts per day
+     */
+    public NutritionalCalculator(DailyReferenceValues dailyValues) {
+        this.dailyValues = dailyValues;
+    }
+
     // Calculates the total nutrition for a list of food items
     public NutritionalData calculateMealNutrition(List<FoodItem> foodItems){
-        double totalCalories = 0;
-        double totalProtein = 0;
-        double totalCarbs = 0;
-        double totalFat = 0;
-        double totalFiber = 0;
-
-        for (FoodItem item : foodItems) {
-            totalCalories += item.calculateCaloriesFromMacros();
-            totalProtein += item.getNutrientValue("PROTEIN");
-            totalCarbs += item.getNutrientValue("CARBOHYDRATE, TOTAL (BY DIFFERENCE)");
-            totalFat += item.getNutrientValue("FAT (TOTAL LIPIDS)");
-            totalFiber += item.getNutrientValue("FIBRE, TOTAL DIETARY");
+        return new NutrientAccumulator().addAll(foodItems).toNutritionalData();
+    }
+
+    /**
+     * Calculates the total nutrition of several meals (a day, a week, any range)
+     * with a single accumulator, so no object is created per food or meal
+     * @param meals The meals to sum
+     * @return The combined totals
+     */
+    public NutritionalData calculateTotalNutrition(Collection<? extends Meal> meals) {
+        return new NutrientAccumulator().addMeals(meals).toNutritionalData();
+    }
+
+    /**
+     * Calculates every nutrient (vitamins and minerals included) of several meals
+     * in one pass over each food's nutrient array
+     * @param meals The meals to sum
+     * @return The totals, readable by NutrientRegistry index or CNF name
+     */
+    public NutrientAccumulator calculateFullNutrition(Collection<? extends Meal> meals) {
+        return new NutrientAccumulator().addMeals(meals);
+    }
+
+    /**
+     * Compares the meals of one or more days with the daily reference values
+     * @param meals The meals eaten over the days
+     * @param days Number of days the meals cover; intake is averaged per day
+     * @return Intake and % of daily value per reference nutrient
+     */
+    public List<DailyReferenceValues.Comparison> compareWithDailyValues(Collection<? extends Meal> meals, int days) {
+        return dailyValues.compare(calculateFullNutrition(meals), days);
+    }
+
+    /**
+     * Gets the daily reference amount of the nutrient a goal type measures
+     * @param type The goal type
+     * @return kcal for calories, grams for protein and fibre
+     */
+    public double getDailyReference(GoalType type) {
+        switch (type) {
+            case CALORIES:
+                return dailyValues.getAmount(ENERGY_ID);
+            case PROTEIN:
+                return dailyValues.getAmount(PROTEIN_ID);
+            case FIBRE:
+                return dailyValues.getAmount(FIBRE_ID);
+            default:
+                return Double.NaN;
         }
-    
-        NutritionalData result = new NutritionalData(totalCalories, totalProtein, totalCarbs, totalFat, totalFiber);
-        return result;
     }
 
     // Validates that nutritional data is within reasonable bounds
@@ -0,0 +1,116 @@
+package com.nutrisci.catalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import com.nutrisci.database.DatabaseManager;
+import com.nutrisci.meal.FoodItem;
+
+/**
+ * Singleton that owns the memory-mapped CNF catalog.
+ * The snapshot file is opened on first use, so the food list is available
+ * without a database round trip. rebuild() regenerates the snapshot from the
+ * database, e.g. after CnfBulkLoader has reloaded the CNF tables.
+ *
+ * The snapshot location is catalog.snapshot.path in db.properties
+ * (default ./data/cnf-catalog.bin).
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class CatalogManager {
+    private static final String DEFAULT_PATH = "./data/cnf-catalog.bin";
+
+    private static volatile CatalogManager instance;
+
+    private final Path snapshotPath;
+    private volatile FoodCatalog catalog;
+    private boolean openAttempted;
+
+    private CatalogManager(Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    /**
+     * Returns the singleton instance of CatalogManager (thread-safe, double-checked locking)
+     */
+    public static CatalogManager getInstance() {
+        if (instance == null) {
+            synchronized (CatalogManager.class) {
+                if (instance == null) {
+                    instance = new CatalogManager(Paths.get(configuredPath()));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Read the snapshot location from db.properties
+     */
+    private static String configuredPath() {
+        Properties properties = new Properties();
+        try (InputStream input = CatalogManager.class.getClassLoader().getResourceAsStream("db.properties")) {
+            if (input != null) {
+                properties.load(input);
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading catalog configuration: " + e.getMessage());
+        }
+        return properties.getProperty("catalog.snapshot.path", DEFAULT_PATH);
+    }
+
+    /**
+     * Get the catalog, opening the snapshot the first time it is asked for
+     * @return The catalog, or null if there is no usable snapshot yet
+     */
+    public FoodCatalog getCatalog() {
+        FoodCatalog current = catalog;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (catalog == null && !openAttempted) {
+                openAttempted = true;
+                if (Files.exists(snapshotPath)) {
+                    try {
+                        catalog = CatalogSnapshot.open(snapshotPath);
+                    } catch (IOException e) {
+                        System.err.println("Error opening catalog snapshot: " + e.getMessage());
+                    }
+                }
+            }
+            return catalog;
+        }
+    }
+
+    /**
+     * Regenerate the snapshot from the database and switch to it
+     * @param db The database to read every food from
+     * @return The new catalog
+     */
+    public synchronized FoodCatalog rebuild(DatabaseManager db) throws IOException {
+        Map<Long, String> names = db.getFoodItems();
+        List<FoodItem> foods = new ArrayList<>(db.loadFoodItems(names.keySet()).values());
+
+        CatalogSnapshot.write(snapshotPath, foods);
+        catalog = CatalogSnapshot.open(snapshotPath);
+        openAttempted = true;
+        return catalog;
+    }
+
+    /**
+     * Get the location of the snapshot file
+     */
+    public Path getSnapshotPath() {
+        return snapshotPath;
+    }
+}
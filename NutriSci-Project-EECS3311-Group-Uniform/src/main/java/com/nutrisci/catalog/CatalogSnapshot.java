@@ -0,0 +1,207 @@
+package com.nutrisci.catalog;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.NutrientRegistry;
+
+/**
+ * Reads and writes the binary CNF catalog snapshot.
+ *
+ * The snapshot holds every food's ID, description and food group plus the
+ * full food x nutrient matrix, laid out so it can be memory-mapped and used
+ * in place. Layout (big-endian):
+ *
+ *   int    magic "NSCF", int version
+ *   int    foodCount, int nutrientCount, int groupCount
+ *   nutrientCount x (int CNF NutrientID, UTF nutrient name)
+ *   groupCount    x (UTF food group name)
+ *   long[foodCount]     food IDs, ascending
+ *   int[foodCount]      food group index
+ *   int[foodCount + 1]  description offsets into the description block
+ *   byte[]              UTF-8 descriptions, back to back
+ *   double[foodCount * nutrientCount]  nutrient values, NaN where missing
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class CatalogSnapshot {
+    static final int MAGIC = 0x4E534346; // "NSCF"
+    static final int VERSION = 1;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Write a snapshot of the given foods. The file is written next to the
+     * target and moved into place, so readers never see a partial snapshot.
+     * @param path The snapshot file
+     * @param foods Every food in the catalog
+     */
+    public static void write(Path path, Collection<FoodItem> foods) throws IOException {
+        List<FoodItem> sorted = new ArrayList<>(foods);
+        sorted.sort(Comparator.comparingLong(FoodItem::getId));
+
+        // Only keep nutrients that at least one food has a value for
+        NutrientRegistry registry = NutrientRegistry.getInstance();
+        int slots = 0;
+        for (FoodItem food : sorted) {
+            slots = Math.max(slots, food.getNutrientSlotCount());
+        }
+        boolean[] used = new boolean[slots];
+        for (FoodItem food : sorted) {
+            for (int i = 0; i < food.getNutrientSlotCount(); i++) {
+                if (food.hasNutrient(i)) {
+                    used[i] = true;
+                }
+            }
+        }
+        List<Integer> columns = new ArrayList<>();
+        for (int i = 0; i < slots; i++) {
+            if (used[i]) {
+                columns.add(i);
+            }
+        }
+
+        Map<String, Integer> groups = new LinkedHashMap<>();
+        byte[][] descriptions = new byte[sorted.size()][];
+        for (int i = 0; i < sorted.size(); i++) {
+            FoodItem food = sorted.get(i);
+            groups.putIfAbsent(nonNull(food.getFoodGroup()), groups.size());
+            descriptions[i] = nonNull(food.getDescription()).getBytes(StandardCharsets.UTF_8);
+        }
+
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            out.writeInt(columns.size());
+            out.writeInt(groups.size());
+
+            for (int column : columns) {
+                out.writeInt(registry.nutrientIdOf(column));
+                out.writeUTF(registry.nameOf(column));
+            }
+            for (String group : groups.keySet()) {
+                out.writeUTF(group);
+            }
+
+            for (FoodItem food : sorted) {
+                out.writeLong(food.getId());
+            }
+            for (FoodItem food : sorted) {
+                out.writeInt(groups.get(nonNull(food.getFoodGroup())));
+            }
+            int offset = 0;
+            out.writeInt(offset);
+            for (byte[] description : descriptions) {
+                offset += description.length;
+                out.writeInt(offset);
+            }
+            for (byte[] description : descriptions) {
+                out.write(description);
+            }
+
+            for (FoodItem food : sorted) {
+                for (int column : columns) {
+                    out.writeDouble(rawValue(food, column));
+                }
+            }
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Memory-map a snapshot. Only the small nutrient and group tables are
+     * decoded here; IDs, descriptions and nutrient values are read from the
+     * mapping when they are first asked for.
+     * @param path The snapshot file
+     * @return The catalog backed by the mapped file
+     */
+    public static FoodCatalog open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < 20 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a NutriSci catalog snapshot: " + path);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported catalog snapshot version " + version + ": " + path);
+        }
+
+        int foodCount = buffer.getInt();
+        int nutrientCount = buffer.getInt();
+        int groupCount = buffer.getInt();
+
+        int[] nutrientIds = new int[nutrientCount];
+        String[] nutrientNames = new String[nutrientCount];
+        for (int i = 0; i < nutrientCount; i++) {
+            nutrientIds[i] = buffer.getInt();
+            nutrientNames[i] = readUTF(buffer);
+        }
+        String[] groupNames = new String[groupCount];
+        for (int i = 0; i < groupCount; i++) {
+            groupNames[i] = readUTF(buffer);
+        }
+
+        int idsAt = buffer.position();
+        int groupsAt = idsAt + foodCount * Long.BYTES;
+        int offsetsAt = groupsAt + foodCount * Integer.BYTES;
+        int descriptionsAt = offsetsAt + (foodCount + 1) * Integer.BYTES;
+        int descriptionBytes = buffer.getInt(offsetsAt + foodCount * Integer.BYTES);
+        int matrixAt = descriptionsAt + descriptionBytes;
+
+        if ((long) matrixAt + (long) foodCount * nutrientCount * Double.BYTES > buffer.capacity()) {
+            throw new IOException("Truncated catalog snapshot: " + path);
+        }
+
+        return new FoodCatalog(buffer, foodCount, nutrientIds, nutrientNames, groupNames,
+                idsAt, groupsAt, offsetsAt, descriptionsAt, matrixAt);
+    }
+
+    /**
+     * Read a string written by DataOutputStream.writeUTF
+     */
+    private static String readUTF(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The stored value of a nutrient slot, NaN when the food has none
+     */
+    private static double rawValue(FoodItem food, int index) {
+        return food.hasNutrient(index) ? food.getNutrientValue(index) : Double.NaN;
+    }
+
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,195 @@
+package com.nutrisci.catalog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.NutrientRegistry;
+
+/**
+ * Read-only view of the whole CNF catalog, backed by a memory-mapped
+ * CatalogSnapshot. Foods are addressed by row (0 to size() - 1, in ascending
+ * food ID order) or by food ID. Descriptions are decoded the first time they
+ * are read and kept afterwards; nutrient values are always read in place.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class FoodCatalog {
+    private final ByteBuffer buffer;
+    private final int foodCount;
+    private final int nutrientCount;
+    private final String[] groupNames;
+
+    // Snapshot column -> NutrientRegistry index, and the reverse
+    private final int[] registryIndexByColumn;
+    private final int[] columnByRegistryIndex;
+
+    private final int idsAt;
+    private final int groupsAt;
+    private final int offsetsAt;
+    private final int descriptionsAt;
+    private final int matrixAt;
+
+    // Lazily decoded descriptions
+    private final String[] descriptions;
+
+    FoodCatalog(ByteBuffer buffer, int foodCount, int[] nutrientIds, String[] nutrientNames, String[] groupNames,
+                int idsAt, int groupsAt, int offsetsAt, int descriptionsAt, int matrixAt) {
+        this.buffer = buffer;
+        this.foodCount = foodCount;
+        this.nutrientCount = nutrientIds.length;
+        this.groupNames = groupNames;
+        this.idsAt = idsAt;
+        this.groupsAt = groupsAt;
+        this.offsetsAt = offsetsAt;
+        this.descriptionsAt = descriptionsAt;
+        this.matrixAt = matrixAt;
+        this.descriptions = new String[foodCount];
+
+        NutrientRegistry registry = NutrientRegistry.getInstance();
+        this.registryIndexByColumn = new int[nutrientCount];
+        int maxIndex = -1;
+        for (int column = 0; column < nutrientCount; column++) {
+            int index = nutrientIds[column] >= 0
+                ? registry.register(nutrientIds[column], nutrientNames[column])
+                : registry.register(nutrientNames[column]);
+            registryIndexByColumn[column] = index;
+            maxIndex = Math.max(maxIndex, index);
+        }
+        this.columnByRegistryIndex = new int[maxIndex + 1];
+        Arrays.fill(columnByRegistryIndex, -1);
+        for (int column = 0; column < nutrientCount; column++) {
+            columnByRegistryIndex[registryIndexByColumn[column]] = column;
+        }
+    }
+
+    /**
+     * Get the number of foods in the catalog
+     */
+    public int size() {
+        return foodCount;
+    }
+
+    /**
+     * Get the food ID stored at a row
+     */
+    public long getFoodId(int row) {
+        return buffer.getLong(idsAt + row * Long.BYTES);
+    }
+
+    /**
+     * Find the row of a food ID (binary search over the sorted IDs)
+     * @param foodId The food ID
+     * @return The row, or -1 if the food is not in the catalog
+     */
+    public int rowOf(long foodId) {
+        int low = 0;
+        int high = foodCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = getFoodId(mid);
+            if (midId < foodId) {
+                low = mid + 1;
+            } else if (midId > foodId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the description of the food at a row, decoding it on first use
+     */
+    public String getDescription(int row) {
+        String description = descriptions[row];
+        if (description == null) {
+            int start = buffer.getInt(offsetsAt + row * Integer.BYTES);
+            int end = buffer.getInt(offsetsAt + (row + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            // Read through a duplicate so concurrent readers never share a position
+            ByteBuffer view = buffer.duplicate();
+            view.position(descriptionsAt + start);
+            view.get(bytes);
+            description = new String(bytes, StandardCharsets.UTF_8);
+            descriptions[row] = description;
+        }
+        return description;
+    }
+
+    /**
+     * Get the food group name of the food at a row
+     */
+    public String getFoodGroup(int row) {
+        return groupNames[getFoodGroupIndex(row)];
+    }
+
+    /**
+     * Get the index (into getFoodGroups()) of the food group at a row
+     */
+    public int getFoodGroupIndex(int row) {
+        return buffer.getInt(groupsAt + row * Integer.BYTES);
+    }
+
+    /**
+     * Get every food group name in the catalog
+     */
+    public List<String> getFoodGroups() {
+        return Collections.unmodifiableList(Arrays.asList(groupNames));
+    }
+
+    /**
+     * Read a nutrient value straight from the mapped matrix
+     * @param row The food row
+     * @param registryIndex The NutrientRegistry index, e.g. NutrientRegistry.PROTEIN
+     * @return The value, or NaN if the food has no value for the nutrient
+     */
+    public double getNutrient(int row, int registryIndex) {
+        if (registryIndex < 0 || registryIndex >= columnByRegistryIndex.length || columnByRegistryIndex[registryIndex] < 0) {
+            return Double.NaN;
+        }
+        return buffer.getDouble(matrixAt + (row * nutrientCount + columnByRegistryIndex[registryIndex]) * Double.BYTES);
+    }
+
+    /**
+     * Build a FoodItem for the food at a row
+     */
+    public FoodItem getFoodItemAt(int row) {
+        double[] values = new double[columnByRegistryIndex.length];
+        Arrays.fill(values, Double.NaN);
+        int rowAt = matrixAt + row * nutrientCount * Double.BYTES;
+        for (int column = 0; column < nutrientCount; column++) {
+            values[registryIndexByColumn[column]] = buffer.getDouble(rowAt + column * Double.BYTES);
+        }
+        return new FoodItem(getFoodId(row), getDescription(row), values, getFoodGroup(row));
+    }
+
+    /**
+     * Build a FoodItem for a food ID
+     * @param foodId The food ID
+     * @return The food, or null if it is not in the catalog
+     */
+    public FoodItem getFoodItem(long foodId) {
+        int row = rowOf(foodId);
+        return row >= 0 ? getFoodItemAt(row) : null;
+    }
+
+    /**
+     * Get every food ID with its description, like DatabaseManager.getFoodItems()
+     * @return A new map of food IDs to descriptions
+     */
+    public Map<Long, String> getFoodNames() {
+        Map<Long, String> names = new HashMap<>(foodCount * 4 / 3 + 1);
+        for (int row = 0; row < foodCount; row++) {
+            names.put(getFoodId(row), getDescription(row));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,133 @@
+package com.nutrisci.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Food group to foods index for browsing the catalog by group.
+ *
+ * Each group holds a compact array of its food IDs, ordered by description,
+ * so a page of a group is a slice of one array instead of a join.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class FoodGroupIndex {
+    private static final long[] NO_FOODS = new long[0];
+
+    private final Map<String, long[]> foodsByGroup;
+
+    /**
+     * Build the index over a set of foods
+     * @param foodIds Food IDs
+     * @param foodDescriptions Description of each food, used for the browsing order
+     * @param foodGroups Food group name of each food
+     */
+    public FoodGroupIndex(long[] foodIds, String[] foodDescriptions, String[] foodGroups) {
+        this(group(foodIds, foodDescriptions, foodGroups));
+    }
+
+    private FoodGroupIndex(Map<String, List<Long>> building) {
+        List<String> groups = new ArrayList<>(building.keySet());
+        Collections.sort(groups);
+        foodsByGroup = new LinkedHashMap<>();
+        for (String group : groups) {
+            List<Long> ids = building.get(group);
+            long[] array = new long[ids.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = ids.get(i);
+            }
+            foodsByGroup.put(group, array);
+        }
+    }
+
+    /**
+     * Build the index over every food in a catalog snapshot. Rows are bucketed
+     * by the snapshot's food group index, so no group names are compared per food.
+     */
+    public static FoodGroupIndex fromCatalog(FoodCatalog catalog) {
+        int size = catalog.size();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(catalog.getDescription(a), catalog.getDescription(b)));
+
+        List<String> groupNames = catalog.getFoodGroups();
+        List<List<Long>> byGroup = new ArrayList<>(groupNames.size());
+        for (int g = 0; g < groupNames.size(); g++) {
+            byGroup.add(new ArrayList<>());
+        }
+        for (int row : order) {
+            byGroup.get(catalog.getFoodGroupIndex(row)).add(catalog.getFoodId(row));
+        }
+
+        Map<String, List<Long>> building = new LinkedHashMap<>();
+        for (int g = 0; g < groupNames.size(); g++) {
+            if (!byGroup.get(g).isEmpty()) {
+                String group = groupNames.get(g) != null ? groupNames.get(g) : "";
+                building.computeIfAbsent(group, k -> new ArrayList<>()).addAll(byGroup.get(g));
+            }
+        }
+        return new FoodGroupIndex(building);
+    }
+
+    /**
+     * Collect food IDs per group name, in description order
+     */
+    private static Map<String, List<Long>> group(long[] foodIds, String[] foodDescriptions, String[] foodGroups) {
+        Integer[] order = new Integer[foodIds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(
+            foodDescriptions[a] != null ? foodDescriptions[a] : "",
+            foodDescriptions[b] != null ? foodDescriptions[b] : ""));
+
+        Map<String, List<Long>> building = new LinkedHashMap<>();
+        for (int i : order) {
+            String group = foodGroups[i] != null ? foodGroups[i] : "";
+            building.computeIfAbsent(group, k -> new ArrayList<>()).add(foodIds[i]);
+        }
+        return building;
+    }
+
+    /**
+     * Get every food group name, alphabetically
+     */
+    public List<String> getGroups() {
+        return new ArrayList<>(foodsByGroup.keySet());
+    }
+
+    /**
+     * Get the number of foods in a group
+     * @param foodGroup Food group name
+     * @return The count, or 0 for an unknown group
+     */
+    public int size(String foodGroup) {
+        return foodsByGroup.getOrDefault(foodGroup, NO_FOODS).length;
+    }
+
+    /**
+     * Get one page of the foods in a group, ordered by description
+     * @param foodGroup Food group name
+     * @param offset Index of the first food to return
+     * @param limit Maximum number of foods to return
+     * @return The food IDs; empty for an unknown group or a page past the end
+     */
+    public List<Long> getFoodIds(String foodGroup, int offset, int limit) {
+        long[] ids = foodsByGroup.getOrDefault(foodGroup, NO_FOODS);
+        int from = Math.max(0, Math.min(offset, ids.length));
+        int to = (int) Math.min(ids.length, (long) from + Math.max(0, limit));
+
+        List<Long> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(ids[i]);
+        }
+        return page;
+    }
+}
@@ -0,0 +1,238 @@
+package com.nutrisci.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory trigram index over food descriptions for search-as-you-type.
+ *
+ * Foods are stored once, sorted by description, and addressed by row. Every
+ * three-character window of each lowercased description maps to the ascending
+ * rows containing it, so a query only has to intersect a few short posting
+ * lists instead of scanning the whole catalog. Results are ranked: foods whose
+ * description starts with the query first, then foods with a word starting
+ * with it, then any other match, each group in alphabetical order.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class FoodNameIndex {
+    private static final int[] NO_ROWS = new int[0];
+
+    // Reused across dialogs as long as it covers the foods they search
+    private static FoodNameIndex shared;
+
+    private final long[] ids;
+    private final String[] names;
+    private final String[] lowerNames;
+    private final Map<Long, Integer> rowById;
+    private final Map<Long, int[]> postings;
+
+    /**
+     * Build an index over food descriptions
+     * @param foodNames Map of food IDs to descriptions
+     */
+    public FoodNameIndex(Map<Long, String> foodNames) {
+        List<Map.Entry<Long, String>> entries = new ArrayList<>(foodNames.entrySet());
+        entries.sort((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.getValue(), b.getValue()));
+
+        int size = entries.size();
+        ids = new long[size];
+        names = new String[size];
+        lowerNames = new String[size];
+        rowById = new HashMap<>(size * 4 / 3 + 1);
+        for (int row = 0; row < size; row++) {
+            ids[row] = entries.get(row).getKey();
+            names[row] = entries.get(row).getValue();
+            lowerNames[row] = names[row].toLowerCase(Locale.ROOT);
+            rowById.put(ids[row], row);
+        }
+
+        // Collect rows per trigram, then freeze them into compact arrays
+        Map<Long, RowList> building = new HashMap<>();
+        for (int row = 0; row < size; row++) {
+            String name = lowerNames[row];
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                RowList rows = building.computeIfAbsent(trigram(name, i), k -> new RowList());
+                // A trigram can repeat within one name; keep each row once
+                if (rows.size == 0 || rows.rows[rows.size - 1] != row) {
+                    rows.add(row);
+                }
+            }
+        }
+        postings = new HashMap<>(building.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, RowList> entry : building.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+    }
+
+    /**
+     * Get an index covering every food in the map, reusing the last one built
+     * when it already does. Callers that search a subset of the catalog (e.g.
+     * with already selected foods removed) filter the results themselves.
+     * @param foodNames Map of food IDs to descriptions
+     */
+    public static synchronized FoodNameIndex forNames(Map<Long, String> foodNames) {
+        if (shared == null || !shared.covers(foodNames)) {
+            shared = new FoodNameIndex(foodNames);
+        }
+        return shared;
+    }
+
+    private boolean covers(Map<Long, String> foodNames) {
+        if (foodNames.size() > ids.length) {
+            return false;
+        }
+        for (Long foodId : foodNames.keySet()) {
+            if (!rowById.containsKey(foodId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find foods whose description contains the query (case-insensitive)
+     * @param query The text typed so far
+     * @return Matching rows, best matches first; every row for a blank query
+     */
+    public int[] search(String query) {
+        String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty()) {
+            int[] all = new int[ids.length];
+            for (int row = 0; row < all.length; row++) {
+                all[row] = row;
+            }
+            return all;
+        }
+
+        int[] candidates = needle.length() < 3 ? null : candidates(needle);
+        if (candidates == NO_ROWS) {
+            return NO_ROWS;
+        }
+
+        // Verify each candidate (trigrams can match out of order) and bucket by rank
+        RowList prefix = new RowList();
+        RowList wordStart = new RowList();
+        RowList contains = new RowList();
+        int count = candidates == null ? ids.length : candidates.length;
+        for (int i = 0; i < count; i++) {
+            int row = candidates == null ? i : candidates[i];
+            int at = lowerNames[row].indexOf(needle);
+            if (at < 0) {
+                continue;
+            }
+            if (at == 0) {
+                prefix.add(row);
+            } else if (isWordStart(lowerNames[row], at)) {
+                wordStart.add(row);
+            } else {
+                contains.add(row);
+            }
+        }
+
+        int[] result = new int[prefix.size + wordStart.size + contains.size];
+        System.arraycopy(prefix.rows, 0, result, 0, prefix.size);
+        System.arraycopy(wordStart.rows, 0, result, prefix.size, wordStart.size);
+        System.arraycopy(contains.rows, 0, result, prefix.size + wordStart.size, contains.size);
+        return result;
+    }
+
+    /**
+     * Intersect the posting lists of every trigram in the query, shortest first
+     */
+    private int[] candidates(String needle) {
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= needle.length(); i++) {
+            int[] rows = postings.get(trigram(needle, i));
+            if (rows == null) {
+                return NO_ROWS;
+            }
+            lists.add(rows);
+        }
+        lists.sort((a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result.length == 0 ? NO_ROWS : result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < a.length && j < b.length; i++) {
+            // Galloping would help for very uneven lists; linear merge is enough at catalog size
+            while (j < b.length && b[j] < a[i]) {
+                j++;
+            }
+            if (j < b.length && b[j] == a[i]) {
+                out[n++] = a[i];
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static boolean isWordStart(String text, int at) {
+        return !Character.isLetterOrDigit(text.charAt(at - 1));
+    }
+
+    private static long trigram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    /**
+     * Get the number of indexed foods
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Get the food ID at a row
+     */
+    public long idAt(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Get the description at a row
+     */
+    public String nameAt(int row) {
+        return names[row];
+    }
+
+    /**
+     * Find the row of a food ID
+     * @return The row, or -1 if the food is not indexed
+     */
+    public int rowOf(long foodId) {
+        Integer row = rowById.get(foodId);
+        return row != null ? row : -1;
+    }
+
+    /**
+     * Growable list of rows used while building and ranking
+     */
+    private static class RowList {
+        private int[] rows = new int[8];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.nutrisci.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Ranked, typo-tolerant full-text search over food descriptions.
+ *
+ * Descriptions are split into lowercase word tokens and indexed as an
+ * inverted index (term to ascending food rows). Each query word is matched
+ * against the vocabulary exactly, as a prefix (so partially typed words work)
+ * and, for words of four letters or more, within a small edit distance found
+ * through a trigram index over the vocabulary. Foods are ranked by how many
+ * query words they match, then by an IDF-weighted score that favours exact
+ * over prefix over fuzzy matches, then by shorter (more generic) descriptions.
+ *
+ * Results carry food-group facet counts, and can be restricted to one group.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class FoodSearchEngine {
+    private static final double EXACT_WEIGHT = 1.0;
+    private static final double PREFIX_WEIGHT = 0.8;
+    private static final double FUZZY_WEIGHT = 0.6;
+    private static final double LEADING_WORD_BONUS = 0.25;
+    private static final int MAX_PREFIX_TERMS = 64;
+
+    private final long[] ids;
+    private final String[] descriptions;
+    private final int[] groupOf;
+    private final String[] groupNames;
+    private final int[] firstTerm;
+
+    // Vocabulary, sorted so prefix lookups are a binary search
+    private final String[] terms;
+    private final int[][] postings;
+    private final double[] idf;
+    private final Map<Long, int[]> termsByTrigram;
+
+    /**
+     * Build a search engine over a set of foods
+     * @param foodIds Food IDs
+     * @param foodDescriptions Description of each food
+     * @param foodGroups Food group name of each food
+     */
+    public FoodSearchEngine(long[] foodIds, String[] foodDescriptions, String[] foodGroups) {
+        int size = foodIds.length;
+        this.ids = foodIds.clone();
+        this.descriptions = foodDescriptions.clone();
+        this.groupOf = new int[size];
+        this.firstTerm = new int[size];
+
+        Map<String, Integer> groupIndex = new LinkedHashMap<>();
+        for (int row = 0; row < size; row++) {
+            String group = foodGroups[row] != null ? foodGroups[row] : "";
+            groupOf[row] = groupIndex.computeIfAbsent(group, k -> groupIndex.size());
+        }
+        this.groupNames = groupIndex.keySet().toArray(new String[0]);
+
+        // Inverted index: term -> rows containing it
+        Map<String, List<Integer>> building = new HashMap<>();
+        String[] firstTokens = new String[size];
+        for (int row = 0; row < size; row++) {
+            List<String> tokens = tokenize(descriptions[row]);
+            firstTokens[row] = tokens.isEmpty() ? null : tokens.get(0);
+            for (String token : tokens) {
+                List<Integer> rows = building.computeIfAbsent(token, k -> new ArrayList<>());
+                if (rows.isEmpty() || rows.get(rows.size() - 1) != row) {
+                    rows.add(row);
+                }
+            }
+        }
+
+        this.terms = building.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        this.postings = new int[terms.length][];
+        this.idf = new double[terms.length];
+        Map<String, Integer> termIndex = new HashMap<>(terms.length * 4 / 3 + 1);
+        for (int t = 0; t < terms.length; t++) {
+            List<Integer> rows = building.get(terms[t]);
+            postings[t] = rows.stream().mapToInt(Integer::intValue).toArray();
+            idf[t] = Math.log(1 + (double) size / rows.size());
+            termIndex.put(terms[t], t);
+        }
+        for (int row = 0; row < size; row++) {
+            firstTerm[row] = firstTokens[row] != null ? termIndex.get(firstTokens[row]) : -1;
+        }
+
+        // Trigram index over the vocabulary for typo-tolerant lookups
+        Map<Long, List<Integer>> trigrams = new HashMap<>();
+        for (int t = 0; t < terms.length; t++) {
+            String padded = " " + terms[t] + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                List<Integer> list = trigrams.computeIfAbsent(trigram(padded, i), k -> new ArrayList<>());
+                if (list.isEmpty() || list.get(list.size() - 1) != t) {
+                    list.add(t);
+                }
+            }
+        }
+        this.termsByTrigram = new HashMap<>(trigrams.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, List<Integer>> entry : trigrams.entrySet()) {
+            termsByTrigram.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * Build a search engine over every food in a catalog snapshot
+     */
+    public static FoodSearchEngine fromCatalog(FoodCatalog catalog) {
+        int size = catalog.size();
+        long[] foodIds = new long[size];
+        String[] foodDescriptions = new String[size];
+        String[] foodGroups = new String[size];
+        for (int row = 0; row < size; row++) {
+            foodIds[row] = catalog.getFoodId(row);
+            foodDescriptions[row] = catalog.getDescription(row);
+            foodGroups[row] = catalog.getFoodGroup(row);
+        }
+        return new FoodSearchEngine(foodIds, foodDescriptions, foodGroups);
+    }
+
+    /**
+     * Search all food groups
+     * @param query Free text, e.g. "chedar chese"
+     * @param limit Maximum number of hits to return
+     */
+    public SearchResult search(String query, int limit) {
+        return search(query, null, limit);
+    }
+
+    /**
+     * Search, optionally restricted to one food group
+     * @param query Free text
+     * @param foodGroup Food group name to restrict hits to, or null for all groups
+     * @param limit Maximum number of hits to return
+     * @return The top hits, best first, with facet counts over every group
+     */
+    public SearchResult search(String query, String foodGroup, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new SearchResult(Collections.emptyList(), Collections.emptyMap(), 0);
+        }
+
+        int size = ids.length;
+        double[] scores = new double[size];
+        int[] matched = new int[size];
+        // Best weight each row got for the current query token, so several
+        // matching terms in one description do not count the token twice
+        double[] tokenBest = new double[size];
+        int[] touchedRows = new int[size];
+
+        for (int q = 0; q < tokens.size(); q++) {
+            boolean lastToken = q == tokens.size() - 1;
+            Map<Integer, Double> candidates = matchTerms(tokens.get(q), lastToken);
+
+            int touched = 0;
+            for (Map.Entry<Integer, Double> candidate : candidates.entrySet()) {
+                int t = candidate.getKey();
+                double weight = candidate.getValue() * idf[t];
+                for (int row : postings[t]) {
+                    if (tokenBest[row] == 0) {
+                        touchedRows[touched++] = row;
+                    }
+                    if (weight > tokenBest[row]) {
+                        tokenBest[row] = weight;
+                    }
+                    if (q == 0 && firstTerm[row] == t) {
+                        scores[row] += LEADING_WORD_BONUS * weight;
+                    }
+                }
+            }
+            for (int i = 0; i < touched; i++) {
+                int row = touchedRows[i];
+                scores[row] += tokenBest[row];
+                matched[row]++;
+                tokenBest[row] = 0;
+            }
+        }
+
+        // Only foods matching the most query words are candidates
+        int bestCoverage = 0;
+        for (int row = 0; row < size; row++) {
+            bestCoverage = Math.max(bestCoverage, matched[row]);
+        }
+        if (bestCoverage == 0) {
+            return new SearchResult(Collections.emptyList(), Collections.emptyMap(), 0);
+        }
+
+        int groupFilter = -1;
+        if (foodGroup != null) {
+            groupFilter = Arrays.asList(groupNames).indexOf(foodGroup);
+        }
+
+        Map<String, Integer> facets = new LinkedHashMap<>();
+        int[] facetCounts = new int[groupNames.length];
+        int total = 0;
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> compare(b, a, scores));
+        for (int row = 0; row < size; row++) {
+            if (matched[row] != bestCoverage) {
+                continue;
+            }
+            facetCounts[groupOf[row]]++;
+            if (foodGroup != null && groupOf[row] != groupFilter) {
+                continue;
+            }
+            total++;
+            top.add(row);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        for (int g = 0; g < groupNames.length; g++) {
+            if (facetCounts[g] > 0) {
+                facets.put(groupNames[g], facetCounts[g]);
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int row = top.poll();
+            hits.add(new Hit(ids[row], descriptions[row], groupNames[groupOf[row]], scores[row]));
+        }
+        Collections.reverse(hits);
+        return new SearchResult(hits, facets, total);
+    }
+
+    /**
+     * Higher score first, then shorter description, then lower food ID
+     * @return Negative if row a ranks ahead of row b
+     */
+    private int compare(int a, int b, double[] scores) {
+        int byScore = Double.compare(scores[b], scores[a]);
+        if (byScore != 0) {
+            return byScore;
+        }
+        int byLength = Integer.compare(descriptions[a].length(), descriptions[b].length());
+        return byLength != 0 ? byLength : Long.compare(ids[a], ids[b]);
+    }
+
+    /**
+     * Find vocabulary terms matching one query word, with the weight of the match
+     */
+    private Map<Integer, Double> matchTerms(String token, boolean allowPrefix) {
+        Map<Integer, Double> matches = new HashMap<>();
+
+        int exact = Arrays.binarySearch(terms, token);
+        if (exact >= 0) {
+            matches.put(exact, EXACT_WEIGHT);
+        }
+
+        if (allowPrefix || exact < 0) {
+            int start = exact >= 0 ? exact + 1 : -exact - 1;
+            for (int t = start; t < terms.length && t < start + MAX_PREFIX_TERMS && terms[t].startsWith(token); t++) {
+                matches.putIfAbsent(t, PREFIX_WEIGHT);
+            }
+        }
+
+        int maxDistance = token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+        if (maxDistance > 0 && exact < 0) {
+            for (int t : fuzzyCandidates(token)) {
+                if (matches.containsKey(t) || Math.abs(terms[t].length() - token.length()) > maxDistance) {
+                    continue;
+                }
+                int distance = editDistance(token, terms[t], maxDistance);
+                if (distance <= maxDistance) {
+                    matches.put(t, FUZZY_WEIGHT / distance);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Terms sharing enough trigrams with the token to be within a small edit distance
+     */
+    private List<Integer> fuzzyCandidates(String token) {
+        String padded = " " + token + " ";
+        Map<Integer, Integer> shared = new HashMap<>();
+        int grams = 0;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams++;
+            int[] termIds = termsByTrigram.get(trigram(padded, i));
+            if (termIds != null) {
+                for (int t : termIds) {
+                    shared.merge(t, 1, Integer::sum);
+                }
+            }
+        }
+
+        // Each edit can break at most three trigrams; keep terms that share a third
+        int needed = Math.max(1, grams / 3);
+        List<Integer> candidates = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+            if (entry.getValue() >= needed) {
+                candidates.add(entry.getKey());
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent swaps),
+     * giving up as soon as it must exceed the limit
+     */
+    static int editDistance(String a, String b, int limit) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Split text into lowercase words of letters and digits
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static long trigram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    /**
+     * Get the number of searchable foods
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * One ranked search hit
+     */
+    public static class Hit {
+        private final long foodId;
+        private final String description;
+        private final String foodGroup;
+        private final double score;
+
+        public Hit(long foodId, String description, String foodGroup, double score) {
+            this.foodId = foodId;
+            this.description = description;
+            this.foodGroup = foodGroup;
+            this.score = score;
+        }
+
+        public long getFoodId() { return foodId; }
+        public String getDescription() { return description; }
+        public String getFoodGroup() { return foodGroup; }
+        public double getScore() { return score; }
+
+        @Override
+        public String toString() {
+            return String.format("%d %s [%s] %.3f", foodId, description, foodGroup, score);
+        }
+    }
+
+    /**
+     * The top hits of a search with food-group facet counts
+     */
+    public static class SearchResult {
+        private final List<Hit> hits;
+        private final Map<String, Integer> groupFacets;
+        private final int totalMatches;
+
+        public SearchResult(List<Hit> hits, Map<String, Integer> groupFacets, int totalMatches) {
+            this.hits = hits;
+            this.groupFacets = groupFacets;
+            this.totalMatches = totalMatches;
+        }
+
+        /** Top hits, best first */
+        public List<Hit> getHits() { return hits; }
+
+        /** Number of matching foods in each food group (ignoring any group filter) */
+        public Map<String, Integer> getGroupFacets() { return groupFacets; }
+
+        /** Number of foods that matched, before the limit was applied */
+        public int getTotalMatches() { return totalMatches; }
+
+        /** Food IDs of the hits, best first */
+        public List<Long> getFoodIds() {
+            List<Long> foodIds = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                foodIds.add(hit.getFoodId());
+            }
+            return foodIds;
+        }
+    }
+}
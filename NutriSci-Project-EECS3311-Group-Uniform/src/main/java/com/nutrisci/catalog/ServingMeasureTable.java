@@ -0,0 +1,154 @@
+package com.nutrisci.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory table of the CNF household measures (MEASURE_NAME) and their
+ * per-food conversion factors (CONVERSION_FACTOR).
+ *
+ * CNF nutrient amounts are per 100 g and a conversion factor is the multiple
+ * of 100 g one measure weighs, so "1 cup" of a food with factor 2.44 is
+ * 244 g. Rows are stored grouped by food in parallel arrays: foodIds holds
+ * each food once in ascending order and offsets[i]..offsets[i + 1] is the
+ * range of its measures, found with a binary search.
+ *
+ * The table is immutable once built, so it can be shared between threads.
+ */
+public class ServingMeasureTable {
+    private final long[] foodIds;
+    private final int[] offsets;
+    private final int[] measureIds;
+    private final double[] factors;
+    private final Map<Integer, String> measureNames;
+
+    /**
+     * Build the table from CONVERSION_FACTOR rows in any order
+     * @param rowFoodIds FoodID of each row
+     * @param rowMeasureIds MeasureID of each row
+     * @param rowFactors ConversionFactorValue of each row
+     * @param measureNames MeasureDescription by MeasureID
+     */
+    public ServingMeasureTable(long[] rowFoodIds, int[] rowMeasureIds, double[] rowFactors,
+                               Map<Integer, String> measureNames) {
+        Integer[] order = new Integer[rowFoodIds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(rowFoodIds[a], rowFoodIds[b]));
+
+        int foodCount = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (i == 0 || rowFoodIds[order[i]] != rowFoodIds[order[i - 1]]) {
+                foodCount++;
+            }
+        }
+
+        foodIds = new long[foodCount];
+        offsets = new int[foodCount + 1];
+        measureIds = new int[order.length];
+        factors = new double[order.length];
+        int food = -1;
+        for (int i = 0; i < order.length; i++) {
+            int row = order[i];
+            if (i == 0 || rowFoodIds[row] != rowFoodIds[order[i - 1]]) {
+                food++;
+                foodIds[food] = rowFoodIds[row];
+                offsets[food] = i;
+            }
+            measureIds[i] = rowMeasureIds[row];
+            factors[i] = rowFactors[row];
+        }
+        offsets[foodCount] = order.length;
+        this.measureNames = new HashMap<>(measureNames);
+    }
+
+    /**
+     * Get an empty table, used when the database has no measure data
+     */
+    public static ServingMeasureTable empty() {
+        return new ServingMeasureTable(new long[0], new int[0], new double[0], Collections.emptyMap());
+    }
+
+    /**
+     * Get every measure available for a food
+     * @param foodId The CNF FoodID
+     * @return The measures in table order, or an empty list if the food has none
+     */
+    public List<Measure> getMeasures(long foodId) {
+        int food = Arrays.binarySearch(foodIds, foodId);
+        if (food < 0) {
+            return Collections.emptyList();
+        }
+        List<Measure> measures = new ArrayList<>(offsets[food + 1] - offsets[food]);
+        for (int i = offsets[food]; i < offsets[food + 1]; i++) {
+            measures.add(new Measure(measureIds[i], measureNames.get(measureIds[i]), factors[i] * 100));
+        }
+        return measures;
+    }
+
+    /**
+     * Get the weight of one measure of a food
+     * @param foodId The CNF FoodID
+     * @param measureId The CNF MeasureID
+     * @return The weight in grams, or NaN if the food has no such measure
+     */
+    public double gramsOf(long foodId, int measureId) {
+        int food = Arrays.binarySearch(foodIds, foodId);
+        if (food >= 0) {
+            for (int i = offsets[food]; i < offsets[food + 1]; i++) {
+                if (measureIds[i] == measureId) {
+                    return factors[i] * 100;
+                }
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Get the number of foods that have at least one measure
+     */
+    public int size() {
+        return foodIds.length;
+    }
+
+    /**
+     * One household measure of a food, such as "250 ml" or "1 medium"
+     */
+    public static class Measure {
+        private final int measureId;
+        private final String description;
+        private final double grams;
+
+        Measure(int measureId, String description, double grams) {
+            this.measureId = measureId;
+            this.description = description;
+            this.grams = grams;
+        }
+
+        /**
+         * Get a plain weight, for portions that are not a household measure
+         * @param grams The weight in grams
+         * @return A measure with MeasureID 0
+         */
+        public static Measure ofGrams(double grams) {
+            return new Measure(0, String.format("%.0f g", grams), grams);
+        }
+
+        public int getMeasureId() { return measureId; }
+        public String getDescription() { return description; }
+        public double getGrams() { return grams; }
+
+        @Override
+        public String toString() {
+            if (measureId == 0) {
+                return description;
+            }
+            return String.format("%s (%.0f g)", description, grams);
+        }
+    }
+}
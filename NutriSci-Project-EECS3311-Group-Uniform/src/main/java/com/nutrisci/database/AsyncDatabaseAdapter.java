@@ -0,0 +1,165 @@
+package com.nutrisci.database;
+
+import com.nutrisci.meal.Meal;
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.MealType;
+import com.nutrisci.model.User;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking view of a DatabaseAdapter.
+ * Every adapter operation is offered as a CompletableFuture so callers can
+ * start independent lookups together (e.g. today's meals and the food name
+ * map) and wait only as long as the slowest one.
+ *
+ * Work runs on a dedicated pool of daemon threads whose size caps how many
+ * queries are in flight at once (the connection pool's own limit still
+ * applies underneath). Extra requests queue until a thread frees up.
+ *
+ * Results are completed on a database thread; Swing callers should hop back
+ * to the EDT (SwingUtilities.invokeLater) before touching components.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class AsyncDatabaseAdapter {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final DatabaseAdapter delegate;
+    private final ExecutorService executor;
+
+    /**
+     * Wrap an adapter, allowing as many concurrent queries as a default-sized connection pool
+     * @param delegate The blocking adapter to run operations on
+     */
+    public AsyncDatabaseAdapter(DatabaseAdapter delegate) {
+        this(delegate, Math.min(16, Math.max(4, Runtime.getRuntime().availableProcessors() * 2)));
+    }
+
+    /**
+     * Wrap an adapter with an explicit concurrency limit
+     * @param delegate The blocking adapter to run operations on
+     * @param maxConcurrency Maximum number of operations running at once
+     */
+    public AsyncDatabaseAdapter(DatabaseAdapter delegate, int maxConcurrency) {
+        this.delegate = delegate;
+
+        int threads = Math.max(1, maxConcurrency);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "nutrisci-db-async-" + THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        // Let idle threads exit so an unused adapter costs nothing
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * Get the blocking adapter behind this one
+     */
+    public DatabaseAdapter getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Run other blocking database work (e.g. a service call built on several
+     * queries) on the same bounded pool
+     * @param operation The blocking work
+     * @return Its result, completed on a database thread
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, executor);
+    }
+
+    public CompletableFuture<Boolean> saveMeal(Meal meal, long userId) {
+        return submit(() -> delegate.saveMeal(meal, userId));
+    }
+
+    public CompletableFuture<Boolean> updateMeal(Meal meal) {
+        return submit(() -> delegate.updateMeal(meal));
+    }
+
+    public CompletableFuture<Boolean> deleteMeal(Long mealId) {
+        return submit(() -> delegate.deleteMeal(mealId));
+    }
+
+    public CompletableFuture<List<Meal>> getMealsForUser(long userId, LocalDate startDate, LocalDate endDate) {
+        return submit(() -> delegate.getMealsForUser(userId, startDate, endDate));
+    }
+
+    public CompletableFuture<Boolean> saveUser(User user) {
+        return submit(() -> delegate.saveUser(user));
+    }
+
+    public CompletableFuture<Boolean> updateUserProfile(User user) {
+        return submit(() -> delegate.updateUserProfile(user));
+    }
+
+    public CompletableFuture<User> authenticateUser(String email, String password) {
+        return submit(() -> delegate.authenticateUser(email, password));
+    }
+
+    public CompletableFuture<Boolean> checkIfUserExists(String email) {
+        return submit(() -> delegate.checkIfUserExists(email));
+    }
+
+    public CompletableFuture<FoodItem> loadFoodItem(Long foodId) {
+        return submit(() -> delegate.loadFoodItem(foodId));
+    }
+
+    public CompletableFuture<Map<Long, FoodItem>> loadFoodItems(Collection<Long> foodIds) {
+        return submit(() -> delegate.loadFoodItems(foodIds));
+    }
+
+    public CompletableFuture<Map<Long, String>> getFoodItems() {
+        return submit(delegate::getFoodItems);
+    }
+
+    public CompletableFuture<Map<Long, String>> importMeals(long userId) {
+        return submit(() -> delegate.importMeals(userId));
+    }
+
+    public CompletableFuture<List<Long>> importMeal(long mealId) {
+        return submit(() -> delegate.importMeal(mealId));
+    }
+
+    public CompletableFuture<List<FoodItem>> importMealItems(long mealId) {
+        return submit(() -> delegate.importMealItems(mealId));
+    }
+
+    public CompletableFuture<Boolean> swapFoodInMeal(Long mealId, FoodItem original, FoodItem replacement) {
+        return submit(() -> delegate.swapFoodInMeal(mealId, original, replacement));
+    }
+
+    public CompletableFuture<Boolean> canAddMealType(long userId, MealType type, LocalDate date) {
+        return submit(() -> delegate.canAddMealType(userId, type, date));
+    }
+
+    public CompletableFuture<Integer> getMealCountForType(long userId, MealType type, LocalDate date) {
+        return submit(() -> delegate.getMealCountForType(userId, type, date));
+    }
+
+    public CompletableFuture<List<MealType>> getAvailableMealTypes(long userId, LocalDate date) {
+        return submit(() -> delegate.getAvailableMealTypes(userId, date));
+    }
+
+    /**
+     * Stop accepting work. Operations already queued still run.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,445 @@
+package com.nutrisci.database;
+
+import com.nutrisci.catalog.CatalogManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Streams the Canadian Nutrient File CSV files into the CNF tables
+ * (FOOD_GROUP, FOOD_NAME, NUTRIENT_NAME, NUTRIENT_AMOUNT, MEASURE_NAME,
+ * CONVERSION_FACTOR).
+ *
+ * Files are read one record at a time and written with JDBC batches,
+ * committing every commitInterval rows. After each commit the progress is
+ * written to a checkpoint file, so an interrupted load resumes where it
+ * stopped instead of starting over.
+ *
+ * Usage: CnfBulkLoader csvDirectory [--embedded] [--replace]
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class CnfBulkLoader {
+    // CNF files are published in Windows-1252/Latin-1
+    private static final Charset CNF_CHARSET = StandardCharsets.ISO_8859_1;
+    private static final String CHECKPOINT_FILE = ".cnf-load.checkpoint";
+
+    /**
+     * The CNF files to load, in dependency order
+     */
+    static final List<TableSpec> TABLES = Collections.unmodifiableList(Arrays.asList(
+        new TableSpec("FOOD GROUP.csv", "FOOD_GROUP",
+            new String[] { "FoodGroupID", "FoodGroupCode", "FoodGroupName" },
+            new int[] { Types.INTEGER, Types.INTEGER, Types.VARCHAR }),
+        new TableSpec("NUTRIENT NAME.csv", "NUTRIENT_NAME",
+            new String[] { "NutrientID", "NutrientCode", "NutrientSymbol", "NutrientUnit", "NutrientName" },
+            new int[] { Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR }),
+        new TableSpec("FOOD NAME.csv", "FOOD_NAME",
+            new String[] { "FoodID", "FoodCode", "FoodGroupID", "FoodDescription" },
+            new int[] { Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.VARCHAR }),
+        new TableSpec("NUTRIENT AMOUNT.csv", "NUTRIENT_AMOUNT",
+            new String[] { "FoodID", "NutrientID", "NutrientValue" },
+            new int[] { Types.INTEGER, Types.INTEGER, Types.DOUBLE }),
+        new TableSpec("MEASURE NAME.csv", "MEASURE_NAME",
+            new String[] { "MeasureID", "MeasureDescription" },
+            new int[] { Types.INTEGER, Types.VARCHAR }),
+        new TableSpec("CONVERSION FACTOR.csv", "CONVERSION_FACTOR",
+            new String[] { "FoodID", "MeasureID", "ConversionFactorValue" },
+            new int[] { Types.INTEGER, Types.INTEGER, Types.DOUBLE })
+    ));
+
+    private final DatabaseManager databaseManager;
+    private int batchSize = 1000;
+    private int commitInterval = 20000;
+    private boolean replaceExisting;
+
+    /**
+     * Create a loader that writes through the given database
+     * @param databaseManager The target database
+     */
+    public CnfBulkLoader(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+    }
+
+    /**
+     * Create a loader that writes into an embedded database
+     * @param adapter The target embedded database
+     */
+    public CnfBulkLoader(EmbeddedDatabaseAdapter adapter) {
+        this(adapter.getDatabaseManager());
+    }
+
+    /**
+     * Set the number of rows sent per JDBC batch
+     */
+    public CnfBulkLoader setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    /**
+     * Set the number of rows written between commits (and checkpoints)
+     */
+    public CnfBulkLoader setCommitInterval(int commitInterval) {
+        this.commitInterval = Math.max(1, commitInterval);
+        return this;
+    }
+
+    /**
+     * Delete the existing rows of a table before loading it from the start
+     */
+    public CnfBulkLoader setReplaceExisting(boolean replaceExisting) {
+        this.replaceExisting = replaceExisting;
+        return this;
+    }
+
+    /**
+     * Load every CNF file found in the directory, resuming from the
+     * checkpoint left by an interrupted run if there is one.
+     * @param csvDirectory Directory containing the CNF CSV files
+     * @return Per-table row counts and throughput
+     */
+    public List<TableReport> load(Path csvDirectory) throws IOException, SQLException {
+        Path checkpointPath = csvDirectory.resolve(CHECKPOINT_FILE);
+        Checkpoint checkpoint = Checkpoint.read(checkpointPath);
+        List<TableReport> reports = new ArrayList<>();
+
+        for (TableSpec table : TABLES) {
+            Path file = csvDirectory.resolve(table.fileName);
+            if (!Files.exists(file)) {
+                System.out.println("Skipping " + table.tableName + ": " + file + " not found");
+                continue;
+            }
+            if (checkpoint.completed.contains(table.tableName)) {
+                System.out.println("Skipping " + table.tableName + ": already loaded");
+                continue;
+            }
+
+            long resumeFrom = table.tableName.equals(checkpoint.table) ? checkpoint.rows : 0;
+            TableReport report = loadTable(table, file, resumeFrom, checkpoint, checkpointPath);
+            reports.add(report);
+            System.out.println(report);
+
+            checkpoint.completed.add(table.tableName);
+            checkpoint.table = null;
+            checkpoint.rows = 0;
+            checkpoint.write(checkpointPath);
+        }
+
+        Files.deleteIfExists(checkpointPath);
+        // Cached foods may no longer match the reloaded tables
+        databaseManager.invalidateFoodCache();
+        return reports;
+    }
+
+    /**
+     * Stream one CSV file into its table
+     */
+    private TableReport loadTable(TableSpec table, Path file, long resumeFrom,
+                                  Checkpoint checkpoint, Path checkpointPath) throws IOException, SQLException {
+        long start = System.nanoTime();
+        long rowsRead = 0;
+        long rowsWritten = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, CNF_CHARSET);
+             Connection connection = databaseManager.getConnection()) {
+            connection.setAutoCommit(false);
+
+            List<String> header = readRecord(reader);
+            if (header == null) {
+                return new TableReport(table.tableName, 0, 0);
+            }
+            int[] positions = table.positionsIn(header);
+
+            if (resumeFrom == 0 && replaceExisting) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM " + table.tableName);
+                }
+                connection.commit();
+            } else if (resumeFrom > 0) {
+                System.out.println("Resuming " + table.tableName + " after row " + resumeFrom);
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(table.insertSql())) {
+                List<String> record;
+                int pending = 0;
+                while ((record = readRecord(reader)) != null) {
+                    if (isBlank(record)) {
+                        continue;
+                    }
+                    rowsRead++;
+                    if (rowsRead <= resumeFrom) {
+                        continue;
+                    }
+
+                    table.bind(ps, record, positions);
+                    ps.addBatch();
+                    pending++;
+                    rowsWritten++;
+
+                    if (pending % batchSize == 0) {
+                        ps.executeBatch();
+                    }
+                    if (pending >= commitInterval) {
+                        ps.executeBatch();
+                        connection.commit();
+                        pending = 0;
+
+                        checkpoint.table = table.tableName;
+                        checkpoint.rows = rowsRead;
+                        checkpoint.write(checkpointPath);
+                        printProgress(table.tableName, rowsWritten, start);
+                    }
+                }
+
+                ps.executeBatch();
+                connection.commit();
+            }
+        }
+
+        return new TableReport(table.tableName, rowsWritten, System.nanoTime() - start);
+    }
+
+    private static void printProgress(String tableName, long rows, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("  %s: %,d rows (%,.0f rows/sec)%n", tableName, rows, rows / Math.max(seconds, 1e-9));
+    }
+
+    private static boolean isBlank(List<String> record) {
+        return record.size() == 1 && record.get(0).trim().isEmpty();
+    }
+
+    /**
+     * Read one CSV record, following quoted fields across line breaks.
+     * @return The fields of the record, or null at the end of the file
+     */
+    static List<String> readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+
+            if (!quoted) {
+                break;
+            }
+            line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            field.append('\n');
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Describes how one CNF file maps onto its table
+     */
+    static class TableSpec {
+        final String fileName;
+        final String tableName;
+        final String[] columns;
+        final int[] types;
+
+        TableSpec(String fileName, String tableName, String[] columns, int[] types) {
+            this.fileName = fileName;
+            this.tableName = tableName;
+            this.columns = columns;
+            this.types = types;
+        }
+
+        String insertSql() {
+            return "INSERT INTO " + tableName + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.length, "?")) + ")";
+        }
+
+        /**
+         * Find where each table column sits in the CSV header
+         */
+        int[] positionsIn(List<String> header) throws IOException {
+            int[] positions = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                positions[i] = -1;
+                for (int j = 0; j < header.size(); j++) {
+                    if (header.get(j).trim().replaceAll("^[^A-Za-z]+", "").equalsIgnoreCase(columns[i])) {
+                        positions[i] = j;
+                        break;
+                    }
+                }
+                if (positions[i] < 0) {
+                    throw new IOException(fileName + " has no " + columns[i] + " column");
+                }
+            }
+            return positions;
+        }
+
+        void bind(PreparedStatement ps, List<String> record, int[] positions) throws SQLException {
+            for (int i = 0; i < columns.length; i++) {
+                String value = positions[i] < record.size() ? record.get(positions[i]).trim() : "";
+                if (value.isEmpty()) {
+                    ps.setNull(i + 1, types[i]);
+                    continue;
+                }
+                switch (types[i]) {
+                    case Types.INTEGER:
+                        ps.setInt(i + 1, Integer.parseInt(value));
+                        break;
+                    case Types.DOUBLE:
+                        ps.setDouble(i + 1, Double.parseDouble(value));
+                        break;
+                    default:
+                        ps.setString(i + 1, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rows loaded into one table and how long it took
+     */
+    public static class TableReport {
+        private final String tableName;
+        private final long rows;
+        private final long elapsedNanos;
+
+        public TableReport(String tableName, long rows, long elapsedNanos) {
+            this.tableName = tableName;
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String getTableName() { return tableName; }
+        public long getRows() { return rows; }
+        public double getSeconds() { return elapsedNanos / 1_000_000_000.0; }
+        public double getRowsPerSecond() { return rows / Math.max(getSeconds(), 1e-9); }
+
+        @Override
+        public String toString() {
+            return String.format("Loaded %s: %,d rows in %.2f s (%,.0f rows/sec)",
+                tableName, rows, getSeconds(), getRowsPerSecond());
+        }
+    }
+
+    /**
+     * Progress saved after each commit: finished tables plus the table
+     * in progress and how many of its rows are committed
+     */
+    private static class Checkpoint {
+        private final Set<String> completed = new HashSet<>();
+        private String table;
+        private long rows;
+
+        static Checkpoint read(Path path) throws IOException {
+            Checkpoint checkpoint = new Checkpoint();
+            if (!Files.exists(path)) {
+                return checkpoint;
+            }
+
+            Properties properties = new Properties();
+            try (InputStream input = Files.newInputStream(path)) {
+                properties.load(input);
+            }
+            String completed = properties.getProperty("completed", "");
+            for (String table : completed.split(",")) {
+                if (!table.trim().isEmpty()) {
+                    checkpoint.completed.add(table.trim());
+                }
+            }
+            checkpoint.table = properties.getProperty("table");
+            checkpoint.rows = Long.parseLong(properties.getProperty("rows", "0"));
+            return checkpoint;
+        }
+
+        void write(Path path) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("completed", String.join(",", completed));
+            if (table != null) {
+                properties.setProperty("table", table);
+                properties.setProperty("rows", Long.toString(rows));
+            }
+            try (OutputStream output = Files.newOutputStream(path)) {
+                properties.store(output, "CNF bulk load progress");
+            }
+        }
+    }
+
+    /**
+     * Load the CNF files from a directory into the hosted or embedded database
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: CnfBulkLoader <csvDirectory> [--embedded] [--replace]");
+            return;
+        }
+
+        List<String> options = Arrays.asList(args).subList(1, args.length);
+        CnfBulkLoader loader = options.contains("--embedded")
+            ? new CnfBulkLoader(new EmbeddedDatabaseAdapter())
+            : new CnfBulkLoader(DatabaseManager.getInstance());
+        loader.setReplaceExisting(options.contains("--replace"));
+
+        long start = System.nanoTime();
+        long rows = 0;
+        for (TableReport report : loader.load(Paths.get(args[0]))) {
+            rows += report.getRows();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Loaded %,d rows in %.2f s (%,.0f rows/sec)%n", rows, seconds, rows / Math.max(seconds, 1e-9));
+
+        // Refresh the memory-mapped catalog so the next start sees the new data
+        start = System.nanoTime();
+        CatalogManager catalogManager = CatalogManager.getInstance();
+        int foods = catalogManager.rebuild(loader.databaseManager).size();
+        System.out.printf("Catalog snapshot written: %d foods in %.1f ms (%s)%n",
+                foods, (System.nanoTime() - start) / 1_000_000.0, catalogManager.getSnapshotPath());
+    }
+}
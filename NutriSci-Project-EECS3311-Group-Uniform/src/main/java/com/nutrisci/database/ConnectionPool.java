@@ -0,0 +1,437 @@
+package com.nutrisci.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded JDBC connection pool used by DatabaseManager.
+ * Connections are validated when borrowed, idle connections are evicted
+ * in the background, and new connections are opened with exponential
+ * backoff so a dropped database does not take the application down.
+ *
+ * Borrowed connections are returned to the pool by calling close(),
+ * so callers can keep using try-with-resources.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class ConnectionPool {
+    private static final long EVICTION_INTERVAL_MILLIS = 30_000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int maxSize;
+    private final int minIdle;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final int validationTimeoutSeconds;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final LinkedBlockingDeque<PooledEntry> idleConnections = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService evictor;
+
+    // Metrics
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong connectFailures = new AtomicLong();
+
+    /**
+     * Create a pool from the database properties.
+     * Reads db.url, db.user, db.password and the optional db.pool.* settings.
+     * @param properties The loaded database properties
+     */
+    public ConnectionPool(Properties properties) {
+        this.url = properties.getProperty("db.url");
+        this.user = properties.getProperty("db.user");
+        this.password = properties.getProperty("db.password");
+
+        int defaultMaxSize = Math.min(16, Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        this.maxSize = Math.max(1, intProperty(properties, "db.pool.maxSize", defaultMaxSize));
+        this.minIdle = Math.min(maxSize, Math.max(0, intProperty(properties, "db.pool.minIdle", 1)));
+        this.borrowTimeoutMillis = longProperty(properties, "db.pool.borrowTimeoutMillis", 10_000);
+        this.idleTimeoutMillis = longProperty(properties, "db.pool.idleTimeoutMillis", 300_000);
+        this.validationIntervalMillis = longProperty(properties, "db.pool.validationIntervalMillis", 500);
+        this.validationTimeoutSeconds = intProperty(properties, "db.pool.validationTimeoutSeconds", 2);
+        this.initialBackoffMillis = longProperty(properties, "db.pool.initialBackoffMillis", 100);
+        this.maxBackoffMillis = longProperty(properties, "db.pool.maxBackoffMillis", 5_000);
+
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nutrisci-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evictIdleConnections,
+                EVICTION_INTERVAL_MILLIS, EVICTION_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        fillMinIdle();
+    }
+
+    /**
+     * Borrow a connection from the pool, waiting up to the borrow timeout
+     * if every connection is in use. Closing the returned connection
+     * gives it back to the pool.
+     * @return A validated connection
+     * @throws SQLException if no connection could be obtained in time
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        waitingCount.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waitingCount.decrementAndGet();
+        }
+
+        try {
+            Connection physical = takeIdleConnection();
+            if (physical == null) {
+                physical = openConnection(deadline);
+            }
+
+            recordWait(System.nanoTime() - start);
+            activeCount.incrementAndGet();
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Take the most recently used idle connection that is still valid.
+     * Connections that fail validation are closed and skipped.
+     */
+    private Connection takeIdleConnection() {
+        PooledEntry entry;
+        while ((entry = idleConnections.pollFirst()) != null) {
+            long idleMillis = System.currentTimeMillis() - entry.lastUsed;
+            if (idleMillis < validationIntervalMillis || isValid(entry.connection)) {
+                return entry.connection;
+            }
+            validationFailures.incrementAndGet();
+            destroy(entry.connection);
+        }
+        return null;
+    }
+
+    /**
+     * Open a new physical connection, retrying with exponential backoff
+     * until the deadline passes.
+     */
+    private Connection openConnection(long deadline) throws SQLException {
+        long backoff = initialBackoffMillis;
+        SQLException lastError = null;
+
+        while (true) {
+            try {
+                Connection connection = DriverManager.getConnection(url, user, password);
+                createdCount.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                connectFailures.incrementAndGet();
+                lastError = e;
+                System.err.println("Database connection attempt failed: " + e.getMessage());
+            }
+
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                throw new SQLException("Unable to connect to the database", lastError);
+            }
+
+            try {
+                Thread.sleep(Math.min(backoff, remainingMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while reconnecting to the database", e);
+            }
+            backoff = Math.min(backoff * 2, maxBackoffMillis);
+        }
+    }
+
+    /**
+     * Return a physical connection to the pool. Connections left in a
+     * transaction are rolled back, and broken connections are discarded.
+     */
+    private void release(Connection physical) {
+        activeCount.decrementAndGet();
+        try {
+            if (physical.isClosed()) {
+                destroyedCount.incrementAndGet();
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            idleConnections.offerFirst(new PooledEntry(physical, System.currentTimeMillis()));
+        } catch (SQLException e) {
+            destroy(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Close connections that have been idle longer than the idle timeout,
+     * keeping at least minIdle connections open.
+     */
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledEntry> iterator = idleConnections.descendingIterator();
+        while (iterator.hasNext() && idleConnections.size() > minIdle) {
+            PooledEntry entry = iterator.next();
+            if (now - entry.lastUsed > idleTimeoutMillis && idleConnections.removeFirstOccurrence(entry)) {
+                destroy(entry.connection);
+            }
+        }
+        fillMinIdle();
+    }
+
+    /**
+     * Open connections until minIdle are available. Failures are logged
+     * and retried on the next eviction run.
+     */
+    private void fillMinIdle() {
+        while (idleConnections.size() + activeCount.get() < minIdle) {
+            try {
+                Connection connection = DriverManager.getConnection(url, user, password);
+                createdCount.incrementAndGet();
+                idleConnections.offerLast(new PooledEntry(connection, System.currentTimeMillis()));
+            } catch (SQLException e) {
+                connectFailures.incrementAndGet();
+                System.err.println("Database connection error: " + e.getMessage());
+                System.err.println("SQL State: " + e.getSQLState());
+                System.err.println("Error Code: " + e.getErrorCode());
+                return;
+            }
+        }
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(Connection connection) {
+        destroyedCount.incrementAndGet();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // the connection is already unusable
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Close every idle connection. Connections currently borrowed are closed
+     * when they are returned, and later borrows reconnect on demand.
+     */
+    public void closeIdleConnections() {
+        PooledEntry entry;
+        while ((entry = idleConnections.pollFirst()) != null) {
+            destroy(entry.connection);
+        }
+    }
+
+    /**
+     * Close every idle connection and stop the background evictor.
+     */
+    public void shutdown() {
+        evictor.shutdownNow();
+        closeIdleConnections();
+    }
+
+    /**
+     * Get a snapshot of the pool metrics
+     * @return The current pool statistics
+     */
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        double averageWaitMillis = borrows == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / borrows;
+        return new PoolStats(
+            maxSize,
+            activeCount.get(),
+            idleConnections.size(),
+            waitingCount.get(),
+            borrows,
+            averageWaitMillis,
+            maxWaitNanos.get() / 1_000_000.0,
+            createdCount.get(),
+            destroyedCount.get(),
+            validationFailures.get(),
+            connectFailures.get()
+        );
+    }
+
+    /**
+     * Wrap a physical connection so that close() returns it to the pool.
+     */
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPool.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new PooledConnectionHandler(physical)
+        );
+    }
+
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long longProperty(Properties properties, String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    /**
+     * An idle physical connection and the time it was returned
+     */
+    private static class PooledEntry {
+        private final Connection connection;
+        private final long lastUsed;
+
+        PooledEntry(Connection connection, long lastUsed) {
+            this.connection = connection;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /**
+     * Forwards calls to the physical connection until the borrower closes it
+     */
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        // Set once by the first close(), so racing closes return the connection only once
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    if (returned.get()) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    /**
+     * Read-only snapshot of the pool metrics
+     */
+    public static class PoolStats {
+        private final int maxSize;
+        private final int active;
+        private final int idle;
+        private final int waiting;
+        private final long borrowCount;
+        private final double averageWaitMillis;
+        private final double maxWaitMillis;
+        private final long createdCount;
+        private final long destroyedCount;
+        private final long validationFailures;
+        private final long connectFailures;
+
+        public PoolStats(int maxSize, int active, int idle, int waiting, long borrowCount,
+                         double averageWaitMillis, double maxWaitMillis, long createdCount,
+                         long destroyedCount, long validationFailures, long connectFailures) {
+            this.maxSize = maxSize;
+            this.active = active;
+            this.idle = idle;
+            this.waiting = waiting;
+            this.borrowCount = borrowCount;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.createdCount = createdCount;
+            this.destroyedCount = destroyedCount;
+            this.validationFailures = validationFailures;
+            this.connectFailures = connectFailures;
+        }
+
+        public int getMaxSize() { return maxSize; }
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getWaiting() { return waiting; }
+        public long getBorrowCount() { return borrowCount; }
+        public double getAverageWaitMillis() { return averageWaitMillis; }
+        public double getMaxWaitMillis() { return maxWaitMillis; }
+        public long getCreatedCount() { return createdCount; }
+        public long getDestroyedCount() { return destroyedCount; }
+        public long getValidationFailures() { return validationFailures; }
+        public long getConnectFailures() { return connectFailures; }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d, idle=%d, waiting=%d, max=%d, borrows=%d, avgWait=%.2fms, maxWait=%.2fms, "
+                    + "created=%d, destroyed=%d, validationFailures=%d, connectFailures=%d",
+                    active, idle, waiting, maxSize, borrowCount, averageWaitMillis, maxWaitMillis,
+                    createdCount, destroyedCount, validationFailures, connectFailures);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.nutrisci.database;
+
+import java.util.Arrays;
+
+/**
+ * Creates the Daily_Nutrition_Summary table on an existing database and fills
+ * it from the meal history. Run it once after upgrading; from then on
+ * DatabaseManager keeps the table current on every meal write. Running it
+ * again rebuilds the table, e.g. after meals were changed outside the app.
+ *
+ * Usage: DailySummaryBackfill [--embedded]
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class DailySummaryBackfill {
+
+    public static void main(String[] args) throws Exception {
+        DatabaseManager databaseManager = Arrays.asList(args).contains("--embedded")
+            ? new EmbeddedDatabaseAdapter().getDatabaseManager()
+            : DatabaseManager.getInstance();
+
+        long start = System.nanoTime();
+        int rows = databaseManager.rebuildDailySummaries();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Wrote %,d summary rows in %.2f s%n", rows, seconds);
+    }
+}
@@ -4,6 +4,7 @@ import com.nutrisci.meal.Meal;
 import com.nutrisci.meal.FoodItem;
 import com.nutrisci.model.User;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -84,6 +85,13 @@ public interface DatabaseAdapter {
      */
     FoodItem loadFoodItem(Long foodId);
     
+    /**
+     * Load many food items at once using set-based queries
+     * @param foodIds The food IDs
+     * @return Map of food IDs to FoodItem objects
+     */
+    Map<Long, FoodItem> loadFoodItems(Collection<Long> foodIds);
+    
     /**
      * Get all food items
      * @return Map of food IDs and descriptions
@@ -104,6 +112,13 @@ public interface DatabaseAdapter {
      */
     List<Long> importMeal(long mealId);
     
+    /**
+     * Import the food items of a meal at their logged portions
+     * @param mealId The meal ID
+     * @return List of food items scaled to their grams
+     */
+    List<FoodItem> importMealItems(long mealId);
+    
     /**
      * Swap food in a meal
      * @param mealId The meal ID
@@ -1,5 +1,12 @@
 package com.nutrisci.database;
 
+import com.nutrisci.meal.Meal;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Demonstration class for the Database Adapter pattern.
  * This class shows how to use the adapter pattern to switch
@@ -36,9 +43,11 @@ public class DatabaseAdapterDemo {
         System.out.println("\nUsing factory to create adapters:");
         DatabaseAdapter mysqlAdapter = DatabaseAdapterFactory.createMySQLAdapter();
         DatabaseAdapter postgresAdapter = DatabaseAdapterFactory.createPostgreSQLAdapter();
+        DatabaseAdapter embeddedAdapter = DatabaseAdapterFactory.createEmbeddedAdapter();
         
         System.out.println("MySQL adapter created: " + (mysqlAdapter instanceof MySQLDatabaseAdapter));
         System.out.println("PostgreSQL adapter created: " + (postgresAdapter instanceof PostgreSQLDatabaseAdapter));
+        System.out.println("Embedded adapter created: " + (embeddedAdapter instanceof EmbeddedDatabaseAdapter));
         
         System.out.println("\n=== Demonstration Complete ===");
     }
@@ -61,11 +70,32 @@ public class DatabaseAdapterDemo {
         System.out.println("=== Practical Usage Complete ===");
     }
     
+    /**
+     * Shows independent lookups running at the same time through the async adapter
+     */
+    public static void showAsyncUsage() {
+        System.out.println("\n=== Async Usage Example ===");
+        
+        AsyncDatabaseAdapter async = DatabaseAdapterManager.getInstance().getAsyncAdapter();
+        long start = System.nanoTime();
+        
+        // Both queries start immediately; the total wait is the slower of the two
+        CompletableFuture<Map<Long, String>> foodNames = async.getFoodItems();
+        CompletableFuture<List<Meal>> todaysMeals = async.getMealsForUser(1, LocalDate.now(), LocalDate.now());
+        
+        CompletableFuture.allOf(foodNames, todaysMeals).join();
+        System.out.printf("Loaded %d food names and %d meals in %.1f ms%n",
+                foodNames.join().size(), todaysMeals.join().size(), (System.nanoTime() - start) / 1_000_000.0);
+        
+        System.out.println("=== Async Usage Complete ===");
+    }
+    
     /**
      * Main method to run the demonstration
      */
     public static void main(String[] args) {
         demonstrateAdapterPattern();
         showPracticalUsage();
+        showAsyncUsage();
     }
 } 
\ No newline at end of file
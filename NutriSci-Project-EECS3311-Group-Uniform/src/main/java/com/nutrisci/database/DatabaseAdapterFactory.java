@@ -15,7 +15,8 @@ public class DatabaseAdapterFactory {
      */
     public enum DatabaseType {
         MYSQL,
-        POSTGRESQL
+        POSTGRESQL,
+        EMBEDDED
         // Can easily add more database types here
     }
     
@@ -31,6 +32,8 @@ public class DatabaseAdapterFactory {
                 return new MySQLDatabaseAdapter();
             case POSTGRESQL:
                 return new PostgreSQLDatabaseAdapter();
+            case EMBEDDED:
+                return new EmbeddedDatabaseAdapter();
             default:
                 // Default to MySQL if unknown type
                 System.out.println("Unknown database type, defaulting to MySQL");
@@ -53,4 +56,12 @@ public class DatabaseAdapterFactory {
     public static DatabaseAdapter createPostgreSQLAdapter() {
         return new PostgreSQLDatabaseAdapter();
     }
+    
+    /**
+     * Creates an embedded (in-process) database adapter
+     * @return Embedded database adapter
+     */
+    public static DatabaseAdapter createEmbeddedAdapter() {
+        return new EmbeddedDatabaseAdapter();
+    }
 } 
\ No newline at end of file
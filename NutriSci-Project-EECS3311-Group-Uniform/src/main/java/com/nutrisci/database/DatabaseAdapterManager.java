@@ -12,6 +12,7 @@ public class DatabaseAdapterManager {
     
     private static DatabaseAdapterManager instance;
     private DatabaseAdapter currentAdapter;
+    private AsyncDatabaseAdapter asyncAdapter;
     
     /**
      * Private constructor to prevent instantiation
@@ -41,6 +42,20 @@ public class DatabaseAdapterManager {
         return currentAdapter;
     }
     
+    /**
+     * Gets a non-blocking view of the current database adapter
+     * @return Async adapter backed by the current adapter
+     */
+    public synchronized AsyncDatabaseAdapter getAsyncAdapter() {
+        if (asyncAdapter == null || asyncAdapter.getDelegate() != currentAdapter) {
+            if (asyncAdapter != null) {
+                asyncAdapter.shutdown();
+            }
+            asyncAdapter = new AsyncDatabaseAdapter(currentAdapter);
+        }
+        return asyncAdapter;
+    }
+    
     /**
      * Switches to a different database type
      * helped by AI
@@ -71,6 +86,13 @@ public class DatabaseAdapterManager {
         switchDatabase(DatabaseAdapterFactory.DatabaseType.POSTGRESQL);
     }
     
+    /**
+     * Switches to the embedded database
+     */
+    public void switchToEmbedded() {
+        switchDatabase(DatabaseAdapterFactory.DatabaseType.EMBEDDED);
+    }
+    
     /**
      * Gets the current database type
      * @return Current database type
@@ -80,6 +102,8 @@ public class DatabaseAdapterManager {
             return DatabaseAdapterFactory.DatabaseType.MYSQL;
         } else if (currentAdapter instanceof PostgreSQLDatabaseAdapter) {
             return DatabaseAdapterFactory.DatabaseType.POSTGRESQL;
+        } else if (currentAdapter instanceof EmbeddedDatabaseAdapter) {
+            return DatabaseAdapterFactory.DatabaseType.EMBEDDED;
         } else {
             return DatabaseAdapterFactory.DatabaseType.MYSQL; // Default
         }
@@ -1,7 +1,14 @@
 package com.nutrisci.database;
 
+import com.nutrisci.calculator.NutritionalData;
+import com.nutrisci.catalog.CatalogManager;
+import com.nutrisci.catalog.FoodCatalog;
+import com.nutrisci.catalog.FoodGroupIndex;
+import com.nutrisci.catalog.FoodSearchEngine;
+import com.nutrisci.catalog.ServingMeasureTable;
 import com.nutrisci.meal.Meal;
 import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.NutrientRegistry;
 import com.nutrisci.model.Gender;
 import com.nutrisci.model.Goal;
 import com.nutrisci.model.GoalType;
@@ -14,6 +21,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.time.Instant;
@@ -32,14 +40,48 @@ import com.nutrisci.meal.Snack;
  * DatabaseManager handles all database operations for meals, users, and food items.
  */
 public class DatabaseManager {
-    private static DatabaseManager instance;
-    private Connection connection;
+    // Maximum number of IDs bound into a single IN (...) clause
+    private static final int IN_CLAUSE_BATCH_SIZE = 500;
+
+    // Number of foods returned by searchFoodItems
+    private static final int SEARCH_RESULT_LIMIT = 50;
+
+    // Description, group and every nutrient of a food in one result stream
+    private static final String FOOD_ITEM_SQL =
+        "SELECT FN.FoodID, FN.FoodDescription, FG.FoodGroupName, NA.NutrientID, NN.NutrientName, NA.NutrientValue "
+        + "FROM FOOD_NAME FN "
+        + "LEFT JOIN FOOD_GROUP FG ON FG.FoodGroupID = FN.FoodGroupID "
+        + "LEFT JOIN NUTRIENT_AMOUNT NA ON NA.FoodID = FN.FoodID "
+        + "LEFT JOIN NUTRIENT_NAME NN ON NN.NutrientID = NA.NutrientID ";
+
+    private static volatile DatabaseManager instance;
+    private ConnectionPool pool;
+    private FoodItemCache foodCache;
+    private volatile FoodIndexes foodIndexes;
+    private volatile ServingMeasureTable servingMeasures;
+    // Bumped whenever the CNF tables may have changed, so derived indexes know to rebuild
+    private final AtomicLong catalogVersion = new AtomicLong();
+    // Whether Daily_Nutrition_Summary exists; null until first checked
+    private volatile Boolean dailySummaryAvailable;
+    // Whether Meal_Food has the Grams column; null until first checked
+    private volatile Boolean mealFoodGramsAvailable;
     private Properties dbProperties;
 
     // Private constructor for singleton
     private DatabaseManager() {
         loadConfiguration();
         setupConnection();
+        foodCache = FoodItemCache.fromProperties(dbProperties);
+    }
+
+    /**
+     * Creates a DatabaseManager for another database, such as the embedded one.
+     * @param properties Connection settings (db.url, db.user, db.password, db.pool.*)
+     */
+    DatabaseManager(Properties properties) {
+        this.dbProperties = properties;
+        setupConnection();
+        foodCache = FoodItemCache.fromProperties(dbProperties);
     }
 
     /**
@@ -47,7 +89,11 @@ public class DatabaseManager {
      */
     public static DatabaseManager getInstance() {
         if (instance == null) {
-            instance = new DatabaseManager();
+            synchronized (DatabaseManager.class) {
+                if (instance == null) {
+                    instance = new DatabaseManager();
+                }
+            }
         }
         return instance;
     }
@@ -75,38 +121,69 @@ public class DatabaseManager {
     }
 
     /**
-     * Sets up the connection to Azure MySQL using JDBC and loaded properties.
+     * Sets up the connection pool to Azure MySQL using JDBC and loaded properties.
      * helped by AI
      */
     private void setupConnection() {
-        try {
-            String url = dbProperties.getProperty("db.url");
-            String user = dbProperties.getProperty("db.user");
-            String password = dbProperties.getProperty("db.password");
-            
-            System.out.println("Attempting to connect to database...");
-            System.out.println("URL: " + url);
-            System.out.println("User: " + user);
-            System.out.println("Password: " + (password != null ? "***" : "NULL"));
-            
-            connection = DriverManager.getConnection(url, user, password);
-            
-            if (connection != null && !connection.isClosed()) {
-                System.out.println("Database connection established successfully!");
-            } else {
-                System.err.println("Failed to establish database connection!");
-            }
-        } catch (SQLException e) {
-            System.err.println("Database connection error: " + e.getMessage());
-            System.err.println("SQL State: " + e.getSQLState());
-            System.err.println("Error Code: " + e.getErrorCode());
-            e.printStackTrace();
+        String url = dbProperties.getProperty("db.url");
+        String user = dbProperties.getProperty("db.user");
+        String password = dbProperties.getProperty("db.password");
+
+        System.out.println("Attempting to connect to database...");
+        System.out.println("URL: " + url);
+        System.out.println("User: " + user);
+        System.out.println("Password: " + (password != null ? "***" : "NULL"));
+
+        pool = new ConnectionPool(dbProperties);
+
+        ConnectionPool.PoolStats stats = pool.getStats();
+        if (stats.getIdle() > 0) {
+            System.out.println("Database connection pool established successfully! (max " + stats.getMaxSize() + " connections)");
+        } else {
+            System.err.println("Failed to establish database connection! Connections will be retried on demand.");
         }
     }
 
+    /**
+     * Get the current connection pool metrics (active, idle, wait time)
+     * @return The pool statistics
+     */
+    public ConnectionPool.PoolStats getPoolStats() {
+        return pool.getStats();
+    }
+
+    /**
+     * Get the food cache metrics (hits, misses, evictions, size)
+     * @return The cache statistics
+     */
+    public FoodItemCache.CacheStats getFoodCacheStats() {
+        return foodCache.getStats();
+    }
+
+    /**
+     * Drop every cached food, the search and group indexes and the serving measures
+     * so the next lookups read the database again. Call this after the CNF tables
+     * have been reloaded.
+     */
+    public void invalidateFoodCache() {
+        foodCache.invalidateAll();
+        foodIndexes = null;
+        servingMeasures = null;
+        catalogVersion.incrementAndGet();
+    }
+
+    /**
+     * Get a number that changes every time the food cache is invalidated
+     * @return The current catalog version
+     */
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
     /**
      * Persists a meal to the database with all food items and nutritional data.
-     * Uses transactions and prepared statements.
+     * The Meal_Log row and every Meal_Food row are written in one transaction,
+     * with the food rows sent as a single JDBC batch.
      * @param meal Meal to save
      * @return true if successful, false if error (with rollback)
      * helped by AI
@@ -114,48 +191,74 @@ public class DatabaseManager {
     public boolean saveMeal(Meal meal, long userId) {
         // Generate a unique mealID (using epoch seconds for simplicity)
         long mealID = meal.getId();
+        LocalDate entryDate = meal.getDate() != null ? meal.getDate() : LocalDate.now();
 
-        // String insertMealLogSQL = "INSERT INTO Meal_Log (UserID, MealID, MealType, EntryDate) VALUES (" + userId + ", " + mealID + ", '" + meal.getMealType() + "', '" + LocalDate.now() + "')";
         String insertMealLogSQL = "INSERT INTO Meal_Log (UserID, MealID, MealType, EntryDate) VALUES (?, ?, ?, ?)";
 
-        // Build a single SQL statement for all food items
-        StringBuilder insertMealFoodSQL = new StringBuilder("INSERT INTO Meal_Food (MealID, FoodID) VALUES ");
-        List<FoodItem> foodItems = meal.getFoodItems();
-        for (int i = 0; i < foodItems.size(); i++) {
-            FoodItem item = foodItems.get(i);
-            insertMealFoodSQL.append("(").append(mealID).append(", ").append(item.getId()).append(")");
-            if (i < foodItems.size() - 1) {
-                insertMealFoodSQL.append(", ");
-            }
-        }
-        insertMealFoodSQL.append(";");
+        try (Connection connection = pool.getConnection()) {
+            boolean summary = hasDailySummary(connection);
+            boolean grams = hasMealFoodGrams(connection);
+            connection.setAutoCommit(false);
 
-        try {
-            // Execute Meal_Log insert
-            try (PreparedStatement ps = connection.prepareStatement(insertMealLogSQL)) {
-                
-                ps.setLong(1, userId);
-                ps.setLong(2, mealID);
-                ps.setString(3, meal.getMealType().name());
+            try {
+                try (PreparedStatement ps = connection.prepareStatement(insertMealLogSQL)) {
+                    ps.setLong(1, userId);
+                    ps.setLong(2, mealID);
+                    ps.setString(3, meal.getMealType().name());
+                    ps.setDate(4, java.sql.Date.valueOf(entryDate));
+                    ps.executeUpdate();
+                }
 
-                LocalDate localDate = LocalDate.now();
-                java.sql.Date date = java.sql.Date.valueOf(localDate);
-                ps.setDate(4, date);
+                insertMealFoods(connection, mealID, meal.getFoodItems(), grams);
+                if (summary) {
+                    refreshDailySummary(connection, new SummaryKey(userId, entryDate, meal.getMealType().name()), grams);
+                }
 
-                ps.executeUpdate();
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                rollback(connection);
+                throw e;
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-            // Execute Meal_Food insert if there are food items
-            if (!foodItems.isEmpty()) {
-                try (Statement stmt = connection.createStatement()) {
-                    stmt.executeUpdate(insertMealFoodSQL.toString());
+    /**
+     * Add one Meal_Food row per food item as a single batch
+     * @param grams Whether Meal_Food has the Grams column for each item's portion
+     */
+    private static void insertMealFoods(Connection connection, long mealId, List<FoodItem> foodItems, boolean grams) throws SQLException {
+        if (foodItems.isEmpty()) {
+            return;
+        }
+
+        String sql = grams ? "INSERT INTO Meal_Food (MealID, FoodID, Grams) VALUES (?, ?, ?)"
+                           : "INSERT INTO Meal_Food (MealID, FoodID) VALUES (?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (FoodItem item : foodItems) {
+                ps.setLong(1, mealId);
+                ps.setLong(2, item.getId());
+                if (grams) {
+                    ps.setDouble(3, item.getGrams());
                 }
+                ps.addBatch();
             }
+            ps.executeBatch();
+        }
+    }
 
-            return true;
+    /**
+     * Undo a failed transaction, reporting (but not throwing) rollback errors
+     * so the original failure is the one that surfaces
+     */
+    private static void rollback(Connection connection) {
+        try {
+            connection.rollback();
         } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
+            System.err.println("Rollback failed: " + e.getMessage());
         }
     }
 
@@ -165,31 +268,61 @@ public class DatabaseManager {
      * @return The list of food IDs
      */
     public List<Long> importMeal(long mealId) {
-        
-        String importMealSQL = "SELECT FoodID FROM Meal_Food WHERE MealID=" + mealId;
-
         List<Long> result = new ArrayList<>();
+        try (Connection connection = pool.getConnection()) {
+            readMealFoods(connection, mealId, result, null);
+            return result;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-        try {
-            connection.setAutoCommit(false);
-
-            try (PreparedStatement ps = connection.prepareStatement(importMealSQL)) {
-                ResultSet rs = ps.executeQuery();
-                while (rs.next()) {
-                    long id = rs.getLong("FoodID");
-                    result.add(id);
+    /**
+     * Import the food items of a meal at the portions they were logged with
+     * @param mealId The meal id for importing the meal
+     * @return The meal's food items, scaled to their grams, or null on error
+     */
+    public List<FoodItem> importMealItems(long mealId) {
+        List<Long> foodIds = new ArrayList<>();
+        List<Double> portions = new ArrayList<>();
+        try (Connection connection = pool.getConnection()) {
+            readMealFoods(connection, mealId, foodIds, portions);
+            Map<Long, FoodItem> foodItems = loadFoodItems(connection, foodIds);
+
+            List<FoodItem> result = new ArrayList<>();
+            for (int i = 0; i < foodIds.size(); i++) {
+                FoodItem item = foodItems.get(foodIds.get(i));
+                if (item != null) {
+                    result.add(item.adjustForQuantity(portions.get(i)));
                 }
             }
-
-            connection.commit();
-
             return result;
         } catch (SQLException e) {
-            try { connection.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
             e.printStackTrace();
             return null;
-        } finally {
-            try { connection.setAutoCommit(true); } catch (SQLException e) { e.printStackTrace(); }
+        }
+    }
+
+    /**
+     * Read a meal's food ids and, when asked, their grams (100 g for rows
+     * written before portions were stored)
+     */
+    private void readMealFoods(Connection connection, long mealId, List<Long> foodIds, List<Double> portions) throws SQLException {
+        boolean grams = portions != null && hasMealFoodGrams(connection);
+        String sql = "SELECT FoodID" + (grams ? ", Grams" : "") + " FROM Meal_Food WHERE MealID = ?";
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, mealId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    foodIds.add(rs.getLong("FoodID"));
+                    if (portions != null) {
+                        double portion = grams ? rs.getDouble("Grams") : 100;
+                        portions.add(grams && !rs.wasNull() ? portion : 100);
+                    }
+                }
+            }
         }
     }
 
@@ -205,7 +338,7 @@ public class DatabaseManager {
 
         Map<Long, String> result = new HashMap<>();
 
-        try {
+        try (Connection connection = pool.getConnection()) {
             connection.setAutoCommit(false);
 
             try (PreparedStatement ps = connection.prepareStatement(importMealSQL)) {
@@ -226,59 +359,47 @@ public class DatabaseManager {
 
             return result;
         } catch (SQLException e) {
-            try { connection.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
             e.printStackTrace();
             return null;
-        } finally {
-            try { connection.setAutoCommit(true); } catch (SQLException e) { e.printStackTrace(); }
         }
     }
 
     /**
      * Updates an existing meal record and associated data.
-     * Deletes and reinserts food items for simplicity.
+     * Deletes and reinserts food items in one transaction, so a failure
+     * part way through leaves the original meal untouched.
      * @param meal Meal to update
      * @return true if successful, false if error (with rollback)
      */
     public boolean updateMeal(Meal meal) {
         long mealID = meal.getId(); // use getter for id
-        List<FoodItem> foodItems = meal.getFoodItems();
 
-        // Build a single SQL statement for all food items
-        StringBuilder insertMealFoodSQL = new StringBuilder("INSERT INTO Meal_Food (MealID, FoodID) VALUES ");
-        for (int i = 0; i < foodItems.size(); i++) {
-            FoodItem item = foodItems.get(i);
-            insertMealFoodSQL.append("(").append(mealID).append(", ").append(item.getId()).append(")");
-            if (i < foodItems.size() - 1) {
-                insertMealFoodSQL.append(", ");
-            }
-        }
-        insertMealFoodSQL.append(";");
-
-        try {
+        try (Connection connection = pool.getConnection()) {
+            boolean summary = hasDailySummary(connection);
+            boolean grams = hasMealFoodGrams(connection);
             connection.setAutoCommit(false);
 
-            // Delete existing Meal_Food entries for this mealID
-            String deleteSQL = "DELETE FROM Meal_Food WHERE MealID = " + mealID;
-            try (Statement stmt = connection.createStatement()) {
-                stmt.executeUpdate(deleteSQL);
-            }
+            try {
+                // Delete existing Meal_Food entries for this mealID
+                try (PreparedStatement ps = connection.prepareStatement("DELETE FROM Meal_Food WHERE MealID = ?")) {
+                    ps.setLong(1, mealID);
+                    ps.executeUpdate();
+                }
 
-            // Insert new Meal_Food entries if there are food items
-            if (!foodItems.isEmpty()) {
-                try (Statement stmt = connection.createStatement()) {
-                    stmt.executeUpdate(insertMealFoodSQL.toString());
+                insertMealFoods(connection, mealID, meal.getFoodItems(), grams);
+                if (summary) {
+                    refreshDailySummary(connection, findSummaryKey(connection, mealID), grams);
                 }
-            }
 
-            connection.commit();
-            return true;
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                rollback(connection);
+                throw e;
+            }
         } catch (SQLException e) {
-            try { connection.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
             e.printStackTrace();
             return false;
-        } finally {
-            try { connection.setAutoCommit(true); } catch (SQLException e) { e.printStackTrace(); }
         }
     }
 
@@ -292,7 +413,8 @@ public class DatabaseManager {
     public boolean canAddMealType(long userId, MealType type, LocalDate date) {
         String checkForMeal = "Select MealType from Meal_Log where UserID = ? and EntryDate = ?";
 
-        try (PreparedStatement ps = connection.prepareStatement(checkForMeal)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(checkForMeal)) {
 
             ps.setLong(1, userId);
             ps.setDate(2, java.sql.Date.valueOf(date));
@@ -323,7 +445,8 @@ public class DatabaseManager {
     public int getMealCountForType(long userId, MealType type, LocalDate date) {
         String mealCountString = "Select Count(MealType) as amount from Meal_Log where UserID = ? and MealType = ? and EntryDate = ?";
 
-        try (PreparedStatement ps = connection.prepareStatement(mealCountString)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(mealCountString)) {
 
             ps.setLong(1, userId);
             ps.setString(2, type.name());
@@ -352,7 +475,8 @@ public class DatabaseManager {
 
         List<MealType> availabMealTypes = new ArrayList<>();
 
-        try (PreparedStatement ps = connection.prepareStatement(mealTypeString)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(mealTypeString)) {
 
             ps.setLong(1, userId);
             ps.setDate(2, java.sql.Date.valueOf(date));
@@ -379,27 +503,32 @@ public class DatabaseManager {
      * @return true if successful, otherwise false
      */
     public boolean swapFoodInMeal(Long mealId, FoodItem original, FoodItem replacement) {
-        long originalId = original.getId();
-        long replacementId = replacement.getId();
-
         // SQL: Get the list of food items in Meal_Food by meal ID, update the original food with new food item.
-        String sql = "UPDATE Meal_Food SET FoodID=" + replacementId + " where MealID=" + mealId + " and FoodID=" + originalId;
+        String sql = "UPDATE Meal_Food SET FoodID = ? WHERE MealID = ? AND FoodID = ?";
 
-        try {
+        try (Connection connection = pool.getConnection()) {
+            boolean summary = hasDailySummary(connection);
+            boolean grams = hasMealFoodGrams(connection);
             connection.setAutoCommit(false);
 
-            try (Statement stmt = connection.createStatement()) {
-                stmt.executeUpdate(sql);
-            }
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setLong(1, replacement.getId());
+                ps.setLong(2, mealId);
+                ps.setLong(3, original.getId());
+                ps.executeUpdate();
+                if (summary) {
+                    refreshDailySummary(connection, findSummaryKey(connection, mealId), grams);
+                }
 
-            connection.commit();
-            return true;
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                rollback(connection);
+                throw e;
+            }
         } catch (SQLException e) {
-            try { connection.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
             e.printStackTrace();
             return false;
-        } finally {
-            try { connection.setAutoCommit(true); } catch (SQLException e) { e.printStackTrace(); }
         }
     }
 
@@ -409,34 +538,44 @@ public class DatabaseManager {
      * @return true if successful, false if error (with rollback)
      */
     public boolean deleteMeal(Long mealId) {
-        try {
+        try (Connection connection = pool.getConnection()) {
+            boolean summary = hasDailySummary(connection);
+            boolean grams = hasMealFoodGrams(connection);
             connection.setAutoCommit(false);
 
-            // Delete from Meal_Food first (to avoid FK constraint issues)
-            String deleteMealFoodSQL = "DELETE FROM Meal_Food WHERE MealID = " + mealId;
-            try (Statement stmt = connection.createStatement()) {
-                stmt.executeUpdate(deleteMealFoodSQL);
-            }
+            try {
+                // Remember which summary row the meal counts towards before it is gone
+                SummaryKey key = summary ? findSummaryKey(connection, mealId) : null;
 
-            // Delete from Meal_Log
-            String deleteMealLogSQL = "DELETE FROM Meal_Log WHERE MealID = " + mealId;
-            try (Statement stmt = connection.createStatement()) {
-                stmt.executeUpdate(deleteMealLogSQL);
-            }
+                // Delete from Meal_Food first (to avoid FK constraint issues)
+                try (PreparedStatement ps = connection.prepareStatement("DELETE FROM Meal_Food WHERE MealID = ?")) {
+                    ps.setLong(1, mealId);
+                    ps.executeUpdate();
+                }
 
-            connection.commit();
-            return true;
+                // Delete from Meal_Log
+                try (PreparedStatement ps = connection.prepareStatement("DELETE FROM Meal_Log WHERE MealID = ?")) {
+                    ps.setLong(1, mealId);
+                    ps.executeUpdate();
+                }
+                refreshDailySummary(connection, key, grams);
+
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                rollback(connection);
+                throw e;
+            }
         } catch (SQLException e) {
-            try { connection.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
             e.printStackTrace();
             return false;
-        } finally {
-            try { connection.setAutoCommit(true); } catch (SQLException e) { e.printStackTrace(); }
         }
     }
 
     /**
      * Retrieves meals for a user within a date range, reconstructing full objects.
+     * Meals, their food links and the food items are each loaded with set-based
+     * queries, so the number of round trips does not grow with the range.
      * @param userId User ID
      * @param startDate Start date
      * @param endDate End date
@@ -445,42 +584,74 @@ public class DatabaseManager {
      */
     public List<Meal> getMealsForUser(long userId, LocalDate startDate, LocalDate endDate) {
         List<Meal> meals = new ArrayList<>();
-        String sql = "SELECT * FROM Meal_Log WHERE UserID = ? AND EntryDate BETWEEN ? AND ?";
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        String mealSql = "SELECT MealID, MealType, EntryDate FROM Meal_Log WHERE UserID = ? AND EntryDate BETWEEN ? AND ?";
 
-            ps.setLong(1, userId);
-            ps.setDate(2, java.sql.Date.valueOf(startDate));
-            ps.setDate(3, java.sql.Date.valueOf(endDate));
+        try (Connection connection = pool.getConnection()) {
+            boolean grams = hasMealFoodGrams(connection);
+            String foodSql = "SELECT MF.MealID, MF.FoodID" + (grams ? ", MF.Grams" : "") + " FROM Meal_Food MF "
+                           + "INNER JOIN Meal_Log ML ON ML.MealID = MF.MealID "
+                           + "WHERE ML.UserID = ? AND ML.EntryDate BETWEEN ? AND ?";
+            Map<Long, Meal> mealsById = new LinkedHashMap<>();
 
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                long mealId = rs.getLong("MealID");
-                String mealTypeStr = rs.getString("MealType");
-                // LocalDate entryDate = rs.getDate("EntryDate").toLocalDate();
+            try (PreparedStatement ps = connection.prepareStatement(mealSql)) {
+                ps.setLong(1, userId);
+                ps.setDate(2, java.sql.Date.valueOf(startDate));
+                ps.setDate(3, java.sql.Date.valueOf(endDate));
 
-                MealType mealType = MealType.valueOf(mealTypeStr);
-                
-                // Create meal directly from registry without validation (since we're loading from DB)
-                Meal meal = createMealFromRegistry(mealType, mealId);
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    long mealId = rs.getLong("MealID");
+                    MealType mealType = MealType.valueOf(rs.getString("MealType"));
+
+                    // Create meal directly from registry without validation (since we're loading from DB)
+                    Meal meal = createMealFromRegistry(mealType, mealId);
+                    meal.setDate(rs.getDate("EntryDate").toLocalDate());
+                    meal.setFoodItems(new ArrayList<>());
+                    mealsById.put(mealId, meal);
+                }
+            }
 
-                // Load food items for this meal
-                String foodSql = "SELECT FoodID FROM Meal_Food WHERE MealID = " + mealId;
-                
-                List<FoodItem> foodItems = new ArrayList<>();
-
-                try (PreparedStatement foodPs = connection.prepareStatement(foodSql)) {
-                    ResultSet foodRs = foodPs.executeQuery();
-                    while (foodRs.next()) {
-                        long foodId = foodRs.getLong("FoodID");
-                        FoodItem item = loadFoodItem(foodId);
-                        foodItems.add(item);
+            if (mealsById.isEmpty()) {
+                return meals;
+            }
+
+            // Load the food links for every meal in the range at once, with their portions
+            Map<Long, List<Long>> foodIdsByMeal = new HashMap<>();
+            Map<Long, List<Double>> gramsByMeal = new HashMap<>();
+            Set<Long> foodIds = new LinkedHashSet<>();
+            try (PreparedStatement ps = connection.prepareStatement(foodSql)) {
+                ps.setLong(1, userId);
+                ps.setDate(2, java.sql.Date.valueOf(startDate));
+                ps.setDate(3, java.sql.Date.valueOf(endDate));
+
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    long mealId = rs.getLong("MealID");
+                    long foodId = rs.getLong("FoodID");
+                    // Rows written before portions were stored count as 100 g
+                    double portion = grams ? rs.getDouble("Grams") : 100;
+                    if (grams && rs.wasNull()) {
+                        portion = 100;
                     }
+                    foodIdsByMeal.computeIfAbsent(mealId, k -> new ArrayList<>()).add(foodId);
+                    gramsByMeal.computeIfAbsent(mealId, k -> new ArrayList<>()).add(portion);
+                    foodIds.add(foodId);
                 }
+            }
+
+            Map<Long, FoodItem> foodItems = loadFoodItems(connection, foodIds);
 
-                // Set food items directly on the meal
-                meal.setFoodItems(foodItems);
-                meal.setId(mealId);
-                meals.add(meal);
+            for (Map.Entry<Long, Meal> entry : mealsById.entrySet()) {
+                List<FoodItem> items = entry.getValue().getFoodItems();
+                List<Long> mealFoodIds = foodIdsByMeal.getOrDefault(entry.getKey(), Collections.emptyList());
+                List<Double> mealGrams = gramsByMeal.getOrDefault(entry.getKey(), Collections.emptyList());
+                for (int i = 0; i < mealFoodIds.size(); i++) {
+                    FoodItem item = foodItems.get(mealFoodIds.get(i));
+                    if (item != null) {
+                        items.add(item.adjustForQuantity(mealGrams.get(i)));
+                    }
+                }
+                meals.add(entry.getValue());
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -488,6 +659,302 @@ public class DatabaseManager {
         return meals;
     }
 
+    /**
+     * Check whether the Daily_Nutrition_Summary table exists. Databases
+     * created before it was added keep working without it until
+     * rebuildDailySummaries creates and fills it.
+     * @return true if meal writes maintain the summary; false if the table is
+     *         missing or could not be checked right now
+     */
+    public boolean hasDailySummary() {
+        try (Connection connection = pool.getConnection()) {
+            return hasDailySummary(connection);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Check for Daily_Nutrition_Summary on the caller's connection. Only a
+     * missing table is remembered; any other error is thrown, so a meal write
+     * fails rather than silently leaving the summary behind.
+     */
+    private boolean hasDailySummary(Connection connection) throws SQLException {
+        Boolean available = dailySummaryAvailable;
+        if (available == null) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeQuery("SELECT 1 FROM Daily_Nutrition_Summary WHERE 1 = 0").close();
+                available = true;
+            } catch (SQLException e) {
+                if (!isMissingTable(e)) {
+                    throw e;
+                }
+                available = false;
+            }
+            dailySummaryAvailable = available;
+        }
+        return available;
+    }
+
+    /**
+     * Check whether Meal_Food has the Grams column for portion sizes, on the
+     * caller's connection. Hosted databases created before it was added get it
+     * from db/mysql-meal-food-grams.sql; until then portions are not stored
+     * and every food reads back as 100 g. Only a missing column is remembered.
+     */
+    private boolean hasMealFoodGrams(Connection connection) throws SQLException {
+        Boolean available = mealFoodGramsAvailable;
+        if (available == null) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeQuery("SELECT Grams FROM Meal_Food WHERE 1 = 0").close();
+                available = true;
+            } catch (SQLException e) {
+                if (!isMissingColumn(e)) {
+                    throw e;
+                }
+                available = false;
+            }
+            mealFoodGramsAvailable = available;
+        }
+        return available;
+    }
+
+    /**
+     * Whether an error means the queried column does not exist
+     * (SQLState 42S22, or MySQL error 1054 / H2 error 42122)
+     */
+    private static boolean isMissingColumn(SQLException e) {
+        return "42S22".equals(e.getSQLState()) || "42122".equals(e.getSQLState())
+            || e.getErrorCode() == 1054 || e.getErrorCode() == 42122;
+    }
+
+    /**
+     * Whether an error means the queried table does not exist
+     * (SQLState 42S02, or MySQL error 1146 / H2 error 42102)
+     */
+    private static boolean isMissingTable(SQLException e) {
+        return "42S02".equals(e.getSQLState()) || "42102".equals(e.getSQLState())
+            || e.getErrorCode() == 1146 || e.getErrorCode() == 42102;
+    }
+
+    /**
+     * The select that sums one group of meals into summary rows. CNF amounts are
+     * per 100 g and are scaled to each row's portion (100 g without the Grams
+     * column); calories come from the macronutrients, as in NutrientAccumulator.
+     * The filter is a condition on Meal_Log (ML).
+     */
+    private static String dailySummarySelect(String filter, boolean grams) {
+        NutrientRegistry registry = NutrientRegistry.getInstance();
+        int protein = registry.nutrientIdOf(NutrientRegistry.PROTEIN);
+        int carbs = registry.nutrientIdOf(NutrientRegistry.CARBOHYDRATE);
+        int fat = registry.nutrientIdOf(NutrientRegistry.FAT);
+        int fibre = registry.nutrientIdOf(NutrientRegistry.FIBRE);
+        String amount = grams ? "NA.NutrientValue * COALESCE(MF.Grams, 100) / 100" : "NA.NutrientValue";
+
+        return "SELECT ML.UserID, ML.EntryDate, ML.MealType, COUNT(DISTINCT ML.MealID), "
+             + "COALESCE(SUM(" + amount + " * CASE NA.NutrientID WHEN " + protein + " THEN 4 WHEN " + carbs
+             + " THEN 4 WHEN " + fat + " THEN 9 ELSE 0 END), 0), "
+             + "COALESCE(SUM(CASE WHEN NA.NutrientID = " + protein + " THEN " + amount + " END), 0), "
+             + "COALESCE(SUM(CASE WHEN NA.NutrientID = " + carbs + " THEN " + amount + " END), 0), "
+             + "COALESCE(SUM(CASE WHEN NA.NutrientID = " + fat + " THEN " + amount + " END), 0), "
+             + "COALESCE(SUM(CASE WHEN NA.NutrientID = " + fibre + " THEN " + amount + " END), 0) "
+             + "FROM Meal_Log ML "
+             + "LEFT JOIN Meal_Food MF ON MF.MealID = ML.MealID "
+             + "LEFT JOIN NUTRIENT_AMOUNT NA ON NA.FoodID = MF.FoodID AND NA.NutrientID IN ("
+             + protein + ", " + carbs + ", " + fat + ", " + fibre + ") "
+             + "WHERE " + filter + " GROUP BY ML.UserID, ML.EntryDate, ML.MealType";
+    }
+
+    private static final String DAILY_SUMMARY_INSERT = "INSERT INTO Daily_Nutrition_Summary "
+        + "(UserID, EntryDate, MealType, MealCount, Calories, Protein, Carbs, Fat, Fibre) ";
+
+    private static final String DAILY_SUMMARY_UPSERT = " ON DUPLICATE KEY UPDATE MealCount = VALUES(MealCount), "
+        + "Calories = VALUES(Calories), Protein = VALUES(Protein), Carbs = VALUES(Carbs), "
+        + "Fat = VALUES(Fat), Fibre = VALUES(Fibre)";
+
+    /**
+     * Recompute the summary row of one user, day and meal type from the meals
+     * themselves, inside the caller's transaction.
+     *
+     * The row is first upserted to zero, which locks it: a concurrent write to
+     * the same day waits for this transaction instead of racing it into a
+     * duplicate key. The totals are then upserted over it, and a row left with
+     * no meals is removed.
+     * @param key The row to recompute, or null to do nothing
+     * @param grams Whether Meal_Food has the Grams column
+     */
+    private void refreshDailySummary(Connection connection, SummaryKey key, boolean grams) throws SQLException {
+        if (key == null) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(DAILY_SUMMARY_INSERT
+                + "VALUES (?, ?, ?, 0, 0, 0, 0, 0, 0)" + DAILY_SUMMARY_UPSERT)) {
+            key.bind(ps);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(DAILY_SUMMARY_INSERT
+                + dailySummarySelect("ML.UserID = ? AND ML.EntryDate = ? AND ML.MealType = ?", grams) + DAILY_SUMMARY_UPSERT)) {
+            key.bind(ps);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "DELETE FROM Daily_Nutrition_Summary WHERE UserID = ? AND EntryDate = ? AND MealType = ? AND MealCount = 0")) {
+            key.bind(ps);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Look up which summary row a meal belongs to
+     * @return The key, or null if the meal does not exist
+     */
+    private SummaryKey findSummaryKey(Connection connection, long mealId) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT UserID, EntryDate, MealType FROM Meal_Log WHERE MealID = ?")) {
+            ps.setLong(1, mealId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new SummaryKey(rs.getLong("UserID"), rs.getDate("EntryDate").toLocalDate(), rs.getString("MealType"));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create Daily_Nutrition_Summary if needed and rebuild it from the whole meal
+     * history, one user per transaction. Run it once after upgrading an existing
+     * database (see DailySummaryBackfill); afterwards meal writes keep it current.
+     * @return The number of summary rows written
+     */
+    public int rebuildDailySummaries() throws SQLException {
+        int rows = 0;
+        try (Connection connection = pool.getConnection()) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE IF NOT EXISTS Daily_Nutrition_Summary ("
+                    + "UserID BIGINT NOT NULL, EntryDate DATE NOT NULL, MealType VARCHAR(20) NOT NULL, "
+                    + "MealCount INT NOT NULL, Calories DOUBLE NOT NULL, Protein DOUBLE NOT NULL, "
+                    + "Carbs DOUBLE NOT NULL, Fat DOUBLE NOT NULL, Fibre DOUBLE NOT NULL, "
+                    + "PRIMARY KEY (UserID, EntryDate, MealType))");
+            }
+            dailySummaryAvailable = true;
+            boolean grams = hasMealFoodGrams(connection);
+
+            List<Long> userIds = new ArrayList<>();
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT DISTINCT UserID FROM Meal_Log")) {
+                while (rs.next()) {
+                    userIds.add(rs.getLong(1));
+                }
+            }
+
+            connection.setAutoCommit(false);
+            try {
+                try (Statement stmt = connection.createStatement()) {
+                    // Rows of users with no meals left
+                    stmt.executeUpdate("DELETE FROM Daily_Nutrition_Summary WHERE UserID NOT IN (SELECT UserID FROM Meal_Log)");
+                }
+                connection.commit();
+
+                for (long userId : userIds) {
+                    try (PreparedStatement ps = connection.prepareStatement("DELETE FROM Daily_Nutrition_Summary WHERE UserID = ?")) {
+                        ps.setLong(1, userId);
+                        ps.executeUpdate();
+                    }
+                    try (PreparedStatement ps = connection.prepareStatement(DAILY_SUMMARY_INSERT + dailySummarySelect("ML.UserID = ?", grams))) {
+                        ps.setLong(1, userId);
+                        rows += ps.executeUpdate();
+                    }
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                rollback(connection);
+                throw e;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Get the first and last day a user logged a meal
+     * @param userId User ID
+     * @return The two dates, or null if the user has no meals
+     */
+    public LocalDate[] getMealDateRange(long userId) {
+        String sql = "SELECT MIN(EntryDate), MAX(EntryDate) FROM Meal_Log WHERE UserID = ?";
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, userId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getDate(1) != null) {
+                    return new LocalDate[] { rs.getDate(1).toLocalDate(), rs.getDate(2).toLocalDate() };
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Read a user's daily totals from Daily_Nutrition_Summary, summed over meal types
+     * @param userId User ID
+     * @param startDate First day
+     * @param endDate Last day
+     * @return Totals by date for days with meals, or null if the summary is unavailable
+     */
+    public Map<LocalDate, NutritionalData> getDailyNutritionSummary(long userId, LocalDate startDate, LocalDate endDate) {
+        if (!hasDailySummary()) {
+            return null;
+        }
+        String sql = "SELECT EntryDate, SUM(Calories), SUM(Protein), SUM(Carbs), SUM(Fat), SUM(Fibre) "
+                   + "FROM Daily_Nutrition_Summary WHERE UserID = ? AND EntryDate BETWEEN ? AND ? "
+                   + "GROUP BY EntryDate ORDER BY EntryDate";
+
+        Map<LocalDate, NutritionalData> totals = new LinkedHashMap<>();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, userId);
+            ps.setDate(2, java.sql.Date.valueOf(startDate));
+            ps.setDate(3, java.sql.Date.valueOf(endDate));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    totals.put(rs.getDate(1).toLocalDate(),
+                               new NutritionalData(rs.getDouble(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getDouble(6)));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return totals;
+    }
+
+    /**
+     * Identifies one Daily_Nutrition_Summary row
+     */
+    private static class SummaryKey {
+        private final long userId;
+        private final LocalDate date;
+        private final String mealType;
+
+        SummaryKey(long userId, LocalDate date, String mealType) {
+            this.userId = userId;
+            this.date = date;
+            this.mealType = mealType;
+        }
+
+        void bind(PreparedStatement ps) throws SQLException {
+            ps.setLong(1, userId);
+            ps.setDate(2, java.sql.Date.valueOf(date));
+            ps.setString(3, mealType);
+        }
+    }
+
     /**
      * Creates a meal directly from the registry without validation (for loading from DB)
      */
@@ -515,138 +982,449 @@ public class DatabaseManager {
 
     /**
      * Loads a food item with all its nutritional data from the database.
+     * Description, food group and nutrients come back from a single
+     * parameterized query. Foods are served from the cache when possible.
      * helped by AI
      */
     public FoodItem loadFoodItem(Long foodId) {
-        Map<String, Double> nutrients = new HashMap<>();
-        String sqlNutrientString = "select NutrientName, NutrientValue from Nutrient_Name NN "
-                                + "inner join Nutrient_Amount NA on NN.NutrientID=NA.NutrientID "
-                                + "where NA.FoodID=" + foodId;
-        try (PreparedStatement ps = connection.prepareStatement(sqlNutrientString)) {
+        FoodItem cached = foodCache.get(foodId);
+        if (cached != null) {
+            return cached;
+        }
+        long cacheVersion = foodCache.getVersion();
 
-            ResultSet rs = ps.executeQuery();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(FOOD_ITEM_SQL + "WHERE FN.FoodID = ?")) {
 
-            while (rs.next()) {
-                nutrients.put(rs.getString("NutrientName"), rs.getDouble("NutrientValue"));
+            ps.setLong(1, foodId);
+            Map<Long, FoodItem> items = hydrateFoodItems(ps.executeQuery());
+
+            if (items.containsKey(foodId)) {
+                foodCache.put(items.get(foodId), cacheVersion);
+                return items.get(foodId);
             }
         } catch (SQLException e) {
             // handle or log SQL errors here
             e.printStackTrace();
         }
 
-        String sqlFoodGroupString = "select FoodGroupName from FOOD_GROUP FG "
-                                + "inner join FOOD_NAME FA on FA.FoodGroupID=FG.FoodGroupID "
-                                + "where FA.FoodID=" + foodId;
+        return new FoodItem(foodId, "", new double[0], "");
+    }
 
-        String foodGroup = "";
-        
-        try (PreparedStatement ps = connection.prepareStatement(sqlFoodGroupString)) {
+    /**
+     * Loads every food with only the given nutrients, for building catalog-wide
+     * indexes. The partial foods are not cached.
+     * @param registryIndexes NutrientRegistry indexes of the nutrients to load
+     * @return Map of food ID to FoodItem; foods with none of the nutrients are omitted
+     */
+    public Map<Long, FoodItem> loadAllFoodItems(int... registryIndexes) {
+        NutrientRegistry registry = NutrientRegistry.getInstance();
+        String placeholders = String.join(", ", Collections.nCopies(registryIndexes.length, "?"));
 
-            ResultSet rs = ps.executeQuery();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(FOOD_ITEM_SQL + "WHERE NA.NutrientID IN (" + placeholders + ")")) {
 
-            while (rs.next()) {
-                foodGroup = rs.getString("FoodGroupName");
+            for (int i = 0; i < registryIndexes.length; i++) {
+                ps.setInt(i + 1, registry.nutrientIdOf(registryIndexes[i]));
             }
+            return hydrateFoodItems(ps.executeQuery());
         } catch (SQLException e) {
-            // handle or log SQL errors here
+            System.err.println("Could not load the food catalog: " + e.getMessage());
             e.printStackTrace();
         }
+        return new HashMap<>();
+    }
 
-        String sqlFoodDescString = "select FoodDescription from FOOD_NAME where FoodID=" + foodId;
+    /**
+     * Loads many food items with their nutritional data in a constant number of queries
+     * (one per batch of IN_CLAUSE_BATCH_SIZE ids) instead of several per food.
+     * Cached foods are not queried again.
+     * @param foodIds The food IDs to load
+     * @return Map of food ID to FoodItem, in the order the IDs were given. Unknown IDs are omitted.
+     */
+    public Map<Long, FoodItem> loadFoodItems(Collection<Long> foodIds) {
+        if (foodIds == null || foodIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
 
-        String foodDesc = "";
-        
-        try (PreparedStatement ps = connection.prepareStatement(sqlFoodDescString)) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(foodIds));
+        Map<Long, FoodItem> found = foodCache.getAll(distinctIds);
+        if (found.size() < distinctIds.size()) {
+            try (Connection connection = pool.getConnection()) {
+                found.putAll(queryFoodItems(connection, missingIds(distinctIds, found)));
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+        return inOrder(distinctIds, found);
+    }
 
-            ResultSet rs = ps.executeQuery();
+    /**
+     * Loads food items on an already borrowed connection, using the cache first
+     */
+    private Map<Long, FoodItem> loadFoodItems(Connection connection, Collection<Long> foodIds) throws SQLException {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(foodIds));
+        Map<Long, FoodItem> found = foodCache.getAll(distinctIds);
+        if (found.size() < distinctIds.size()) {
+            found.putAll(queryFoodItems(connection, missingIds(distinctIds, found)));
+        }
+        return inOrder(distinctIds, found);
+    }
 
-            while (rs.next()) {
-                foodDesc = rs.getString("FoodDescription");
+    /**
+     * Query the database for food items and add them to the cache
+     */
+    private Map<Long, FoodItem> queryFoodItems(Connection connection, List<Long> foodIds) throws SQLException {
+        Map<Long, FoodItem> loaded = new HashMap<>();
+        long cacheVersion = foodCache.getVersion();
+
+        for (int from = 0; from < foodIds.size(); from += IN_CLAUSE_BATCH_SIZE) {
+            List<Long> batch = foodIds.subList(from, Math.min(from + IN_CLAUSE_BATCH_SIZE, foodIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+
+            try (PreparedStatement ps = connection.prepareStatement(FOOD_ITEM_SQL + "WHERE FN.FoodID IN (" + placeholders + ")")) {
+                bindIds(ps, batch);
+                loaded.putAll(hydrateFoodItems(ps.executeQuery()));
             }
-        } catch (SQLException e) {
-            // handle or log SQL errors here
-            e.printStackTrace();
         }
 
-        FoodItem item = new FoodItem(foodId, foodDesc, nutrients, foodGroup);
-        return item;
+        foodCache.putAll(loaded.values(), cacheVersion);
+        return loaded;
+    }
+
+    private static List<Long> missingIds(List<Long> foodIds, Map<Long, FoodItem> found) {
+        List<Long> missing = new ArrayList<>();
+        for (Long foodId : foodIds) {
+            if (!found.containsKey(foodId)) {
+                missing.add(foodId);
+            }
+        }
+        return missing;
+    }
+
+    private static Map<Long, FoodItem> inOrder(List<Long> foodIds, Map<Long, FoodItem> found) {
+        Map<Long, FoodItem> items = new LinkedHashMap<>();
+        for (Long foodId : foodIds) {
+            FoodItem item = found.get(foodId);
+            if (item != null) {
+                items.put(foodId, item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Build food items from the rows of FOOD_ITEM_SQL. Each food appears once per
+     * nutrient, with its description and group repeated on every row. Nutrient
+     * values go straight into a dense array indexed by NutrientRegistry.
+     */
+    private static Map<Long, FoodItem> hydrateFoodItems(ResultSet rs) throws SQLException {
+        NutrientRegistry registry = NutrientRegistry.getInstance();
+        Map<Long, String> descriptions = new LinkedHashMap<>();
+        Map<Long, String> foodGroups = new HashMap<>();
+        Map<Long, double[]> nutrients = new HashMap<>();
+
+        while (rs.next()) {
+            long foodId = rs.getLong("FoodID");
+            double[] values = nutrients.get(foodId);
+            if (values == null) {
+                String foodGroup = rs.getString("FoodGroupName");
+                descriptions.put(foodId, rs.getString("FoodDescription"));
+                foodGroups.put(foodId, foodGroup != null ? foodGroup : "");
+                values = emptyNutrients(registry.size());
+            }
+
+            String nutrientName = rs.getString("NutrientName");
+            if (nutrientName != null) {
+                int index = registry.register(rs.getInt("NutrientID"), nutrientName);
+                if (index >= values.length) {
+                    double[] grown = emptyNutrients(registry.size());
+                    System.arraycopy(values, 0, grown, 0, values.length);
+                    values = grown;
+                }
+                values[index] = rs.getDouble("NutrientValue");
+            }
+            nutrients.put(foodId, values);
+        }
+
+        Map<Long, FoodItem> items = new LinkedHashMap<>();
+        for (Map.Entry<Long, String> entry : descriptions.entrySet()) {
+            long foodId = entry.getKey();
+            items.put(foodId, new FoodItem(foodId, entry.getValue(), trimNutrients(nutrients.get(foodId)), foodGroups.get(foodId)));
+        }
+        return items;
+    }
+
+    private static double[] emptyNutrients(int length) {
+        double[] values = new double[length];
+        Arrays.fill(values, Double.NaN);
+        return values;
+    }
+
+    /**
+     * Drop trailing missing nutrients so each food only holds the slots it uses
+     */
+    private static double[] trimNutrients(double[] values) {
+        int length = values.length;
+        while (length > 0 && Double.isNaN(values[length - 1])) {
+            length--;
+        }
+        return length == values.length ? values : Arrays.copyOf(values, length);
+    }
+
+    /**
+     * Bind a list of IDs to the placeholders of a prepared statement
+     */
+    private static void bindIds(PreparedStatement ps, List<Long> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            ps.setLong(i + 1, ids.get(i));
+        }
+    }
+
+    /**
+     * Borrow a pooled connection for package-level tools such as benchmarks and loaders.
+     * The caller must close it to return it to the pool.
+     */
+    Connection getConnection() throws SQLException {
+        return pool.getConnection();
     }
 
     /**
      * Searches food database by name with fuzzy matching (top 50 results).
+     * Misspelled and partially typed words still match, e.g. "chedar chees".
      * @param searchTerm Search term
-     * @return List of FoodItem objects
+     * @return List of FoodItem objects, best match first
      */
-    // Running time takes too long
     public List<FoodItem> searchFoodItems(String searchTerm) {
-        List<Long> foodIDs = new ArrayList<>();
-        String sql = "SELECT FN.FoodID FROM FOOD_NAME FN "
-                    + "inner join NUTRIENT_AMOUNT NA on FN.FoodID=NA.FoodID "
-                    + "inner join NUTRIENT_NAME NN on NN.NutrientID=NA.NutrientID "
-                    + "WHERE FoodDescription LIKE '%" + searchTerm + "%' "
-                    + "LIMIT 10";
+        FoodSearchEngine.SearchResult result = searchFoods(searchTerm, null, SEARCH_RESULT_LIMIT);
+        return new ArrayList<>(loadFoodItems(result.getFoodIds()).values());
+    }
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+    /**
+     * Ranked search over food descriptions with food-group facet counts.
+     * Runs against an in-memory index built on first use, not the database.
+     * @param searchTerm Search term
+     * @param foodGroup Food group name to restrict hits to, or null for all groups
+     * @param limit Maximum number of hits
+     * @return The top hits and the number of matches in each food group
+     */
+    public FoodSearchEngine.SearchResult searchFoods(String searchTerm, String foodGroup, int limit) {
+        FoodIndexes indexes = getFoodIndexes();
+        if (indexes == null) {
+            return new FoodSearchEngine.SearchResult(new ArrayList<>(), new HashMap<>(), 0);
+        }
+        return indexes.search.search(searchTerm, foodGroup, limit);
+    }
 
-            ResultSet rs = ps.executeQuery();
+    /**
+     * Get the search and group indexes, built on first use from the catalog
+     * snapshot, or from one read of FOOD_NAME and FOOD_GROUP when there is none
+     * @return The indexes, or null if the database could not be read
+     */
+    private FoodIndexes getFoodIndexes() {
+        FoodIndexes indexes = foodIndexes;
+        if (indexes == null) {
+            synchronized (this) {
+                indexes = foodIndexes;
+                if (indexes == null) {
+                    indexes = buildFoodIndexes();
+                    foodIndexes = indexes;
+                }
+            }
+        }
+        return indexes;
+    }
+
+    private FoodIndexes buildFoodIndexes() {
+        FoodCatalog catalog = CatalogManager.getInstance().getCatalog();
+        if (catalog != null) {
+            return new FoodIndexes(FoodSearchEngine.fromCatalog(catalog), FoodGroupIndex.fromCatalog(catalog));
+        }
+
+        String sql = "SELECT FN.FoodID, FN.FoodDescription, FG.FoodGroupName FROM FOOD_NAME FN "
+                    + "LEFT JOIN FOOD_GROUP FG ON FG.FoodGroupID = FN.FoodGroupID";
+
+        List<Long> ids = new ArrayList<>();
+        List<String> descriptions = new ArrayList<>();
+        List<String> groups = new ArrayList<>();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
 
             while (rs.next()) {
-                foodIDs.add(rs.getLong("FoodID"));
+                ids.add(rs.getLong("FoodID"));
+                descriptions.add(rs.getString("FoodDescription"));
+                groups.add(rs.getString("FoodGroupName"));
             }
         } catch (SQLException e) {
-            // handle or log SQL errors here
+            System.err.println("Could not build the food indexes: " + e.getMessage());
             e.printStackTrace();
+            return null;
         }
 
-        List<FoodItem> items = new ArrayList<FoodItem>();
-
-        return items;
+        long[] foodIds = new long[ids.size()];
+        for (int i = 0; i < foodIds.length; i++) {
+            foodIds[i] = ids.get(i);
+        }
+        String[] descriptionArray = descriptions.toArray(new String[0]);
+        String[] groupArray = groups.toArray(new String[0]);
+        return new FoodIndexes(new FoodSearchEngine(foodIds, descriptionArray, groupArray),
+                               new FoodGroupIndex(foodIds, descriptionArray, groupArray));
     }
 
     /**
      * Returns all foods in the specified food group.
      * @param foodGroup Food group name
-     * @return List of FoodItem objects
+     * @return List of FoodItem objects, ordered by description
      */
-    // Running time takes too long
     public List<FoodItem> getFoodItemsByGroup(String foodGroup) {
-        List<Long> foodIDs = new ArrayList<>();
-        String sql = "SELECT FN.FoodID FROM FOOD_NAME FN "
-                    + "inner join FOOD_GROUP FG on FN.FoodGroupID=FG.FoodGroupID "
-                    + "WHERE FoodGroupName = '" + foodGroup + "';";
+        return getFoodItemsByGroup(foodGroup, null, 0, Integer.MAX_VALUE);
+    }
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+    /**
+     * Returns one page of the foods in a food group, optionally narrowed by a search.
+     * Browsing reads a slice of the group index; a search ranks only that group's foods.
+     * @param foodGroup Food group name
+     * @param searchTerm Search term, or null/blank to list the group by description
+     * @param offset Index of the first food to return
+     * @param limit Maximum number of foods to return
+     * @return List of FoodItem objects
+     */
+    public List<FoodItem> getFoodItemsByGroup(String foodGroup, String searchTerm, int offset, int limit) {
+        FoodIndexes indexes = getFoodIndexes();
+        if (indexes == null || offset < 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
 
-            ResultSet rs = ps.executeQuery();
+        List<Long> page;
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            page = indexes.groups.getFoodIds(foodGroup, offset, limit);
+        } else {
+            List<Long> ranked = indexes.search.search(searchTerm, foodGroup, (int) Math.min(Integer.MAX_VALUE, (long) offset + limit)).getFoodIds();
+            page = ranked.subList(Math.min(offset, ranked.size()), ranked.size());
+        }
+        return new ArrayList<>(loadFoodItems(page).values());
+    }
 
-            while (rs.next()) {
-                foodIDs.add(rs.getLong("FoodID"));
+    /**
+     * Returns the number of foods in a food group, for paging
+     * @param foodGroup Food group name
+     * @return The count, or 0 for an unknown group
+     */
+    public int getFoodGroupSize(String foodGroup) {
+        FoodIndexes indexes = getFoodIndexes();
+        return indexes != null ? indexes.groups.size(foodGroup) : 0;
+    }
+
+    /**
+     * Returns every food group name, alphabetically
+     * @return List of food group names
+     */
+    public List<String> getFoodGroupNames() {
+        FoodIndexes indexes = getFoodIndexes();
+        return indexes != null ? indexes.groups.getGroups() : new ArrayList<>();
+    }
+
+    /**
+     * Get the household measures of every food (loaded once, until the food cache is invalidated)
+     * @return The measure table, empty if the database has no CNF measure data
+     */
+    public ServingMeasureTable getServingMeasures() {
+        ServingMeasureTable measures = servingMeasures;
+        if (measures == null) {
+            synchronized (this) {
+                measures = servingMeasures;
+                if (measures == null) {
+                    measures = loadServingMeasures();
+                    servingMeasures = measures;
+                }
+            }
+        }
+        return measures;
+    }
+
+    /**
+     * Get the household measures of one food, such as "250 ml" or "1 slice"
+     * @param foodId The Food ID
+     * @return The measures with their weight in grams, empty if none are known
+     */
+    public List<ServingMeasureTable.Measure> getServingMeasures(long foodId) {
+        return getServingMeasures().getMeasures(foodId);
+    }
+
+    private ServingMeasureTable loadServingMeasures() {
+        Map<Integer, String> measureNames = new HashMap<>();
+        List<Long> foodIdList = new ArrayList<>();
+        List<Integer> measureIdList = new ArrayList<>();
+        List<Double> factorList = new ArrayList<>();
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+
+            try (ResultSet rs = stmt.executeQuery("SELECT MeasureID, MeasureDescription FROM MEASURE_NAME")) {
+                while (rs.next()) {
+                    measureNames.put(rs.getInt("MeasureID"), rs.getString("MeasureDescription"));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT FoodID, MeasureID, ConversionFactorValue FROM CONVERSION_FACTOR")) {
+                while (rs.next()) {
+                    foodIdList.add(rs.getLong("FoodID"));
+                    measureIdList.add(rs.getInt("MeasureID"));
+                    factorList.add(rs.getDouble("ConversionFactorValue"));
+                }
             }
         } catch (SQLException e) {
-            // handle or log SQL errors here
-            e.printStackTrace();
+            // Databases loaded before the measure tables existed have no serving data
+            System.err.println("Could not load serving measures: " + e.getMessage());
+            return ServingMeasureTable.empty();
+        }
+
+        long[] foodIds = new long[foodIdList.size()];
+        int[] measureIds = new int[foodIds.length];
+        double[] factors = new double[foodIds.length];
+        for (int i = 0; i < foodIds.length; i++) {
+            foodIds[i] = foodIdList.get(i);
+            measureIds[i] = measureIdList.get(i);
+            factors[i] = factorList.get(i);
         }
+        return new ServingMeasureTable(foodIds, measureIds, factors, measureNames);
+    }
 
-        List<FoodItem> items = new ArrayList<FoodItem>();
+    /**
+     * The in-memory indexes over FOOD_NAME, swapped together on invalidation
+     */
+    private static class FoodIndexes {
+        private final FoodSearchEngine search;
+        private final FoodGroupIndex groups;
 
-        return items;
+        FoodIndexes(FoodSearchEngine search, FoodGroupIndex groups) {
+            this.search = search;
+            this.groups = groups;
+        }
     }
 
     /**
-     * Retrieve the Food IDs and their description
+     * Retrieve the Food IDs and their description (cached after the first call)
      * @return Map of he Food IDs and their description
      */
     public Map<Long, String> getFoodItems() {
+        Map<Long, String> cached = foodCache.getFoodNames();
+        if (cached != null) {
+            return cached;
+        }
+
         Map<Long, String> foodHashMap = new HashMap<Long, String>();
         String sql = "select foodId, foodDescription from FOOD_NAME";
+        long cacheVersion = foodCache.getVersion();
 
-        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
 
             ResultSet rs = ps.executeQuery();
 
             while (rs.next()) {
                 foodHashMap.put(rs.getLong("FoodID"), rs.getString("foodDescription"));
             }
+            foodCache.putFoodNames(foodHashMap, cacheVersion);
         } catch (SQLException e) {
             // handle or log SQL errors here
             e.printStackTrace();
@@ -673,7 +1451,8 @@ public class DatabaseManager {
 
             System.out.println("Executing SQL: " + saveUserSQL);
 
-            try (PreparedStatement ps = connection.prepareStatement(saveUserSQL)) {
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement ps = connection.prepareStatement(saveUserSQL)) {
                 ps.setLong(1, userID);
                 ps.setString(2, user.getName());
                 ps.setString(3, user.getEmail());
@@ -728,7 +1507,8 @@ public class DatabaseManager {
         "GoalDescription=? " +
         "WHERE UserID=?";
 
-        try (PreparedStatement ps = connection.prepareStatement(updateUserSQL)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(updateUserSQL)) {
             ps.setString(1, password);
             ps.setString(2, user.getGender().name());
             ps.setDate(3, java.sql.Date.valueOf(user.getDateOfBirth()));
@@ -755,7 +1535,8 @@ public class DatabaseManager {
     public boolean checkIfUserExists(String email) {
         String checkForUser = "Select COUNT(*) as NUM from Meal_User where Email=?";
 
-        try (PreparedStatement ps = connection.prepareStatement(checkForUser)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(checkForUser)) {
             ps.setString(1, email);
 
             ResultSet rs = ps.executeQuery();
@@ -785,7 +1566,8 @@ public class DatabaseManager {
     public User authenticateUser(String email, String password) {
         String checkForUser = "Select * from Meal_User where Email=?";
 
-        try (PreparedStatement ps = connection.prepareStatement(checkForUser)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ps = connection.prepareStatement(checkForUser)) {
             ps.setString(1, email);
 
             ResultSet rs = ps.executeQuery();
@@ -864,13 +1646,7 @@ public class DatabaseManager {
      * Properly closes database connections and cleans up resources.
      */
     public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-            // Close prepared statements, release pool, etc.
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        // Borrowed connections are closed as they are returned; later calls reconnect on demand
+        pool.closeIdleConnections();
     }
 }
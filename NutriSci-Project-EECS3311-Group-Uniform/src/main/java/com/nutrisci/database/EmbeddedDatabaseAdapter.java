@@ -0,0 +1,222 @@
+package com.nutrisci.database;
+
+import com.nutrisci.meal.Meal;
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.model.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Embedded database adapter implementation.
+ * Runs the full DatabaseAdapter interface against an in-process H2 database
+ * (in MySQL compatibility mode) with the same schema as the hosted database,
+ * so food lookups never leave the machine. It also serves as a local
+ * stand-in for tests and benchmarks.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class EmbeddedDatabaseAdapter implements DatabaseAdapter {
+
+    private static final String DEFAULT_URL = "jdbc:h2:./data/nutrisci;MODE=MySQL";
+    private static final String SCHEMA_RESOURCE = "db/embedded-schema.sql";
+
+    private DatabaseManager databaseManager;
+
+    /**
+     * Constructor that opens the embedded database configured by
+     * embedded.db.url in db.properties
+     */
+    public EmbeddedDatabaseAdapter() {
+        this(configuredUrl());
+    }
+
+    /**
+     * Constructor that opens an embedded database at the given JDBC URL,
+     * e.g. jdbc:h2:mem:test;MODE=MySQL;DB_CLOSE_DELAY=-1 for an in-memory copy
+     * @param url The H2 JDBC URL
+     */
+    public EmbeddedDatabaseAdapter(String url) {
+        Properties properties = new Properties();
+        properties.setProperty("db.url", url);
+        properties.setProperty("db.user", "sa");
+        properties.setProperty("db.password", "");
+
+        this.databaseManager = new DatabaseManager(properties);
+        createSchema();
+    }
+
+    /**
+     * Read the embedded database URL from db.properties, falling back to a file in ./data
+     */
+    private static String configuredUrl() {
+        Properties properties = new Properties();
+        try (InputStream input = EmbeddedDatabaseAdapter.class.getClassLoader().getResourceAsStream("db.properties")) {
+            if (input != null) {
+                properties.load(input);
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading database configuration: " + e.getMessage());
+        }
+        return properties.getProperty("embedded.db.url", DEFAULT_URL);
+    }
+
+    /**
+     * Create any missing tables and indexes from the bundled schema script
+     */
+    private void createSchema() {
+        try (Connection connection = databaseManager.getConnection();
+             Statement stmt = connection.createStatement()) {
+            for (String sql : readStatements(SCHEMA_RESOURCE)) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("Error creating embedded database schema: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Split a SQL script on semicolons, skipping comment lines
+     */
+    static List<String> readStatements(String resource) throws IOException {
+        List<String> statements = new ArrayList<>();
+        InputStream input = EmbeddedDatabaseAdapter.class.getClassLoader().getResourceAsStream(resource);
+        if (input == null) {
+            throw new IOException("SQL script not found: " + resource);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            StringBuilder current = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String sql = current.toString().trim();
+                    statements.add(sql.substring(0, sql.length() - 1));
+                    current.setLength(0);
+                }
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Get the DatabaseManager backing this adapter (used by loaders and tests)
+     */
+    public DatabaseManager getDatabaseManager() {
+        return databaseManager;
+    }
+
+    @Override
+    public boolean saveMeal(Meal meal, long userId) {
+        return databaseManager.saveMeal(meal, userId);
+    }
+
+    @Override
+    public boolean updateMeal(Meal meal) {
+        return databaseManager.updateMeal(meal);
+    }
+
+    @Override
+    public boolean deleteMeal(Long mealId) {
+        return databaseManager.deleteMeal(mealId);
+    }
+
+    @Override
+    public List<Meal> getMealsForUser(long userId, LocalDate startDate, LocalDate endDate) {
+        return databaseManager.getMealsForUser(userId, startDate, endDate);
+    }
+
+    @Override
+    public boolean saveUser(User user) {
+        return databaseManager.saveUser(user);
+    }
+
+    @Override
+    public boolean updateUserProfile(User user) {
+        return databaseManager.updateUserProfile(user);
+    }
+
+    @Override
+    public User authenticateUser(String email, String password) {
+        return databaseManager.authenticateUser(email, password);
+    }
+
+    @Override
+    public boolean checkIfUserExists(String email) {
+        return databaseManager.checkIfUserExists(email);
+    }
+
+    @Override
+    public FoodItem loadFoodItem(Long foodId) {
+        return databaseManager.loadFoodItem(foodId);
+    }
+
+    @Override
+    public Map<Long, FoodItem> loadFoodItems(Collection<Long> foodIds) {
+        return databaseManager.loadFoodItems(foodIds);
+    }
+
+    @Override
+    public Map<Long, String> getFoodItems() {
+        return databaseManager.getFoodItems();
+    }
+
+    @Override
+    public Map<Long, String> importMeals(long userId) {
+        return databaseManager.importMeals(userId);
+    }
+
+    @Override
+    public List<Long> importMeal(long mealId) {
+        return databaseManager.importMeal(mealId);
+    }
+
+    @Override
+    public List<FoodItem> importMealItems(long mealId) {
+        return databaseManager.importMealItems(mealId);
+    }
+
+    @Override
+    public boolean swapFoodInMeal(Long mealId, FoodItem original, FoodItem replacement) {
+        return databaseManager.swapFoodInMeal(mealId, original, replacement);
+    }
+
+    @Override
+    public boolean canAddMealType(long userId, com.nutrisci.meal.MealType type, LocalDate date) {
+        return databaseManager.canAddMealType(userId, type, date);
+    }
+
+    @Override
+    public int getMealCountForType(long userId, com.nutrisci.meal.MealType type, LocalDate date) {
+        return databaseManager.getMealCountForType(userId, type, date);
+    }
+
+    @Override
+    public List<com.nutrisci.meal.MealType> getAvailableMealTypes(long userId, LocalDate date) {
+        return databaseManager.getAvailableMealTypes(userId, date);
+    }
+
+    @Override
+    public void closeConnection() {
+        databaseManager.closeConnection();
+    }
+}
@@ -0,0 +1,292 @@
+package com.nutrisci.database;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import com.nutrisci.meal.FoodItem;
+
+/**
+ * Read-through cache for CNF food items used by DatabaseManager.
+ * The CNF is reference data that only changes when the catalog is reloaded,
+ * so hydrated FoodItems and the food name map are kept in memory and served
+ * without a database round trip.
+ *
+ * The cache is bounded by entry count and, optionally, by an approximate
+ * size in bytes. The least recently used foods are evicted first. An optional
+ * time-to-live makes entries reload after the catalog may have changed.
+ *
+ * Callers get their own copy of a cached food, so changing it (e.g. setId)
+ * cannot corrupt the cache. Every invalidateAll starts a new cache version;
+ * a caller reads getVersion() before querying the database and passes it to
+ * put, so a query that raced an invalidation cannot put old rows back.
+ *
+ * Settings (db.properties):
+ *   db.cache.maxEntries  maximum number of cached foods (default 10000, 0 disables the cache)
+ *   db.cache.maxBytes    approximate memory limit, 0 for none (default 0)
+ *   db.cache.ttlMillis   time before an entry is reloaded, 0 for never (default 0)
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class FoodItemCache {
+    // Rough per-object overheads used for the byte estimate
+    private static final long ITEM_OVERHEAD_BYTES = 72;
+    private static final long NUTRIENT_SLOT_BYTES = Double.BYTES;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlMillis;
+
+    // Access-ordered, so iteration starts at the least recently used food
+    private final LinkedHashMap<Long, CachedItem> items = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    // Bumped by invalidateAll; puts from an older version are dropped
+    private long version;
+
+    private Map<Long, String> foodNames;
+    private long foodNamesLoadedAt;
+
+    // Metrics
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * Create a cache with the given limits
+     * @param maxEntries Maximum number of cached foods (0 disables caching)
+     * @param maxBytes Approximate memory limit in bytes (0 for none)
+     * @param ttlMillis Time before an entry expires (0 for never)
+     */
+    public FoodItemCache(int maxEntries, long maxBytes, long ttlMillis) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.maxBytes = Math.max(0, maxBytes);
+        this.ttlMillis = Math.max(0, ttlMillis);
+    }
+
+    /**
+     * Create a cache from the db.cache.* settings
+     * @param properties The loaded database properties
+     */
+    public static FoodItemCache fromProperties(Properties properties) {
+        return new FoodItemCache(
+            Integer.parseInt(properties.getProperty("db.cache.maxEntries", "10000").trim()),
+            Long.parseLong(properties.getProperty("db.cache.maxBytes", "0").trim()),
+            Long.parseLong(properties.getProperty("db.cache.ttlMillis", "0").trim()));
+    }
+
+    /**
+     * Look up a cached food
+     * @param foodId The food ID
+     * @return A copy of the cached FoodItem, or null if it is not cached or has expired
+     */
+    public synchronized FoodItem get(long foodId) {
+        CachedItem cached = items.get(foodId);
+        if (cached != null && isExpired(cached.loadedAt)) {
+            remove(foodId);
+            expirations++;
+            cached = null;
+        }
+
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copyOf(cached.item);
+    }
+
+    /**
+     * Look up many foods at once
+     * @param foodIds The food IDs
+     * @return The cached foods; IDs that missed are absent
+     */
+    public synchronized Map<Long, FoodItem> getAll(Collection<Long> foodIds) {
+        Map<Long, FoodItem> found = new HashMap<>();
+        for (Long foodId : foodIds) {
+            FoodItem item = get(foodId);
+            if (item != null) {
+                found.put(foodId, item);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get the current cache version, to read before querying the database for a put
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Add a food to the cache, evicting the least recently used foods if it is full
+     * @param item The hydrated food item; the cache keeps its own copy
+     * @param version getVersion() from before the item was read; an older version is ignored
+     */
+    public synchronized void put(FoodItem item, long version) {
+        if (maxEntries == 0 || version != this.version) {
+            return;
+        }
+
+        long bytes = estimateBytes(item);
+        CachedItem previous = items.put(item.getId(), new CachedItem(copyOf(item), bytes, System.currentTimeMillis()));
+        if (previous != null) {
+            totalBytes -= previous.bytes;
+        }
+        totalBytes += bytes;
+
+        Iterator<CachedItem> eldest = items.values().iterator();
+        while (eldest.hasNext() && (items.size() > maxEntries || (maxBytes > 0 && totalBytes > maxBytes))) {
+            totalBytes -= eldest.next().bytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Add several foods to the cache
+     * @param version getVersion() from before the items were read
+     */
+    public synchronized void putAll(Collection<FoodItem> foodItems, long version) {
+        for (FoodItem item : foodItems) {
+            put(item, version);
+        }
+    }
+
+    /**
+     * Get a copy of the cached food ID to description map
+     * @return The food names, or null if they are not cached or have expired
+     */
+    public synchronized Map<Long, String> getFoodNames() {
+        if (foodNames != null && isExpired(foodNamesLoadedAt)) {
+            foodNames = null;
+            expirations++;
+        }
+
+        if (foodNames == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new HashMap<>(foodNames);
+    }
+
+    /**
+     * Cache the food ID to description map
+     * @param version getVersion() from before the names were read; an older version is ignored
+     */
+    public synchronized void putFoodNames(Map<Long, String> names, long version) {
+        if (maxEntries == 0 || version != this.version) {
+            return;
+        }
+        foodNames = new HashMap<>(names);
+        foodNamesLoadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Drop every cached entry, e.g. after the CNF has been reloaded
+     */
+    public synchronized void invalidateAll() {
+        items.clear();
+        totalBytes = 0;
+        foodNames = null;
+        version++;
+    }
+
+    /**
+     * Get the current cache metrics
+     * @return The hit, miss and eviction counters and the current size
+     */
+    public synchronized CacheStats getStats() {
+        return new CacheStats(items.size(), totalBytes, hits, misses, evictions, expirations);
+    }
+
+    private boolean isExpired(long loadedAt) {
+        return ttlMillis > 0 && System.currentTimeMillis() - loadedAt > ttlMillis;
+    }
+
+    private void remove(long foodId) {
+        CachedItem removed = items.remove(foodId);
+        if (removed != null) {
+            totalBytes -= removed.bytes;
+        }
+    }
+
+    /**
+     * A FoodItem of its own for the cache or a caller; the nutrient array is
+     * shared, as it is never changed after construction
+     */
+    private static FoodItem copyOf(FoodItem item) {
+        return item.adjustForQuantity(item.getGrams());
+    }
+
+    /**
+     * Approximate heap footprint of a food item: object headers, the
+     * description and group strings, and its nutrient array
+     */
+    static long estimateBytes(FoodItem item) {
+        return ITEM_OVERHEAD_BYTES
+            + 2L * item.getDisplayName().length()
+            + NUTRIENT_SLOT_BYTES * item.getNutrientSlotCount();
+    }
+
+    /**
+     * A cached food and when it was loaded
+     */
+    private static class CachedItem {
+        private final FoodItem item;
+        private final long bytes;
+        private final long loadedAt;
+
+        CachedItem(FoodItem item, long bytes, long loadedAt) {
+            this.item = item;
+            this.bytes = bytes;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Snapshot of the cache metrics
+     */
+    public static class CacheStats {
+        private final int size;
+        private final long approximateBytes;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+
+        public CacheStats(int size, long approximateBytes, long hits, long misses, long evictions, long expirations) {
+            this.size = size;
+            this.approximateBytes = approximateBytes;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        public int getSize() { return size; }
+        public long getApproximateBytes() { return approximateBytes; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("size=%d, approxBytes=%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, expirations=%d",
+                    size, approximateBytes, hits, misses, getHitRate() * 100, evictions, expirations);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.nutrisci.meal.Meal;
 import com.nutrisci.meal.FoodItem;
 import com.nutrisci.model.User;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -71,6 +72,11 @@ public class MySQLDatabaseAdapter implements DatabaseAdapter {
         return databaseManager.loadFoodItem(foodId);
     }
     
+    @Override
+    public Map<Long, FoodItem> loadFoodItems(Collection<Long> foodIds) {
+        return databaseManager.loadFoodItems(foodIds);
+    }
+    
     @Override
     public Map<Long, String> getFoodItems() {
         return databaseManager.getFoodItems();
@@ -86,6 +92,11 @@ public class MySQLDatabaseAdapter implements DatabaseAdapter {
         return databaseManager.importMeal(mealId);
     }
     
+    @Override
+    public List<FoodItem> importMealItems(long mealId) {
+        return databaseManager.importMealItems(mealId);
+    }
+    
     @Override
     public boolean swapFoodInMeal(Long mealId, FoodItem original, FoodItem replacement) {
         return databaseManager.swapFoodInMeal(mealId, original, replacement);
@@ -4,6 +4,7 @@ import com.nutrisci.meal.Meal;
 import com.nutrisci.meal.FoodItem;
 import com.nutrisci.model.User;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -88,6 +89,12 @@ public class PostgreSQLDatabaseAdapter implements DatabaseAdapter {
         return fallbackDatabase.loadFoodItem(foodId);
     }
     
+    @Override
+    public Map<Long, FoodItem> loadFoodItems(Collection<Long> foodIds) {
+        // PostgreSQL-specific implementation would go here
+        return fallbackDatabase.loadFoodItems(foodIds);
+    }
+    
     @Override
     public Map<Long, String> getFoodItems() {
         // PostgreSQL-specific implementation would go here
@@ -106,6 +113,12 @@ public class PostgreSQLDatabaseAdapter implements DatabaseAdapter {
         return fallbackDatabase.importMeal(mealId);
     }
     
+    @Override
+    public List<FoodItem> importMealItems(long mealId) {
+        // PostgreSQL-specific implementation would go here
+        return fallbackDatabase.importMealItems(mealId);
+    }
+    
     @Override
     public boolean swapFoodInMeal(Long mealId, FoodItem original, FoodItem replacement) {
         // PostgreSQL-specific implementation would go here
@@ -1,11 +1,13 @@
 package com.nutrisci.meal;
 
 import java.awt.BorderLayout;
+import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.Frame;
 import java.awt.GridLayout;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -13,9 +15,12 @@ import javax.swing.BorderFactory;
 import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
+import javax.swing.JList;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 import javax.swing.SwingConstants;
 
+import com.nutrisci.calculator.DailyReferenceValues;
 import com.nutrisci.calculator.NutritionalCalculator;
 import com.nutrisci.calculator.NutritionalData;
 
@@ -48,7 +53,7 @@ public class CalculateNutritionDialog extends JDialog {
         nutritionalData1 = nutritionalCalculator.calculateMealNutrition(this.selectedFoodNames);
 
         setLayout(new BorderLayout(10, 10));
-        setSize(450, 300);
+        setSize(450, 500);
         setLocationRelativeTo(owner);
 
         // Display panel
@@ -74,6 +79,7 @@ public class CalculateNutritionDialog extends JDialog {
         // Layout setup
         add(topPanel, BorderLayout.NORTH);
         add(centerPanel, BorderLayout.CENTER);
+        add(createDailyValuePanel("% Daily Value", this.selectedFoodNames, nutritionalCalculator), BorderLayout.SOUTH);
 
         displayLabel.setText(updateDisplay(nutritionSelector.getSelectedItem().toString(), nutritionalData1));
     }
@@ -87,7 +93,7 @@ public class CalculateNutritionDialog extends JDialog {
      */
     public CalculateNutritionDialog(Frame owner, Map<Long, FoodItem> foodNamesMeal1, Map<Long, FoodItem> foodNamesMeal2) {
         super(owner, "Nutrition Calculator - Two Meals", true);
-        setSize(500, 250);
+        setSize(600, 450);
         setLocationRelativeTo(owner);
         setLayout(new BorderLayout(10, 10));
 
@@ -120,9 +126,33 @@ public class CalculateNutritionDialog extends JDialog {
 
         add(comparisonPanel, BorderLayout.CENTER);
 
+        JPanel dailyValuePanel = new JPanel(new GridLayout(1, 2, 10, 10));
+        dailyValuePanel.add(createDailyValuePanel("Meal 1 % Daily Value", new ArrayList<>(foodNamesMeal1.values()), calculator));
+        dailyValuePanel.add(createDailyValuePanel("Meal 2 % Daily Value", new ArrayList<>(foodNamesMeal2.values()), calculator));
+        add(dailyValuePanel, BorderLayout.SOUTH);
+
         updateNutritionalDisplay();
     }
 
+    /**
+     * Create a list of every reference nutrient with the meal's amount and % of its daily value
+     * @param title The border title
+     * @param foodItems The meal's food items, in their portions
+     * @param calculator The calculator holding the daily values
+     * @return Scrollable list of the comparisons
+     */
+    private static JScrollPane createDailyValuePanel(String title, List<FoodItem> foodItems, NutritionalCalculator calculator) {
+        Meal meal = new Snack();
+        meal.setFoodItems(foodItems);
+        List<DailyReferenceValues.Comparison> comparisons = calculator.compareWithDailyValues(Collections.singletonList(meal), 1);
+
+        JList<DailyReferenceValues.Comparison> list = new JList<>(comparisons.toArray(new DailyReferenceValues.Comparison[0]));
+        JScrollPane scrollPane = new JScrollPane(list);
+        scrollPane.setBorder(BorderFactory.createTitledBorder(title));
+        scrollPane.setPreferredSize(new Dimension(0, 220));
+        return scrollPane;
+    }
+
     /**
      * Update the nutritional display data for both meals
      */
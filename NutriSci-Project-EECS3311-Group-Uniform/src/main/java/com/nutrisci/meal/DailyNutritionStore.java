@@ -0,0 +1,387 @@
+package com.nutrisci.meal;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import com.nutrisci.calculator.NutrientAccumulator;
+import com.nutrisci.calculator.NutritionalData;
+import com.nutrisci.database.DatabaseManager;
+import com.nutrisci.model.User;
+import com.nutrisci.util.UserSessionManager;
+
+/**
+ * Singleton in-memory store of nutrient totals per (user, date, meal type).
+ *
+ * A day is read from the database once, the first time its totals are asked
+ * for. After that MealManager events keep it current: adding a meal adds that
+ * meal's foods, updating subtracts the meal's old totals and adds the new
+ * ones, and deleting subtracts them. So reading a day's totals is a map
+ * lookup, and a change costs only the items that changed. Events for days
+ * that were never read are not applied; those days load fresh when first
+ * read, which happens right away if a listener needs the new total.
+ *
+ * Every MealManager registers the store as an observer. Listeners added with
+ * addObserver are told through onDailyNutritionChanged after a day changes.
+ * Events and reads may come from any thread. Missing days are read from the
+ * database without holding the store's lock, so a slow read does not block
+ * other readers or events; a read that raced an event is simply repeated.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class DailyNutritionStore implements MealObserver {
+    private static volatile DailyNutritionStore instance;
+
+    private final MealSource source;
+    // Loaded days by user; a day in the map is complete
+    private final Map<Long, Map<LocalDate, Day>> days = new HashMap<>();
+    // What each known meal contributed, so updates and deletes can subtract it
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+    private final List<MealObserver> observers = new CopyOnWriteArrayList<>();
+    // Bumped by every change, so a database read that raced one can tell
+    private long changeCount;
+    private final UserIdSupplier currentUser;
+
+    /**
+     * Where the store reads meals from when a day is not loaded yet
+     */
+    interface MealSource {
+        List<Meal> getMealsForUser(long userId, LocalDate start, LocalDate end);
+    }
+
+    /**
+     * Who the events from MealManager belong to
+     */
+    interface UserIdSupplier {
+        long getCurrentUserId();
+    }
+
+    DailyNutritionStore(MealSource source, UserIdSupplier currentUser) {
+        this.source = source;
+        this.currentUser = currentUser;
+    }
+
+    /**
+     * Returns the singleton instance of DailyNutritionStore (thread-safe, double-checked locking)
+     */
+    public static DailyNutritionStore getInstance() {
+        if (instance == null) {
+            synchronized (DailyNutritionStore.class) {
+                if (instance == null) {
+                    DatabaseManager db = DatabaseManager.getInstance();
+                    instance = new DailyNutritionStore(db::getMealsForUser, () -> {
+                        User user = UserSessionManager.getInstance().getCurrentUser();
+                        return user != null ? user.getId() : 0;
+                    });
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the totals of one day
+     * @param userId The user
+     * @param date The day
+     * @return A copy of the day's totals (zero if nothing was logged)
+     */
+    public NutrientAccumulator getDailyTotals(long userId, LocalDate date) {
+        return read(userId, date, date, userDays -> new NutrientAccumulator().add(userDays.get(date).total));
+    }
+
+    /**
+     * Get the totals of one day by meal type
+     * @param userId The user
+     * @param date The day
+     * @return Copies of the totals of each meal type logged that day
+     */
+    public Map<MealType, NutrientAccumulator> getMealTypeTotals(long userId, LocalDate date) {
+        return read(userId, date, date, userDays -> {
+            Map<MealType, NutrientAccumulator> totals = new EnumMap<>(MealType.class);
+            for (Map.Entry<MealType, NutrientAccumulator> entry : userDays.get(date).byMealType.entrySet()) {
+                totals.put(entry.getKey(), new NutrientAccumulator().add(entry.getValue()));
+            }
+            return totals;
+        });
+    }
+
+    /**
+     * Get the totals of every day in a range, loading missing days with one query
+     * @param userId The user
+     * @param start First day
+     * @param end Last day
+     * @return Copies of the daily totals by date, including days with nothing logged
+     */
+    public Map<LocalDate, NutrientAccumulator> getDailyTotals(long userId, LocalDate start, LocalDate end) {
+        return read(userId, start, end, userDays -> {
+            Map<LocalDate, NutrientAccumulator> totals = new TreeMap<>();
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                totals.put(date, new NutrientAccumulator().add(userDays.get(date).total));
+            }
+            return totals;
+        });
+    }
+
+    /**
+     * Forget a day so its next read goes to the database, e.g. after a change
+     * that was not published as a meal event. Listeners are told the reloaded total.
+     */
+    public void invalidate(long userId, LocalDate date) {
+        boolean dropped;
+        synchronized (this) {
+            dropped = drop(userId, date);
+        }
+        if (dropped) {
+            publish(userId, date);
+        }
+    }
+
+    /**
+     * Forget the day a meal belongs to, if the store knows the meal
+     * @param mealId The meal
+     */
+    public void invalidateMeal(long mealId) {
+        Contribution contribution;
+        synchronized (this) {
+            contribution = contributions.get(mealId);
+        }
+        if (contribution != null) {
+            invalidate(contribution.userId, contribution.date);
+        }
+    }
+
+    /**
+     * Forget everything, e.g. when the user logs out
+     */
+    public synchronized void clear() {
+        days.clear();
+        contributions.clear();
+        changeCount++;
+    }
+
+    /**
+     * Add a listener told about every change to a loaded day
+     */
+    public void addObserver(MealObserver observer) {
+        observers.add(observer);
+    }
+
+    /**
+     * Remove a listener
+     */
+    public void removeObserver(MealObserver observer) {
+        observers.remove(observer);
+    }
+
+    @Override
+    public void onMealChanged(MealEvent event, Meal meal) {
+        if (meal == null) {
+            return;
+        }
+        long userId = currentUser.getCurrentUserId();
+        LocalDate date = dateOf(meal);
+        LocalDate movedFrom = null;
+        synchronized (this) {
+            changeCount++;
+            Contribution old = contributions.get(meal.getId());
+            if (old != null) {
+                remove(old);
+                if (!old.date.equals(date)) {
+                    movedFrom = old.date;
+                }
+            }
+
+            Day day = loadedDay(userId, date);
+            if (day == null) {
+                // Not read yet: the day loads complete on its first read
+            } else if (old == null && event != MealEvent.MEAL_ADDED) {
+                // A change to a meal the store never saw: reload rather than guess
+                drop(userId, date);
+            } else {
+                Contribution contribution = new Contribution(meal.getId(), userId, date, meal.getMealType(),
+                                                             new NutrientAccumulator().add(meal));
+                add(day, contribution);
+            }
+        }
+        if (movedFrom != null) {
+            publish(userId, movedFrom);
+        }
+        publish(userId, date);
+    }
+
+    @Override
+    public void onMealDeleted(long mealId) {
+        Contribution old;
+        synchronized (this) {
+            changeCount++;
+            old = contributions.get(mealId);
+            if (old != null) {
+                remove(old);
+            }
+        }
+        if (old != null) {
+            publish(old.userId, old.date);
+        }
+    }
+
+    @Override
+    public void onDailyNutritionChanged(LocalDate date, NutritionalData newTotal) {
+        // The store is the source of these notifications
+    }
+
+    private void publish(long userId, LocalDate date) {
+        if (observers.isEmpty()) {
+            return;
+        }
+        NutritionalData total = getDailyTotals(userId, date).toNutritionalData();
+        for (MealObserver observer : observers) {
+            try {
+                observer.onDailyNutritionChanged(userId, date, total);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Run a reader over a user's days once every day in the range is loaded.
+     * Missing days are fetched with one query outside the lock; if a change
+     * arrived meanwhile the fetch may be stale, so it is dropped and repeated.
+     */
+    private <T> T read(long userId, LocalDate start, LocalDate end, Function<Map<LocalDate, Day>, T> reader) {
+        while (true) {
+            LocalDate firstMissing = null;
+            LocalDate lastMissing = null;
+            long changesBefore;
+            synchronized (this) {
+                Map<LocalDate, Day> userDays = days.computeIfAbsent(userId, k -> new HashMap<>());
+                for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                    if (!userDays.containsKey(date)) {
+                        if (firstMissing == null) {
+                            firstMissing = date;
+                        }
+                        lastMissing = date;
+                    }
+                }
+                if (firstMissing == null) {
+                    return reader.apply(userDays);
+                }
+                changesBefore = changeCount;
+            }
+
+            List<Meal> meals = userId != 0 ? source.getMealsForUser(userId, firstMissing, lastMissing) : new ArrayList<>();
+            synchronized (this) {
+                if (changeCount == changesBefore) {
+                    merge(userId, firstMissing, lastMissing, meals);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the days of a range that are still missing, built from the meals read for it.
+     * Days loaded meanwhile by another reader are current and left alone.
+     */
+    private void merge(long userId, LocalDate firstMissing, LocalDate lastMissing, List<Meal> meals) {
+        Map<LocalDate, Day> userDays = days.computeIfAbsent(userId, k -> new HashMap<>());
+        Map<LocalDate, Day> added = new HashMap<>();
+        for (LocalDate date = firstMissing; !date.isAfter(lastMissing); date = date.plusDays(1)) {
+            if (!userDays.containsKey(date)) {
+                Day day = new Day();
+                userDays.put(date, day);
+                added.put(date, day);
+            }
+        }
+        for (Meal meal : meals) {
+            Day day = added.get(dateOf(meal));
+            if (day != null) {
+                add(day, new Contribution(meal.getId(), userId, dateOf(meal), meal.getMealType(),
+                                          new NutrientAccumulator().add(meal)));
+            }
+        }
+    }
+
+    /**
+     * Remove a loaded day and the contributions of its meals
+     * @return true if the day was loaded
+     */
+    private boolean drop(long userId, LocalDate date) {
+        Map<LocalDate, Day> userDays = days.get(userId);
+        if (userDays == null || userDays.remove(date) == null) {
+            return false;
+        }
+        changeCount++;
+        contributions.values().removeIf(c -> c.userId == userId && c.date.equals(date));
+        return true;
+    }
+
+    private Day loadedDay(long userId, LocalDate date) {
+        Map<LocalDate, Day> userDays = days.get(userId);
+        return userDays != null ? userDays.get(date) : null;
+    }
+
+    private void add(Day day, Contribution contribution) {
+        day.total.add(contribution.totals);
+        day.byMealType.computeIfAbsent(contribution.mealType, k -> new NutrientAccumulator()).add(contribution.totals);
+        day.mealCounts.merge(contribution.mealType, 1, Integer::sum);
+        contributions.put(contribution.mealId, contribution);
+    }
+
+    private void remove(Contribution contribution) {
+        contributions.remove(contribution.mealId);
+        Day day = loadedDay(contribution.userId, contribution.date);
+        if (day == null) {
+            return;
+        }
+        day.total.subtract(contribution.totals);
+        if (day.mealCounts.merge(contribution.mealType, -1, Integer::sum) <= 0) {
+            // Drop the type outright so rounding leftovers do not linger
+            day.mealCounts.remove(contribution.mealType);
+            day.byMealType.remove(contribution.mealType);
+        } else {
+            day.byMealType.get(contribution.mealType).subtract(contribution.totals);
+        }
+    }
+
+    private static LocalDate dateOf(Meal meal) {
+        if (meal.getDate() != null) {
+            return meal.getDate();
+        }
+        return meal.getCreatedAt() != null ? meal.getCreatedAt().toLocalDate() : LocalDate.now();
+    }
+
+    /**
+     * Running totals of one loaded day
+     */
+    private static class Day {
+        private final NutrientAccumulator total = new NutrientAccumulator();
+        private final Map<MealType, NutrientAccumulator> byMealType = new EnumMap<>(MealType.class);
+        private final Map<MealType, Integer> mealCounts = new EnumMap<>(MealType.class);
+    }
+
+    /**
+     * What one meal added to its day
+     */
+    private static class Contribution {
+        private final long mealId;
+        private final long userId;
+        private final LocalDate date;
+        private final MealType mealType;
+        private final NutrientAccumulator totals;
+
+        Contribution(long mealId, long userId, LocalDate date, MealType mealType, NutrientAccumulator totals) {
+            this.mealId = mealId;
+            this.userId = userId;
+            this.date = date;
+            this.mealType = mealType;
+            this.totals = totals;
+        }
+    }
+}
@@ -1,22 +1,59 @@
 package com.nutrisci.meal;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 // Represents a food item with nutrients, vitamins, minerals, and serving info
 public class FoodItem {
     long id;
     String description;
-    Map<String, Double> nutrients;
+    // Nutrient values indexed by NutrientRegistry; NaN marks a nutrient the food has no value for
+    double[] values;
     String foodGroup;
+    // Portion eaten in grams; values stay per 100 g and are scaled when totals are summed
+    double grams = 100;
 
     // Constructor for FoodItem
     public FoodItem(long id, String description, Map<String, Double> nutrients, String foodGroup) {
+        this(id, description, toValues(nutrients), foodGroup);
+    }
+
+    /**
+     * Constructor for a FoodItem whose nutrients are already indexed by NutrientRegistry.
+     * The array is used as is (not copied) and must not be changed afterwards.
+     * @param values Nutrient values by registry index, NaN where missing
+     */
+    public FoodItem(long id, String description, double[] values, String foodGroup) {
         this.id = id;
         this.description = description;
-        this.nutrients = nutrients;
+        this.values = values;
         this.foodGroup = foodGroup;
     }
 
+    /**
+     * Convert a name to value map into a dense array, registering new names
+     */
+    private static double[] toValues(Map<String, Double> nutrients) {
+        NutrientRegistry registry = NutrientRegistry.getInstance();
+        int[] indices = new int[nutrients.size()];
+        int length = 0;
+        int i = 0;
+        for (String name : nutrients.keySet()) {
+            indices[i] = registry.register(name);
+            length = Math.max(length, indices[i] + 1);
+            i++;
+        }
+
+        double[] values = new double[length];
+        Arrays.fill(values, Double.NaN);
+        i = 0;
+        for (Double value : nutrients.values()) {
+            values[indices[i++]] = value != null ? value : Double.NaN;
+        }
+        return values;
+    }
+
     /**
      * Get Food ID
      * @return The Food ID
@@ -41,18 +78,129 @@ public class FoodItem {
         return description;
     }
 
+    /**
+     * Get the name of the food group the item belongs to
+     * @return Food group name
+     */
+    public String getFoodGroup() {
+        return foodGroup;
+    }
+
+    /**
+     * Get the number of nutrients recorded for the food item
+     * @return Nutrient count
+     */
+    public int getNutrientCount() {
+        int count = 0;
+        for (double value : values) {
+            if (!Double.isNaN(value)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of nutrient slots held by the food item (used for memory estimates)
+     * @return Length of the nutrient array
+     */
+    public int getNutrientSlotCount() {
+        return values.length;
+    }
+
     // Returns the value of a nutrient (macro, vitamin, or mineral)
     public double getNutrientValue(String nutrientName) {        
-        if (nutrients.containsKey(nutrientName)) {
-            return nutrients.get(nutrientName);
+        return getNutrientValue(NutrientRegistry.getInstance().indexOf(nutrientName));
+    }
+
+    /**
+     * Returns the value of a nutrient by its NutrientRegistry index
+     * @param index The registry index, e.g. NutrientRegistry.PROTEIN
+     * @return The nutrient value, or -1 if the food has no value for it
+     */
+    public double getNutrientValue(int index) {
+        if (index >= 0 && index < values.length && !Double.isNaN(values[index])) {
+            return values[index];
         }
         // Return -1 if nutrient not found
         return -1;
     }
 
-    // Returns a new FoodItem with the same properties but with the quantity adjusted
+    /**
+     * Check whether the food has a value for a nutrient
+     * @param index The NutrientRegistry index
+     * @return true if a value is recorded, otherwise false
+     */
+    public boolean hasNutrient(int index) {
+        return index >= 0 && index < values.length && !Double.isNaN(values[index]);
+    }
+
+    /**
+     * Returns the value of a nutrient by its NutrientRegistry index, or 0 if the food has none
+     */
+    public double getNutrientOrZero(int index) {
+        if (index >= 0 && index < values.length && !Double.isNaN(values[index])) {
+            return values[index];
+        }
+        return 0;
+    }
+
+    /**
+     * Add every nutrient the food has a value for into a running total, by registry index,
+     * scaled to the portion (getGrams) so no scaled copy of the food is needed
+     * @param totals Array at least getNutrientSlotCount() long
+     */
+    public void addNutrientsTo(double[] totals) {
+        double scale = getPortionScale();
+        for (int i = 0; i < values.length; i++) {
+            double value = values[i];
+            if (!Double.isNaN(value)) {
+                totals[i] += value * scale;
+            }
+        }
+    }
+
+    /**
+     * Get the portion eaten, in grams (100 unless set with adjustForQuantity)
+     * @return Portion weight in grams
+     */
+    public double getGrams() {
+        return grams;
+    }
+
+    /**
+     * Get the factor that turns the per 100 g nutrient values into the portion's values
+     * @return getGrams() / 100
+     */
+    public double getPortionScale() {
+        return grams / 100.0;
+    }
+
+    /**
+     * Get the nutrients as a name to value map (only nutrients the food has a value for)
+     * @return A new map of nutrient names to values
+     */
+    public Map<String, Double> getNutrients() {
+        NutrientRegistry registry = NutrientRegistry.getInstance();
+        Map<String, Double> nutrients = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            if (!Double.isNaN(values[i])) {
+                nutrients.put(registry.nameOf(i), values[i]);
+            }
+        }
+        return nutrients;
+    }
+
+    /**
+     * Returns a new FoodItem for a different portion of the same food.
+     * The nutrient array is shared, not copied: nutrient values stay per 100 g
+     * and the portion is applied when totals are summed.
+     * @param quantity Portion weight in grams
+     * @return The food item for that portion
+     */
     public FoodItem adjustForQuantity(double quantity) {
-        FoodItem newFoodItem = new FoodItem(this.id, this.description, this.nutrients, this.foodGroup);
+        FoodItem newFoodItem = new FoodItem(this.id, this.description, this.values, this.foodGroup);
+        newFoodItem.grams = quantity;
         return newFoodItem;
     }
 
@@ -66,9 +214,9 @@ public class FoodItem {
 
     // Calculates the calories from the macronutrients
     public double calculateCaloriesFromMacros() {
-        double protein = getNutrientValue("PROTEIN");
-        double carbs = getNutrientValue("CARBOHYDRATE, TOTAL (BY DIFFERENCE)");
-        double fat = getNutrientValue("FAT (TOTAL LIPIDS)");
+        double protein = getNutrientValue(NutrientRegistry.PROTEIN);
+        double carbs = getNutrientValue(NutrientRegistry.CARBOHYDRATE);
+        double fat = getNutrientValue(NutrientRegistry.FAT);
         return Math.round(((protein * 4) + (carbs * 4) + (fat * 9)) * 100.0) / 100.0;
     }
 
@@ -3,11 +3,10 @@ package com.nutrisci.meal;
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.Frame;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
 
-import javax.swing.DefaultListModel;
+import javax.swing.AbstractListModel;
 import javax.swing.JButton;
 import javax.swing.JDialog;
 import javax.swing.JList;
@@ -15,18 +14,25 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.Timer;
+
+import com.nutrisci.catalog.FoodNameIndex;
 
 /**
  * The Food Item Search dialog
  */
 public class FoodSearchDialog extends JDialog {
-    private String selectedFood;
+    // Wait this long after the last keystroke before searching
+    private static final int SEARCH_DELAY_MILLIS = 120;
+
+    private Long selectedFoodId;
     private JTextField searchField;
     private JList<String> foodList;
-    private DefaultListModel<String> listModel;
+    private ResultListModel listModel;
     private JButton selectButton;
     private final Map<Long, String> foodNames;
-    private final List<String> allFoodValues;
+    private final FoodNameIndex index;
+    private final Timer searchTimer;
 
     /**
      * Create the panel to search for a food item in the given list
@@ -36,47 +42,41 @@ public class FoodSearchDialog extends JDialog {
     public FoodSearchDialog(Frame owner, Map<Long, String> foodNames) {
         super(owner, "Select Food Item", true);
         this.foodNames = foodNames;
-        this.allFoodValues = new ArrayList<>(foodNames.values());
-
-        allFoodValues.sort(String::compareToIgnoreCase);
+        this.index = FoodNameIndex.forNames(foodNames);
 
         setLayout(new BorderLayout(10, 10));
         setSize(450, 400);
         setLocationRelativeTo(owner);
 
         searchField = new JTextField();
-        listModel = new DefaultListModel<>();
-        allFoodValues.forEach(listModel::addElement);
+        listModel = new ResultListModel(index);
+        listModel.setRows(search(""));
         foodList = new JList<>(listModel);
         foodList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Fixed cell height lets JList skip measuring every row of a long result list
+        foodList.setPrototypeCellValue("Xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx");
         JScrollPane scrollPane = new JScrollPane(foodList);
 
+        // Restarted on every keystroke, so only the last one in a burst runs a search
+        searchTimer = new Timer(SEARCH_DELAY_MILLIS, e -> listModel.setRows(search(searchField.getText())));
+        searchTimer.setRepeats(false);
+
         searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            public void insertUpdate(javax.swing.event.DocumentEvent e) { filter(); }
-            public void removeUpdate(javax.swing.event.DocumentEvent e) { filter(); }
-            public void changedUpdate(javax.swing.event.DocumentEvent e) { filter(); }
-
-            private void filter() {
-                String filter = searchField.getText().toLowerCase();
-                listModel.clear();
-                for (String name : allFoodValues) {
-                    if (name.toLowerCase().contains(filter)) {
-                        listModel.addElement(name);
-                    }
-                }
-            }
+            public void insertUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            public void removeUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
+            public void changedUpdate(javax.swing.event.DocumentEvent e) { searchTimer.restart(); }
         });
 
         selectButton = new JButton("Select");
         selectButton.addActionListener(e -> {
-            selectedFood = foodList.getSelectedValue();
+            selectedFoodId = listModel.getFoodIdAt(foodList.getSelectedIndex());
             setVisible(false);
         });
 
         foodList.addMouseListener(new java.awt.event.MouseAdapter() {
             public void mouseClicked(java.awt.event.MouseEvent evt) {
                 if (evt.getClickCount() == 2) {
-                    selectedFood = foodList.getSelectedValue();
+                    selectedFoodId = listModel.getFoodIdAt(foodList.getSelectedIndex());
                     setVisible(false);
                 }
             }
@@ -90,12 +90,32 @@ public class FoodSearchDialog extends JDialog {
         add(bottomPanel, BorderLayout.SOUTH);
     }
 
+    /**
+     * Search the index, keeping only the foods offered by this dialog
+     * (the shared index may also hold foods that are already selected)
+     */
+    private int[] search(String query) {
+        int[] rows = index.search(query);
+        if (index.size() == foodNames.size()) {
+            return rows;
+        }
+
+        int count = 0;
+        for (int row : rows) {
+            if (foodNames.containsKey(index.idAt(row))) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
     /**
      * Show dialog and retrieve the selected food ID
      * @return The food ID
      */
     public Long showDialog() {
         setVisible(true);
+        searchTimer.stop();
         return getSelectedFoodId();
     }
 
@@ -104,13 +124,45 @@ public class FoodSearchDialog extends JDialog {
      * @return The food ID
      */
     public Long getSelectedFoodId() {
-        if (selectedFood == null) return null;
-        for (Map.Entry<Long, String> entry : foodNames.entrySet()) {
-            if (entry.getValue().equals(selectedFood)) {
-                System.out.println(entry.getKey());
-                return entry.getKey();
+        return selectedFoodId;
+    }
+
+    /**
+     * List model that shows a result array of index rows without copying names;
+     * descriptions are fetched only for the rows JList actually paints
+     */
+    private static class ResultListModel extends AbstractListModel<String> {
+        private final FoodNameIndex index;
+        private int[] rows = new int[0];
+
+        ResultListModel(FoodNameIndex index) {
+            this.index = index;
+        }
+
+        void setRows(int[] newRows) {
+            int oldSize = rows.length;
+            rows = new int[0];
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
             }
+            rows = newRows;
+            if (newRows.length > 0) {
+                fireIntervalAdded(this, 0, newRows.length - 1);
+            }
+        }
+
+        Long getFoodIdAt(int position) {
+            return position >= 0 && position < rows.length ? index.idAt(rows[position]) : null;
+        }
+
+        @Override
+        public int getSize() {
+            return rows.length;
+        }
+
+        @Override
+        public String getElementAt(int position) {
+            return index.nameAt(rows[position]);
         }
-        return null;
     }
 }
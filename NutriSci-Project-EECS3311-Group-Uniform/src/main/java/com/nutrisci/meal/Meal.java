@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.nutrisci.calculator.NutrientAccumulator;
 import com.nutrisci.calculator.NutritionalData;
 
 // Abstract class for a Meal (breakfast, lunch, dinner, snack)
@@ -27,10 +28,18 @@ public abstract class Meal {
 
     // Adds a food item to the meal
     public void addFoodItem(FoodItem item) {
-        // item.adjustForQuantity(quantity);
         foodItems.add(item);
     }
 
+    /**
+     * Adds a portion of a food item to the meal
+     * @param item The food item
+     * @param grams Portion weight in grams
+     */
+    public void addFoodItem(FoodItem item, double grams) {
+        foodItems.add(item.adjustForQuantity(grams));
+    }
+
     // Removes a food item from the meal
     public void removeFoodItem(FoodItem item) {
         for (FoodItem foodItem : foodItems) {
@@ -56,10 +65,10 @@ public abstract class Meal {
         if (newQuantity <= 0) {
             return false;
         }
-        // Check if the food item is in the meal
-        for (FoodItem foodItem : foodItems) {
-            if (foodItem.equals(item)) {
-                foodItem.adjustForQuantity(newQuantity);
+        // Check if the food item is in the meal and replace it with the new portion
+        for (int i = 0; i < foodItems.size(); i++) {
+            if (foodItems.get(i).equals(item)) {
+                foodItems.set(i, item.adjustForQuantity(newQuantity));
                 return true;
             }
         }
@@ -71,29 +80,12 @@ public abstract class Meal {
      * @return the total nutrition of the meal
      */
     public NutritionalData calculateTotalNutrition() {
-        double totalCalories = 0;
-        double totalProtein = 0;
-        double totalCarbs = 0;
-        double totalFat = 0;
-        double totalFiber = 0;
-
-        for (FoodItem foodItem : foodItems) {
-            totalCalories += foodItem.getNutrientValue("calories");
-            totalProtein += foodItem.getNutrientValue("protein");
-            totalCarbs += foodItem.getNutrientValue("carbs");
-            totalFat += foodItem.getNutrientValue("fat");
-            totalFiber += foodItem.getNutrientValue("fiber");
-        }
-        return new NutritionalData(totalCalories, totalProtein, totalCarbs, totalFat, totalFiber);
+        return new NutrientAccumulator().addAll(foodItems).toNutritionalData();
     }
 
     // Returns the total calories of the meal
     public double getTotalCalories() {
-        double totalCalories = 0;
-        for (FoodItem foodItem : foodItems) {
-            totalCalories += foodItem.getNutrientValue("calories");
-        }
-        return totalCalories;
+        return new NutrientAccumulator().addAll(foodItems).getCalories();
     }
 
     // Returns the number of food items in the meal
@@ -117,6 +109,22 @@ public abstract class Meal {
         return id;
     }
 
+    /**
+     * Get the date the meal is logged for
+     * @return The entry date, or null if not set
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Set the date the meal is logged for
+     * @param date The entry date
+     */
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
     /**
      * Get the meal creation date
      * @return The creation date of the meal
@@ -29,6 +29,12 @@ public class MealBuilder {
         return this;
     }
 
+    // Adds a portion (in grams) of a food item to the meal
+    public MealBuilder addFoodItem(FoodItem item, double grams) {
+        mealBeingBuilt.addFoodItem(item, grams);
+        return this;
+    }
+
     // Removes a food item from the meal
     public MealBuilder removeFoodItem(FoodItem item) {
         mealBeingBuilt.removeFoodItem(item);
@@ -16,6 +16,7 @@ public class MealFactory {
         Meal meal = selectMealType(type);
         if (meal.canAddToDate(date)) {
             meal.setId(id);
+            meal.setDate(date);
             return meal;
         }
         return null;
@@ -8,13 +8,21 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import com.nutrisci.catalog.ServingMeasureTable.Measure;
 import com.nutrisci.service.FoodSwapService;
+import com.nutrisci.service.MealPlanGenerator;
+import com.nutrisci.service.MealPlanService;
 import com.nutrisci.model.Goal;
 import com.nutrisci.model.User;
+import com.nutrisci.util.SwingBackgroundLoader;
 import com.nutrisci.util.UserSessionManager;
 
 /**
- * The Meal logging panel
+ * The Meal logging panel.
+ * Database reads and writes run on a SwingBackgroundLoader so the EDT never
+ * waits on the network; labels show a loading placeholder until their data
+ * arrives.
  */
 public class MealLoggerPanel extends JPanel {
     private JComboBox<MealType> mealTypeComboBox;
@@ -26,6 +34,7 @@ public class MealLoggerPanel extends JPanel {
     private JButton compareMealButton;
     private JButton calculateButton;
     private JButton foodSwapButton;
+    private JButton mealPlanButton;
 
     private final Map<Long, String> listOfFoodNames;
     private Map<Long, String> foodNames;
@@ -42,6 +51,17 @@ public class MealLoggerPanel extends JPanel {
 
     private MealManager mealManager;
     private FoodSwapService foodSwapService;
+    private MealPlanService mealPlanService;
+    private final SwingBackgroundLoader loader = new SwingBackgroundLoader();
+    private boolean foodNamesLoaded;
+
+    // Loader keys; every per-food and per-panel load starts with FOOD_KEY or PANEL_KEY
+    private static final String FOOD_KEY = "food:";
+    // Suffix of a food label's key for loading its household measures
+    private static final String PORTIONS_KEY = ":portions";
+    private static final String PANEL_KEY = "panel:";
+    private static final String MEAL_TYPES_KEY = "mealTypes";
+    private static final String LOADING_TEXT = " (loading...)";
 
     /**
      * Set up the MealLogger panel
@@ -49,26 +69,22 @@ public class MealLoggerPanel extends JPanel {
     public MealLoggerPanel() {
         mealManager = new MealManager();
         foodSwapService = new FoodSwapService();
+        mealPlanService = new MealPlanService();
 
         setLayout(new BorderLayout(10, 10));
-        listOfFoodNames = fetchFoodNames();
-        foodNames = new HashMap<>(listOfFoodNames);
+        // Filled in by loadFoodNames once the background load finishes
+        listOfFoodNames = new HashMap<>();
+        foodNames = new HashMap<>();
         selectedFoodNames = new HashMap<>();
-        comparedFoodNames = new HashMap<>(listOfFoodNames);
+        comparedFoodNames = new HashMap<>();
         comparedSelectedFoodNames = new HashMap<>();
 
         // Top panel for meal type
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         topPanel.add(new JLabel("Meal Type:"));
-        List<MealType> exitingMealTypes = mealManager.getAvailableMealTypes(LocalDate.now());
 
-        mealTypeComboBox = new JComboBox<>();
-
-        for (MealType type : MealType.values()) {
-            if (!exitingMealTypes.contains(type) || type.equals(MealType.SNACK)) {
-                mealTypeComboBox.addItem(type);
-            }
-        }
+        // Every type is offered until the types already logged today are known
+        mealTypeComboBox = new JComboBox<>(MealType.values());
         
         MealType mealType = mealTypeComboBox.getItemAt(0);
         meal1 = new MealBuilder().setMealType(mealType);
@@ -77,29 +93,10 @@ public class MealLoggerPanel extends JPanel {
         // Add listener for meal type changes
         mealTypeComboBox.addItemListener(e -> {
             if (e.getStateChange() == java.awt.event.ItemEvent.SELECTED) {
-                MealType type = (MealType) e.getItem();
-                MealBuilder newBuilder1 = new MealBuilder().setMealType(type);
-
-                if (meal1.mealBeingBuilt != null) {
-                    for (FoodItem item : meal1.mealBeingBuilt.getFoodItems()) {
-                        // Use the current servingSize as the quantity
-                        FoodItem newItem = new FoodItem(item.getId(), item.description, item.nutrients, item.foodGroup);
-                        newBuilder1.addFoodItem(newItem);
-                    }
-                    meal1 = newBuilder1;
-                }
-
-                MealBuilder newBuilder2 = new MealBuilder().setMealType(type);
-                if (meal2.mealBeingBuilt != null) {
-                    for (FoodItem item : meal2.mealBeingBuilt.getFoodItems()) {
-                        // Use the current servingSize as the quantity
-                        FoodItem newItem = new FoodItem(item.getId(), item.description, item.nutrients, item.foodGroup);
-                        newBuilder2.addFoodItem(newItem);
-                    }
-                    meal2 = newBuilder2;
-                }
+                changeMealType((MealType) e.getItem());
             }
         });
+        loadMealTypes(mealTypeComboBox);
 
         topPanel.add(mealTypeComboBox);
         add(topPanel, BorderLayout.NORTH);
@@ -125,6 +122,9 @@ public class MealLoggerPanel extends JPanel {
         foodSwapButton = new JButton("Food Swap");
         foodSwapButton.addActionListener(e -> suggestFoodSwap());
 
+        mealPlanButton = new JButton("Plan My Day");
+        mealPlanButton.addActionListener(e -> suggestMealPlan());
+
         importButton = new JButton("Import Meal");
         importButton.addActionListener(e -> importMeal(foodItemsPanel, foodNames, selectedFoodNames));
 
@@ -133,11 +133,115 @@ public class MealLoggerPanel extends JPanel {
         bottomPanel.add(calculateButton);
         bottomPanel.add(compareMealButton);
         bottomPanel.add(foodSwapButton);
+        bottomPanel.add(mealPlanButton);
         bottomPanel.add(logMealButton);
 
         add(bottomPanel, BorderLayout.SOUTH);
 
         compareMealButton.addActionListener(e -> showComparePanels());
+        loadFoodNames();
+    }
+
+    /**
+     * Rebuild both meals as the given meal type, keeping their food items
+     * @param type The new meal type
+     */
+    private void changeMealType(MealType type) {
+        MealBuilder newBuilder1 = new MealBuilder().setMealType(type);
+
+        if (meal1.mealBeingBuilt != null) {
+            for (FoodItem item : meal1.mealBeingBuilt.getFoodItems()) {
+                // The item keeps the portion it was picked with
+                newBuilder1.addFoodItem(item);
+            }
+            meal1 = newBuilder1;
+        }
+
+        MealBuilder newBuilder2 = new MealBuilder().setMealType(type);
+        if (meal2.mealBeingBuilt != null) {
+            for (FoodItem item : meal2.mealBeingBuilt.getFoodItems()) {
+                // The item keeps the portion it was picked with
+                newBuilder2.addFoodItem(item);
+            }
+            meal2 = newBuilder2;
+        }
+    }
+
+    /**
+     * Load the meal types already logged today in the background and narrow the choices
+     * @param comboBox The meal type combo box to fill
+     */
+    private void loadMealTypes(JComboBox<MealType> comboBox) {
+        loader.load(MEAL_TYPES_KEY, LocalDate.now(), () -> mealManager.getAvailableMealTypes(LocalDate.now()), exitingMealTypes -> {
+            if (comboBox != mealTypeComboBox) {
+                return;
+            }
+            comboBox.removeAllItems();
+            for (MealType type : MealType.values()) {
+                if (!exitingMealTypes.contains(type) || type.equals(MealType.SNACK)) {
+                    comboBox.addItem(type);
+                }
+            }
+            changeMealType(comboBox.getItemAt(0));
+        }, null);
+    }
+
+    /**
+     * Load the food names in the background; adding and importing food wait until they arrive.
+     * This runs on the async database pool, at the same time as the meal types load.
+     */
+    private void loadFoodNames() {
+        addFoodItemButton.setEnabled(false);
+        importButton.setEnabled(false);
+        addFoodItemButton.setToolTipText("Loading foods...");
+
+        loader.loadAsync("foodNames", null, this::fetchFoodNames, names -> {
+            if (names != null) {
+                listOfFoodNames.putAll(names);
+                foodNames.putAll(names);
+                comparedFoodNames.putAll(names);
+                foodNames.keySet().removeAll(selectedFoodNames.keySet());
+                comparedFoodNames.keySet().removeAll(comparedSelectedFoodNames.keySet());
+            }
+            foodNamesLoaded = true;
+            addFoodItemButton.setEnabled(true);
+            importButton.setEnabled(true);
+            addFoodItemButton.setToolTipText(null);
+        }, null);
+    }
+
+    /**
+     * Tell the user to wait if the food list or any selected food is still loading
+     * @return true if something is still loading, otherwise false
+     */
+    private boolean stillLoading() {
+        if (!foodNamesLoaded || loader.isLoading(FOOD_KEY) || loader.isLoading(PANEL_KEY)) {
+            JOptionPane.showMessageDialog(this,
+                "Food items are still loading, please try again in a moment.",
+                "Loading",
+                JOptionPane.INFORMATION_MESSAGE);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Key for loads that fill in one panel, such as importing a meal into it
+     */
+    private static String panelKey(String task, JPanel panel) {
+        return PANEL_KEY + task + ":" + System.identityHashCode(panel);
+    }
+
+    /**
+     * Save a meal in the background
+     * @param meal The meal to save
+     */
+    private void saveMeal(Meal meal) {
+        loader.execute(() -> mealManager.addMeal(meal), saved -> {
+            if (!saved) {
+                JOptionPane.showMessageDialog(this, "The meal could not be saved.", "Unable to add Meal", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
 
     /**
@@ -145,6 +249,9 @@ public class MealLoggerPanel extends JPanel {
      * @param compare Check if comparing two meals
      */
     private void calculateMealNutrition(boolean compare) {
+        if (stillLoading()) {
+            return;
+        }
         if (!compare) {
             CalculateNutritionDialog dialog = new CalculateNutritionDialog((Frame) SwingUtilities.getWindowAncestor(this), selectedFoodNames);
             dialog.showDialog();
@@ -161,23 +268,33 @@ public class MealLoggerPanel extends JPanel {
      * @param selectedFoodNamesForPanel List of selected food items
      */
     private void importMeal(JPanel panel, Map<Long, String> foodNamesForPanel, Map<Long, FoodItem> selectedFoodNamesForPanel) {
+        if (!foodNamesLoaded && stillLoading()) {
+            return;
+        }
         MealImportDialog dialog = new MealImportDialog((Frame) SwingUtilities.getWindowAncestor(this));
         Long id = dialog.showDialog();
 
         if (id != null) {
-            List<Long> foodIds = mealManager.importMeal(id);
+            // Show a placeholder while the meal and all of its foods load in one batch
+            panel.removeAll();
+            panel.add(new JLabel("Loading meal..."));
+            panel.revalidate();
+            panel.repaint();
 
-            selectedFoodNamesForPanel.clear();
-            foodNamesForPanel.clear();
-            foodNamesForPanel.putAll(listOfFoodNames);
+            loader.load(panelKey("import", panel), id, () -> mealManager.importMealItems(id), items -> {
+                selectedFoodNamesForPanel.clear();
+                foodNamesForPanel.clear();
+                foodNamesForPanel.putAll(listOfFoodNames);
 
-            panel.removeAll();
+                panel.removeAll();
 
-            for (long foodId : foodIds) {
-                String foodName = foodNamesForPanel.get(foodId);
-                System.out.println(foodName);
-                addFoodItemLabelToPanel(panel, foodId, foodName, foodNamesForPanel, selectedFoodNamesForPanel);
-            }
+                // Each food comes back in the portion it was logged with
+                for (FoodItem item : items) {
+                    addFoodItemLabelToPanel(panel, item.getId(), item.getDescription(), item, foodNamesForPanel, selectedFoodNamesForPanel);
+                }
+                panel.revalidate();
+                panel.repaint();
+            }, null);
         }
     }
 
@@ -185,6 +302,9 @@ public class MealLoggerPanel extends JPanel {
      * Log the meal to the database
      */
     private void logMeal() {
+        if (stillLoading()) {
+            return;
+        }
         if (comparedSelectedFoodNames.size() <= 0 && selectedFoodNames.size() <= 0) {
             JDialog dialog = new JDialog((Frame) null, "Unable to add Meal", true);
             dialog.setSize(300, 100);
@@ -202,14 +322,14 @@ public class MealLoggerPanel extends JPanel {
             meal1.setFoodItems(foodItems);
             System.out.println(meal1.mealBeingBuilt.foodItems);
         
-            mealManager.addMeal(meal1.build());
+            saveMeal(meal1.build());
 
         } else if (selectedFoodNames.size() <= 0) {
             List<FoodItem> foodItems = new ArrayList<>(comparedSelectedFoodNames.values());
             meal2.setFoodItems(foodItems);
             System.out.println(meal2.mealBeingBuilt.foodItems);
 
-            mealManager.addMeal(meal2.build());
+            saveMeal(meal2.build());
 
         } else {
             openMealSelectionDialog();
@@ -222,6 +342,10 @@ public class MealLoggerPanel extends JPanel {
      * Reset panel to default state
      */
     private void resetPanel() {
+        // Loads for the labels being removed are no longer wanted; saves still run
+        loader.cancelAll(FOOD_KEY);
+        loader.cancelAll(PANEL_KEY);
+
         meal1 = new MealBuilder().setMealType(MealType.SNACK);
         meal1.clearFoodItems();
 
@@ -241,15 +365,9 @@ public class MealLoggerPanel extends JPanel {
 
         this.removeAll(); // Remove all current components
 
-        List<MealType> exitingMealTypes = mealManager.getAvailableMealTypes(LocalDate.now());
-
-        mealTypeComboBox = new JComboBox<>();
-
-        for (MealType type : MealType.values()) {
-            if (!exitingMealTypes.contains(type) || type.equals(MealType.SNACK)) {
-                mealTypeComboBox.addItem(type);
-            }
-        }
+        // Runs after any save queued before it, so today's new meal is counted
+        mealTypeComboBox = new JComboBox<>(MealType.values());
+        loadMealTypes(mealTypeComboBox);
 
         MealType mealType = mealTypeComboBox.getItemAt(0);
         meal1 = new MealBuilder().setMealType(mealType);
@@ -279,6 +397,7 @@ public class MealLoggerPanel extends JPanel {
         bottomPanel.add(calculateButton);
         bottomPanel.add(compareMealButton);
         bottomPanel.add(foodSwapButton);
+        bottomPanel.add(mealPlanButton);
         bottomPanel.add(logMealButton);
         this.add(bottomPanel, BorderLayout.SOUTH);
 
@@ -305,14 +424,14 @@ public class MealLoggerPanel extends JPanel {
         meal1Button.addActionListener(e -> {
             List<FoodItem> foodItems = new ArrayList<>(selectedFoodNames.values());
             meal1.setFoodItems(foodItems);
-            mealManager.addMeal(meal1.build());
+            saveMeal(meal1.build());
             dialog.dispose();
         });
     
         meal2Button.addActionListener(e -> {
             List<FoodItem> foodItems = new ArrayList<>(comparedSelectedFoodNames.values());
             meal2.setFoodItems(foodItems);
-            mealManager.addMeal(meal2.build());
+            saveMeal(meal2.build());
             dialog.dispose();
         });
     
@@ -329,13 +448,11 @@ public class MealLoggerPanel extends JPanel {
      * Fetch the list of food names from the database
      * @return The Map of food id and their food name
      */
-    private Map<Long, String> fetchFoodNames() {
-        try {
-            return mealManager.getFoodItems();
-        } catch (Exception e) {
+    private CompletableFuture<Map<Long, String>> fetchFoodNames() {
+        return mealManager.getFoodItemsAsync().exceptionally(e -> {
             System.err.println("Error getting food items.");
             return null;
-        }
+        });
     }
 
     /**
@@ -437,14 +554,14 @@ public class MealLoggerPanel extends JPanel {
      * @param selectedFoodNamesForPanel List of selected food items
      */
     private void addFoodItemSelectorToPanel(JPanel panel, Map<Long, String> foodNamesForPanel, Map<Long, FoodItem> selectedFoodNamesForPanel) {
+        if (!foodNamesLoaded && stillLoading()) {
+            return;
+        }
         FoodSearchDialog dialog = new FoodSearchDialog((Frame) SwingUtilities.getWindowAncestor(this), foodNamesForPanel);
         Long id = dialog.showDialog();
         String selectedFood = foodNamesForPanel.get(id);
         if (id != null) {
-            addFoodItemLabelToPanel(panel, id, selectedFood, foodNamesForPanel, selectedFoodNamesForPanel);
-            foodNamesForPanel.remove(id);
-            FoodItem selectedFoodItem = mealManager.loadFoodItem(id);
-            selectedFoodNamesForPanel.put(id, selectedFoodItem);
+            addFoodItemLabelToPanel(panel, id, selectedFood, null, foodNamesForPanel, selectedFoodNamesForPanel);
         }
     }
 
@@ -453,20 +570,38 @@ public class MealLoggerPanel extends JPanel {
      * @param panel The panel to add the food item
      * @param id The id of the food name
      * @param foodName The food name
+     * @param loadedItem The food item if it is already loaded, otherwise null to load it in the background
      * @param foodNamesForPanel List of available food items
      * @param selectedFoodNamesForPanel List of selected food items
      */
-    private void addFoodItemLabelToPanel(JPanel panel, Long id, String foodName, Map<Long, String> foodNamesForPanel, Map<Long, FoodItem> selectedFoodNamesForPanel) {
+    private void addFoodItemLabelToPanel(JPanel panel, Long id, String foodName, FoodItem loadedItem, Map<Long, String> foodNamesForPanel, Map<Long, FoodItem> selectedFoodNamesForPanel) {
         JPanel itemPanel = new JPanel(new BorderLayout());
         JLabel foodLabel = new JLabel(foodName);
         foodLabel.setName(id.toString());
+        JComboBox<Measure> portionBox = new JComboBox<>();
         JButton editButton = new JButton("Edit");
         JButton removeButton = new JButton("X");
+        // One key per label, so picking another food drops the load of the previous pick
+        String loadKey = FOOD_KEY + System.identityHashCode(foodLabel);
 
-        FoodItem selectedFoodItem = mealManager.loadFoodItem(id);
-        selectedFoodNamesForPanel.put(id, selectedFoodItem);
+        if (loadedItem != null) {
+            selectedFoodNamesForPanel.put(id, loadedItem);
+            loadPortionsInto(loadKey, portionBox, id, loadedItem.getGrams());
+        } else {
+            loadFoodItemInto(loadKey, foodLabel, portionBox, id, foodName, selectedFoodNamesForPanel);
+        }
         foodNamesForPanel.remove(id);
 
+        // Log the food in the chosen portion; before it has loaded, the load applies the choice
+        portionBox.addActionListener(e -> {
+            Measure portion = (Measure) portionBox.getSelectedItem();
+            Long currentId = Long.parseLong(foodLabel.getName());
+            FoodItem item = selectedFoodNamesForPanel.get(currentId);
+            if (portion != null && item != null) {
+                selectedFoodNamesForPanel.put(currentId, item.adjustForQuantity(portion.getGrams()));
+            }
+        });
+
         editButton.addActionListener(e -> {
             FoodSearchDialog dialog = new FoodSearchDialog((Frame) SwingUtilities.getWindowAncestor(this), foodNamesForPanel);
             Long newId = dialog.showDialog();
@@ -477,18 +612,18 @@ public class MealLoggerPanel extends JPanel {
                 Long oldId = Long.parseLong(foodLabel.getName());
 
                 selectedFoodNamesForPanel.remove(oldId);
-                foodNamesForPanel.put(oldId, oldFood);
+                foodNamesForPanel.put(oldId, oldFood.replace(LOADING_TEXT, ""));
 
-                FoodItem newFoodItem = mealManager.loadFoodItem(id);
-                selectedFoodNamesForPanel.put(newId, newFoodItem);
+                foodLabel.setName(newId.toString());
+                loadFoodItemInto(loadKey, foodLabel, portionBox, newId, newFood, selectedFoodNamesForPanel);
                 foodNamesForPanel.remove(newId);
-
-                foodLabel.setText(newFood);
             }
         });
         
         removeButton.addActionListener(e -> {
-            String foodItem = (String) foodLabel.getText();
+            loader.cancel(loadKey);
+            loader.cancel(loadKey + PORTIONS_KEY);
+            String foodItem = foodLabel.getText().replace(LOADING_TEXT, "");
             Long oldId = Long.parseLong(foodLabel.getName());
             selectedFoodNamesForPanel.remove(oldId);
             foodNamesForPanel.put(oldId, foodItem);
@@ -498,6 +633,8 @@ public class MealLoggerPanel extends JPanel {
         });
 
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        buttonPanel.add(portionBox);
+        buttonPanel.add(Box.createRigidArea(new Dimension(8, 2)));
         buttonPanel.add(editButton);
         buttonPanel.add(Box.createRigidArea(new Dimension(8, 2)));
         buttonPanel.add(removeButton);
@@ -510,6 +647,51 @@ public class MealLoggerPanel extends JPanel {
         panel.repaint();
     }
 
+    /**
+     * Load a food item in the background, showing a placeholder on its label until it arrives
+     * @param loadKey The label's loader key
+     * @param foodLabel The label showing the food
+     * @param portionBox The food's portion choices, reset to 100 g and refilled for the food
+     * @param id The food id
+     * @param foodName The food name
+     * @param selectedFoodNamesForPanel List of selected food items, filled in when loaded
+     */
+    private void loadFoodItemInto(String loadKey, JLabel foodLabel, JComboBox<Measure> portionBox, Long id, String foodName, Map<Long, FoodItem> selectedFoodNamesForPanel) {
+        foodLabel.setText(foodName + LOADING_TEXT);
+        loadPortionsInto(loadKey, portionBox, id, 100);
+        loader.load(loadKey, id, () -> mealManager.loadFoodItem(id), item -> {
+            if (item != null) {
+                Measure portion = (Measure) portionBox.getSelectedItem();
+                selectedFoodNamesForPanel.put(id, portion != null ? item.adjustForQuantity(portion.getGrams()) : item);
+            }
+            foodLabel.setText(foodName);
+        }, error -> {
+            System.err.println("Error loading food item " + id + ": " + error.getMessage());
+            foodLabel.setText(foodName + " (not loaded)");
+        });
+    }
+
+    /**
+     * Fill a food's portion choices: its current weight first, then the CNF
+     * household measures once they are loaded in the background
+     * @param loadKey The label's loader key
+     * @param portionBox The combo box to fill
+     * @param id The food id
+     * @param grams The portion currently chosen
+     */
+    private void loadPortionsInto(String loadKey, JComboBox<Measure> portionBox, Long id, double grams) {
+        portionBox.removeAllItems();
+        portionBox.addItem(Measure.ofGrams(grams));
+        if (grams != 100) {
+            portionBox.addItem(Measure.ofGrams(100));
+        }
+        loader.load(loadKey + PORTIONS_KEY, id, () -> mealManager.getServingMeasures(id), measures -> {
+            for (Measure measure : measures) {
+                portionBox.addItem(measure);
+            }
+        }, error -> System.err.println("Error loading measures for food " + id + ": " + error.getMessage()));
+    }
+
     // After adding a meal, update goal progress
     private void afterMealAdded() {
         // TODO: Call updateGoalProgress() or similar logic
@@ -518,127 +700,64 @@ public class MealLoggerPanel extends JPanel {
     }
     
     /**
-     * Suggest a food swap based on user's goal
+     * Suggest a day of meals for the user's goal (or the default targets without one)
      */
-    private void suggestFoodSwap() {
-        if (selectedFoodNames.isEmpty()) {
-            JOptionPane.showMessageDialog(this, 
-                "Please add at least one food item before requesting a swap suggestion.", 
-                "No Food Items", 
-                JOptionPane.INFORMATION_MESSAGE);
+    private void suggestMealPlan() {
+        if (stillLoading()) {
             return;
         }
-        
-        // Get the current user's goal from the session
         User currentUser = UserSessionManager.getInstance().getCurrentUser();
-        if (currentUser == null || currentUser.getGoal() == null) {
-            JOptionPane.showMessageDialog(this, 
-                "Please set a goal first before requesting food swap suggestions.", 
-                "No Goal Set", 
-                JOptionPane.INFORMATION_MESSAGE);
-            return;
-        }
-        
-        Goal userGoal = currentUser.getGoal();
-        List<FoodItem> currentFoodItems = new ArrayList<>(selectedFoodNames.values());
-        FoodSwapService.FoodSwapSuggestion suggestion = foodSwapService.suggestSwap(currentFoodItems, userGoal);
-        
-        if (suggestion == null) {
-            JOptionPane.showMessageDialog(this, 
-                "No suitable swap suggestions found for your current meal.", 
-                "No Suggestions", 
-                JOptionPane.INFORMATION_MESSAGE);
-            return;
-        }
-        
-        // Show swap suggestion dialog
-        showSwapSuggestionDialog(suggestion);
-    }
-    
-    /**
-     * Show dialog with swap suggestion
-     * helped by AI
-     */
-    private void showSwapSuggestionDialog(FoodSwapService.FoodSwapSuggestion suggestion) {
-        String message = String.format(
-            "Swap Suggestion:\n\n" +
-            "Replace: %s\n" +
-            "With: %s\n\n" +
-            "%s\n\n" +
-            "Would you like to apply this swap?",
-            suggestion.getOriginalItem().getDescription(),
-            suggestion.getReplacementItem().getDescription(),
-            suggestion.getImprovementDescription()
-        );
-        
-        int choice = JOptionPane.showConfirmDialog(this, 
-            message, 
-            "Food Swap Suggestion", 
-            JOptionPane.YES_NO_OPTION,
-            JOptionPane.QUESTION_MESSAGE);
-        
-        if (choice == JOptionPane.YES_OPTION) {
-            applySwap(suggestion);
-        }
+        Goal userGoal = currentUser != null ? currentUser.getGoal() : null;
+        LocalDate today = LocalDate.now();
+
+        loader.load(panelKey("plan", foodItemsPanel), userGoal, () -> mealPlanService.suggestDay(userGoal, today), plan -> {
+            if (plan.getMeals().isEmpty()) {
+                JOptionPane.showMessageDialog(this,
+                    "No foods are available to plan meals with.",
+                    "No Meal Plan",
+                    JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            showMealPlanDialog(plan);
+        }, null);
     }
-    
+
     /**
-     * Apply the suggested swap
-     * helped by AI
+     * Show a planned day, one line per food with its portion
      */
-    private void applySwap(FoodSwapService.FoodSwapSuggestion suggestion) {
-        FoodItem originalItem = suggestion.getOriginalItem();
-        FoodItem replacementItem = suggestion.getReplacementItem();
-        
-        // Find and remove the original item
-        Long originalId = null;
-        for (Map.Entry<Long, FoodItem> entry : selectedFoodNames.entrySet()) {
-            if (entry.getValue().getDescription().equals(originalItem.getDescription())) {
-                originalId = entry.getKey();
-                break;
+    private void showMealPlanDialog(MealPlanGenerator.DayPlan plan) {
+        StringBuilder message = new StringBuilder("Suggested meals for today:\n");
+        for (MealPlanGenerator.PlannedMeal meal : plan.getMeals()) {
+            message.append("\n").append(meal.getMealType()).append(":\n");
+            long[] foodIds = meal.getFoodIds();
+            double[] grams = meal.getGrams();
+            for (int i = 0; i < foodIds.length; i++) {
+                message.append(String.format("  %.0f g  %s%n", grams[i], listOfFoodNames.getOrDefault(foodIds[i], "Food " + foodIds[i])));
             }
         }
-        
-        if (originalId != null) {
-            // Remove original item
-            selectedFoodNames.remove(originalId);
-            foodNames.put(originalId, originalItem.getDescription());
-            
-            // Add replacement item
-            Long replacementId = replacementItem.getId();
-            selectedFoodNames.put(replacementId, replacementItem);
-            foodNames.remove(replacementId);
-            
-            // Update the UI
-            refreshFoodItemsPanel();
-            
-            JOptionPane.showMessageDialog(this, 
-                "Swap applied successfully!", 
-                "Swap Complete", 
-                JOptionPane.INFORMATION_MESSAGE);
-        }
+        message.append(String.format("%nTotal: %.0f kcal, %.1f g protein, %.1f g fibre%n",
+            plan.getCalories(), plan.getProtein(), plan.getFibre()));
+        message.append(String.format("Targets: %.0f kcal, %.1f g protein, %.1f g fibre",
+            plan.getTargets().getCalories(), plan.getTargets().getProtein(), plan.getTargets().getFibre()));
+
+        JOptionPane.showMessageDialog(this, message.toString(), "Meal Plan", JOptionPane.INFORMATION_MESSAGE);
     }
-    
+
     /**
-     * Refresh the food items panel after a swap
+     * Suggest food swaps based on user's goal
      */
-    private void refreshFoodItemsPanel() {
-        foodItemsPanel.removeAll();
-        
-        for (Map.Entry<Long, FoodItem> entry : selectedFoodNames.entrySet()) {
-            Long id = entry.getKey();
-            FoodItem item = entry.getValue();
-            addFoodItemLabelToPanel(foodItemsPanel, id, item.getDescription(), foodNames, selectedFoodNames);
-        }
-        
-        foodItemsPanel.revalidate();
-        foodItemsPanel.repaint();
+    private void suggestFoodSwap() {
+        suggestFoodSwapForPanel(foodItemsPanel, foodNames, selectedFoodNames);
     }
-    
+
     /**
-     * Suggest food swap for a specific panel (used in compare mode)
+     * Suggest the set of swaps across a panel's meal that reaches the user's goal
+     * (also used in compare mode)
      */
     private void suggestFoodSwapForPanel(JPanel panel, Map<Long, String> foodNamesForPanel, Map<Long, FoodItem> selectedFoodNamesForPanel) {
+        if (stillLoading()) {
+            return;
+        }
         if (selectedFoodNamesForPanel.isEmpty()) {
             JOptionPane.showMessageDialog(this, 
                 "Please add at least one food item before requesting a swap suggestion.", 
@@ -659,100 +778,105 @@ public class MealLoggerPanel extends JPanel {
         
         Goal userGoal = currentUser.getGoal();
         List<FoodItem> currentFoodItems = new ArrayList<>(selectedFoodNamesForPanel.values());
-        FoodSwapService.FoodSwapSuggestion suggestion = foodSwapService.suggestSwap(currentFoodItems, userGoal);
-        
-        if (suggestion == null) {
-            JOptionPane.showMessageDialog(this, 
-                "No suitable swap suggestions found for your current meal.", 
-                "No Suggestions", 
-                JOptionPane.INFORMATION_MESSAGE);
-            return;
-        }
-        
-        // Show swap suggestion dialog for this panel
-        showSwapSuggestionDialogForPanel(suggestion, panel, foodNamesForPanel, selectedFoodNamesForPanel);
+        loader.load(panelKey("swap", panel), currentFoodItems,
+                    () -> foodSwapService.suggestMealSwaps(currentFoodItems, userGoal, FoodSwapService.MEAL_SWAP_BUDGET_MILLIS),
+                    suggestions -> {
+            if (suggestions.isEmpty()) {
+                JOptionPane.showMessageDialog(this, 
+                    "No suitable swap suggestions found for your current meal.", 
+                    "No Suggestions", 
+                    JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            
+            showSwapSuggestionDialog(suggestions, panel, foodNamesForPanel, selectedFoodNamesForPanel);
+        }, null);
     }
     
     /**
-     * Show swap suggestion dialog for a specific panel
+     * Show dialog with the suggested swaps for a panel
+     * helped by AI
      */
-    private void showSwapSuggestionDialogForPanel(FoodSwapService.FoodSwapSuggestion suggestion, 
-                                                 JPanel panel, 
-                                                 Map<Long, String> foodNamesForPanel, 
-                                                 Map<Long, FoodItem> selectedFoodNamesForPanel) {
-        String message = String.format(
-            "Swap Suggestion:\n\n" +
-            "Replace: %s\n" +
-            "With: %s\n\n" +
-            "%s\n\n" +
-            "Would you like to apply this swap?",
-            suggestion.getOriginalItem().getDescription(),
-            suggestion.getReplacementItem().getDescription(),
-            suggestion.getImprovementDescription()
-        );
+    private void showSwapSuggestionDialog(List<FoodSwapService.FoodSwapSuggestion> suggestions, 
+                                          JPanel panel, 
+                                          Map<Long, String> foodNamesForPanel, 
+                                          Map<Long, FoodItem> selectedFoodNamesForPanel) {
+        StringBuilder message = new StringBuilder("Swap Suggestions:\n\n");
+        for (FoodSwapService.FoodSwapSuggestion suggestion : suggestions) {
+            message.append(String.format(
+                "Replace: %s\n" +
+                "With: %s\n" +
+                "%s\n\n",
+                suggestion.getOriginalItem().getDescription(),
+                suggestion.getReplacementItem().getDescription(),
+                suggestion.getImprovementDescription()
+            ));
+        }
+        message.append(suggestions.size() == 1 ? "Would you like to apply this swap?" : "Would you like to apply these swaps?");
         
         int choice = JOptionPane.showConfirmDialog(this, 
-            message, 
+            message.toString(), 
             "Food Swap Suggestion", 
             JOptionPane.YES_NO_OPTION,
             JOptionPane.QUESTION_MESSAGE);
         
         if (choice == JOptionPane.YES_OPTION) {
-            applySwapForPanel(suggestion, panel, foodNamesForPanel, selectedFoodNamesForPanel);
+            applySwaps(suggestions, panel, foodNamesForPanel, selectedFoodNamesForPanel);
         }
     }
     
     /**
-     * Apply swap for a specific panel
+     * Apply every suggested swap to a panel. Each replacement keeps the portion
+     * of the food it replaces; a swap whose food was removed meanwhile, or whose
+     * replacement is already in the meal, is skipped.
      */
-    private void applySwapForPanel(FoodSwapService.FoodSwapSuggestion suggestion, 
-                                  JPanel panel, 
-                                  Map<Long, String> foodNamesForPanel, 
-                                  Map<Long, FoodItem> selectedFoodNamesForPanel) {
-        FoodItem originalItem = suggestion.getOriginalItem();
-        FoodItem replacementItem = suggestion.getReplacementItem();
-        
-        // Find and remove the original item
-        Long originalId = null;
-        for (Map.Entry<Long, FoodItem> entry : selectedFoodNamesForPanel.entrySet()) {
-            if (entry.getValue().getDescription().equals(originalItem.getDescription())) {
-                originalId = entry.getKey();
-                break;
+    private void applySwaps(List<FoodSwapService.FoodSwapSuggestion> suggestions, 
+                            JPanel panel, 
+                            Map<Long, String> foodNamesForPanel, 
+                            Map<Long, FoodItem> selectedFoodNamesForPanel) {
+        int applied = 0;
+        for (FoodSwapService.FoodSwapSuggestion suggestion : suggestions) {
+            FoodItem originalItem = suggestion.getOriginalItem();
+            FoodItem replacementItem = suggestion.getReplacementItem();
+            Long originalId = originalItem.getId();
+            Long replacementId = replacementItem.getId();
+            if (!selectedFoodNamesForPanel.containsKey(originalId) || selectedFoodNamesForPanel.containsKey(replacementId)) {
+                continue;
             }
-        }
-        
-        if (originalId != null) {
-            // Remove original item
-            selectedFoodNamesForPanel.remove(originalId);
+            
+            // Remove original item, keeping the portion it was logged in
+            double grams = selectedFoodNamesForPanel.remove(originalId).getGrams();
             foodNamesForPanel.put(originalId, originalItem.getDescription());
             
-            // Add replacement item
-            Long replacementId = replacementItem.getId();
-            selectedFoodNamesForPanel.put(replacementId, replacementItem);
+            // Add replacement item in the same portion
+            selectedFoodNamesForPanel.put(replacementId, replacementItem.adjustForQuantity(grams));
             foodNamesForPanel.remove(replacementId);
-            
+            applied++;
+        }
+        
+        if (applied > 0) {
             // Update the UI
-            refreshFoodItemsPanelForPanel(panel, foodNamesForPanel, selectedFoodNamesForPanel);
+            refreshFoodItemsPanel(panel, foodNamesForPanel, selectedFoodNamesForPanel);
             
             JOptionPane.showMessageDialog(this, 
-                "Swap applied successfully!", 
+                applied == 1 ? "Swap applied successfully!" : applied + " swaps applied successfully!", 
                 "Swap Complete", 
                 JOptionPane.INFORMATION_MESSAGE);
         }
     }
     
     /**
-     * Refresh food items panel for a specific panel
+     * Refresh a panel's food items after a swap
      */
-    private void refreshFoodItemsPanelForPanel(JPanel panel, 
-                                              Map<Long, String> foodNamesForPanel, 
-                                              Map<Long, FoodItem> selectedFoodNamesForPanel) {
+    private void refreshFoodItemsPanel(JPanel panel, 
+                                       Map<Long, String> foodNamesForPanel, 
+                                       Map<Long, FoodItem> selectedFoodNamesForPanel) {
         panel.removeAll();
         
         for (Map.Entry<Long, FoodItem> entry : selectedFoodNamesForPanel.entrySet()) {
             Long id = entry.getKey();
             FoodItem item = entry.getValue();
-            addFoodItemLabelToPanel(panel, id, item.getDescription(), foodNamesForPanel, selectedFoodNamesForPanel);
+            addFoodItemLabelToPanel(panel, id, item.getDescription(), item, foodNamesForPanel, selectedFoodNamesForPanel);
         }
         
         panel.revalidate();
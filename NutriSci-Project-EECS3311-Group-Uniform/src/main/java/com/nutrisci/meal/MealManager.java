@@ -2,9 +2,13 @@ package com.nutrisci.meal;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
-import com.nutrisci.calculator.NutritionalCalculator;
+import com.nutrisci.catalog.CatalogManager;
+import com.nutrisci.catalog.FoodCatalog;
+import com.nutrisci.catalog.ServingMeasureTable;
 import com.nutrisci.calculator.NutritionalData;
+import com.nutrisci.database.DatabaseAdapterManager;
 import com.nutrisci.database.DatabaseManager;
 import com.nutrisci.util.UserSessionManager;
 import com.nutrisci.model.User;
@@ -14,17 +18,36 @@ import com.nutrisci.model.User;
  */
 public class MealManager {
     private List<MealObserver> observers = new ArrayList<>();
-    private UserSessionManager userSessionManager = UserSessionManager.getInstance();
-    private NutritionalCalculator nutritionalCalculator = new NutritionalCalculator();
-    private DatabaseManager db = DatabaseManager.getInstance();
+    private final DailyNutritionStore.UserIdSupplier currentUser;
+    private final DatabaseManager db;
+    private final DailyNutritionStore dailyNutritionStore;
+
+    /**
+     * Create a meal manager whose events keep the shared daily totals current
+     */
+    public MealManager() {
+        this(DatabaseManager.getInstance(), DailyNutritionStore.getInstance(), () -> {
+            User user = UserSessionManager.getInstance().getCurrentUser();
+            return user != null ? user.getId() : 0;
+        });
+    }
+
+    /**
+     * Create a meal manager over another database and store (used by tests)
+     */
+    MealManager(DatabaseManager db, DailyNutritionStore dailyNutritionStore, DailyNutritionStore.UserIdSupplier currentUser) {
+        this.db = db;
+        this.dailyNutritionStore = dailyNutritionStore;
+        this.currentUser = currentUser;
+        addObserver(dailyNutritionStore);
+    }
 
     /**
      * Get the current user's ID from the session
      * @return The current user's ID, or 0 if no user is logged in
      */
     private long getCurrentUserId() {
-        User currentUser = userSessionManager.getCurrentUser();
-        return currentUser != null ? currentUser.getId() : 0;
+        return currentUser.getCurrentUserId();
     }
 
     /**
@@ -39,7 +62,9 @@ public class MealManager {
                 System.err.println("No user logged in");
                 return false;
             }
-            db.saveMeal(meal, userId);
+            if (!db.saveMeal(meal, userId)) {
+                return false;
+            }
             notifyObservers(MealEvent.MEAL_ADDED, meal);
             
             return true;
@@ -56,11 +81,12 @@ public class MealManager {
      */
     public boolean updateMeal(Meal meal) {
         if (meal == null) return false;
-        User user = userSessionManager.getCurrentUser();
-        if (user == null) return false;
+        if (getCurrentUserId() == 0) return false;
         
         try {
-            db.updateMeal(meal);
+            if (!db.updateMeal(meal)) {
+                return false;
+            }
             notifyObservers(MealEvent.MEAL_UPDATED, meal);
             
             return true;
@@ -77,8 +103,13 @@ public class MealManager {
      */
     public boolean deleteMeal(Long mealId) {
         try {
-            db.deleteMeal(mealId);
+            if (!db.deleteMeal(mealId)) {
+                return false;
+            }
             notifyObservers(MealEvent.MEAL_DELETED, null);
+            for (MealObserver observer : observers) {
+                observer.onMealDeleted(mealId);
+            }
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -103,6 +134,15 @@ public class MealManager {
         return db.getAvailableMealTypes(getCurrentUserId(), date);
     }
 
+    /**
+     * Get the available meal types for a date without blocking the caller
+     * @param date The date to retreive the meal types
+     * @return Future of the meal types logged for the date
+     */
+    public CompletableFuture<List<MealType>> getAvailableMealTypesAsync(LocalDate date) {
+        return DatabaseAdapterManager.getInstance().getAsyncAdapter().getAvailableMealTypes(getCurrentUserId(), date);
+    }
+
     /**
      * Get a list of meals for a certain date
      * @param date The date to retrieve the meal
@@ -133,6 +173,16 @@ public class MealManager {
         return db.importMeal(mealId);
     }
 
+    /**
+     * Import the food items of a meal at the portions they were logged with
+     * @param mealId The meal ID to retrieve the food items
+     * @return The food items scaled to their grams, empty if they could not be read
+     */
+    public List<FoodItem> importMealItems(long mealId) {
+        List<FoodItem> items = db.importMealItems(mealId);
+        return items != null ? items : new ArrayList<>();
+    }
+
     /**
      * Perform a food swap with the food items in the meals
      * @param mealId The meal id to perform the food swap
@@ -141,7 +191,12 @@ public class MealManager {
      * @return true if successful, otherwise false
      */
     public boolean swapFoodInMeal(Long mealId, FoodItem original, FoodItem replacement) {
-        return db.swapFoodInMeal(mealId, original, replacement);
+        boolean swapped = db.swapFoodInMeal(mealId, original, replacement);
+        if (swapped) {
+            // Only the meal id is known here, so the day is re-read on its next use
+            dailyNutritionStore.invalidateMeal(mealId);
+        }
+        return swapped;
     }
 
     /**
@@ -197,37 +252,91 @@ public class MealManager {
     }
 
     /**
-     * Get a list of food items from the database
+     * Get a list of food items, from the catalog snapshot when there is one,
+     * otherwise from the database
      * @return HashMap of the food description and its id
      */
     public Map<Long, String> getFoodItems() {
+        FoodCatalog catalog = CatalogManager.getInstance().getCatalog();
+        if (catalog != null) {
+            return catalog.getFoodNames();
+        }
         return db.getFoodItems();
     }
 
     /**
-     * Load the information for a given food item
+     * Get the food items without blocking the caller; the catalog snapshot
+     * answers straight away, otherwise the database is read on the async pool
+     * @return Future of the food ids and their descriptions
+     */
+    public CompletableFuture<Map<Long, String>> getFoodItemsAsync() {
+        FoodCatalog catalog = CatalogManager.getInstance().getCatalog();
+        if (catalog != null) {
+            return CompletableFuture.completedFuture(catalog.getFoodNames());
+        }
+        return DatabaseAdapterManager.getInstance().getAsyncAdapter().getFoodItems();
+    }
+
+    /**
+     * Load the information for a given food item, from the catalog snapshot
+     * when it has the food, otherwise from the database
      * @param foodId The food id
      * @return The Food Item with the provided information
      */
     public FoodItem loadFoodItem(Long foodId) {
+        FoodCatalog catalog = CatalogManager.getInstance().getCatalog();
+        if (catalog != null) {
+            FoodItem item = catalog.getFoodItem(foodId);
+            if (item != null) {
+                return item;
+            }
+        }
         return db.loadFoodItem(foodId);
     }
 
+    /**
+     * Get the household measures a food can be logged in
+     * @param foodId The food id
+     * @return The measures with their weights, or an empty list if the food has none
+     */
+    public List<ServingMeasureTable.Measure> getServingMeasures(long foodId) {
+        return db.getServingMeasures(foodId);
+    }
+
+    /**
+     * Load several food items at once: foods in the catalog snapshot are read
+     * from it and the rest come from the database in one batch
+     * @param foodIds The food ids
+     * @return The food items by id, in the order of foodIds (unknown ids are left out)
+     */
+    public Map<Long, FoodItem> loadFoodItems(List<Long> foodIds) {
+        Map<Long, FoodItem> items = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        FoodCatalog catalog = CatalogManager.getInstance().getCatalog();
+        for (Long foodId : foodIds) {
+            FoodItem item = catalog != null ? catalog.getFoodItem(foodId) : null;
+            items.put(foodId, item);
+            if (item == null) {
+                missing.add(foodId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            items.putAll(db.loadFoodItems(missing));
+        }
+        items.values().removeIf(item -> item == null);
+        return items;
+    }
+
     /**
      * Calculates daily nutritional totals for a given date.
+     * The totals come from the shared DailyNutritionStore, which reads the
+     * day's meals once and then follows meal events.
      * helped by AI
      * @param date The date to calculate totals for
      * @return NutritionalData object with daily totals
      */
     public NutritionalData calculateDailyTotals(LocalDate date) {
-        List<Meal> meals = getMealsForDate(date);
-        NutritionalData nutritionalData = new NutritionalData(0, 0, 0, 0, 0);
-
-        for (Meal meal : meals) {
-            nutritionalData.add(nutritionalCalculator.calculateMealNutrition(meal.getFoodItems()));
-        }
-
-        return nutritionalData;
+        return dailyNutritionStore.getDailyTotals(getCurrentUserId(), date).toNutritionalData();
     }
 
     /**
@@ -237,8 +346,7 @@ public class MealManager {
      * @return Map of dates to lists of meals
      */
     public Map<LocalDate, List<Meal>> getMealHistory(int dayCount) {
-        User user = userSessionManager.getCurrentUser();
-        if (user == null) return Collections.emptyMap();
+        if (getCurrentUserId() == 0) return Collections.emptyMap();
         
         Map<LocalDate, List<Meal>> history = new HashMap<>();
         LocalDate today = LocalDate.now();
@@ -246,7 +354,7 @@ public class MealManager {
         List<Meal> meals = db.getMealsForUser(getCurrentUserId(), lastDays, today);
 
         for (Meal meal : meals) {
-            LocalDate dateKey = meal.getCreatedAt().toLocalDate();
+            LocalDate dateKey = meal.getDate() != null ? meal.getDate() : meal.getCreatedAt().toLocalDate();
             if (!history.containsKey(dateKey)) {
                 history.put(dateKey, new ArrayList<Meal>());
             }
@@ -7,4 +7,22 @@ import com.nutrisci.calculator.NutritionalData;
 public interface MealObserver {
     void onMealChanged(MealEvent event, Meal meal);
     void onDailyNutritionChanged(LocalDate date, NutritionalData newTotal);
+
+    /**
+     * Called after a meal was deleted; MEAL_DELETED events carry no meal, only this has its id
+     * @param mealId The deleted meal
+     */
+    default void onMealDeleted(long mealId) {
+    }
+
+    /**
+     * Called by DailyNutritionStore after a user's day changed; listeners that
+     * track more than the current user override this one
+     * @param userId The user whose day changed
+     * @param date The day
+     * @param newTotal The day's new total
+     */
+    default void onDailyNutritionChanged(long userId, LocalDate date, NutritionalData newTotal) {
+        onDailyNutritionChanged(date, newTotal);
+    }
 }
@@ -0,0 +1,151 @@
+package com.nutrisci.meal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps CNF nutrients to small, dense indices so FoodItem can keep its
+ * nutrient values in a plain double[] instead of a Map keyed by long names.
+ *
+ * The nutrients the application reads most (macros, energy and fibre) are
+ * registered up front with fixed indices, so they sit at the start of every
+ * food's array and can be read through the constants below without any
+ * lookup. Other nutrients get the next free index the first time they are seen.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class NutrientRegistry {
+    // Fixed indices for frequently used nutrients
+    public static final int PROTEIN = 0;
+    public static final int FAT = 1;
+    public static final int CARBOHYDRATE = 2;
+    public static final int FIBRE = 3;
+    public static final int ENERGY_KCAL = 4;
+
+    // CNF NutrientIDs of the fixed nutrients
+    private static final int[] FIXED_IDS = { 203, 204, 205, 291, 208 };
+    private static final String[] FIXED_NAMES = {
+        "PROTEIN",
+        "FAT (TOTAL LIPIDS)",
+        "CARBOHYDRATE, TOTAL (BY DIFFERENCE)",
+        "FIBRE, TOTAL DIETARY",
+        "ENERGY (KILOCALORIES)"
+    };
+
+    private static final NutrientRegistry INSTANCE = new NutrientRegistry();
+
+    private final Map<String, Integer> indexByName = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> indexByNutrientId = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<Integer> nutrientIds = new ArrayList<>();
+
+    private NutrientRegistry() {
+        for (int i = 0; i < FIXED_NAMES.length; i++) {
+            register(FIXED_IDS[i], FIXED_NAMES[i]);
+        }
+    }
+
+    /**
+     * Get the shared registry
+     */
+    public static NutrientRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the index of a CNF nutrient, assigning a new one if it has not been seen
+     * @param nutrientId The CNF NutrientID
+     * @param name The CNF NutrientName
+     * @return The dense index of the nutrient
+     */
+    public int register(int nutrientId, String name) {
+        Integer index = indexByNutrientId.get(nutrientId);
+        if (index != null) {
+            return index;
+        }
+
+        synchronized (this) {
+            index = indexByNutrientId.get(nutrientId);
+            if (index == null) {
+                index = indexByName.get(name);
+                if (index == null) {
+                    index = names.size();
+                    names.add(name);
+                    nutrientIds.add(nutrientId);
+                    indexByName.put(name, index);
+                } else if (nutrientIds.get(index) < 0) {
+                    nutrientIds.set(index, nutrientId);
+                }
+                indexByNutrientId.put(nutrientId, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Get the index of a nutrient known only by name, assigning a new one if needed
+     * @param name The nutrient name
+     * @return The dense index of the nutrient
+     */
+    public int register(String name) {
+        Integer index = indexByName.get(name);
+        if (index != null) {
+            return index;
+        }
+
+        synchronized (this) {
+            index = indexByName.get(name);
+            if (index == null) {
+                index = names.size();
+                names.add(name);
+                nutrientIds.add(-1);
+                indexByName.put(name, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Look up the index of a nutrient by name without registering it
+     * @param name The nutrient name
+     * @return The dense index, or -1 if the nutrient is unknown
+     */
+    public int indexOf(String name) {
+        Integer index = indexByName.get(name);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Look up the index of a nutrient by CNF NutrientID without registering it
+     * @param nutrientId The CNF NutrientID
+     * @return The dense index, or -1 if the nutrient is unknown
+     */
+    public int indexOfNutrientId(int nutrientId) {
+        Integer index = indexByNutrientId.get(nutrientId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Get the name of the nutrient at an index
+     */
+    public synchronized String nameOf(int index) {
+        return names.get(index);
+    }
+
+    /**
+     * Get the CNF NutrientID of the nutrient at an index, or -1 if it was registered by name only
+     */
+    public synchronized int nutrientIdOf(int index) {
+        return nutrientIds.get(index);
+    }
+
+    /**
+     * Get the number of registered nutrients (one past the highest index)
+     */
+    public synchronized int size() {
+        return names.size();
+    }
+}
@@ -0,0 +1,354 @@
+package com.nutrisci.meal;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.nutrisci.calculator.NutrientAccumulator;
+import com.nutrisci.calculator.NutritionalData;
+import com.nutrisci.database.DatabaseManager;
+
+/**
+ * Singleton store of nutrient totals per user by day, ISO week, month and year.
+ *
+ * A user's history is read back to the earliest day a chart has asked for,
+ * preferably from the Daily_Nutrition_Summary table, and summed into every
+ * resolution. After that the rollups listen to DailyNutritionStore: when a
+ * loaded day's total changes, the difference is applied to that day and to its
+ * week, month and year. A chart over any range therefore costs one map entry
+ * per bucket, however many meals the range holds. Database reads happen
+ * outside the lock; a read that raced a change is repeated.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class NutritionRollups implements MealObserver {
+    private static volatile NutritionRollups instance;
+
+    private final HistorySource source;
+    // Loaded histories by user; each is complete from its loadedFrom day on
+    private final Map<Long, History> histories = new HashMap<>();
+    // Bumped by every change, so a database read that raced one can tell
+    private long changeCount;
+
+    /**
+     * The bucket sizes the rollups keep. Weeks start on Monday as in ISO-8601.
+     */
+    public enum Resolution {
+        DAY("Day"),
+        WEEK("Week"),
+        MONTH("Month"),
+        YEAR("Year");
+
+        private final String displayName;
+
+        Resolution(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * Get the first day of the bucket a date falls in
+         */
+        public LocalDate bucketStart(LocalDate date) {
+            switch (this) {
+                case WEEK:
+                    return date.with(DayOfWeek.MONDAY);
+                case MONTH:
+                    return date.withDayOfMonth(1);
+                case YEAR:
+                    return date.withDayOfYear(1);
+                default:
+                    return date;
+            }
+        }
+
+        /**
+         * Get the last day of the bucket starting on the given day
+         */
+        public LocalDate bucketEnd(LocalDate bucketStart) {
+            switch (this) {
+                case WEEK:
+                    return bucketStart.plusWeeks(1).minusDays(1);
+                case MONTH:
+                    return bucketStart.plusMonths(1).minusDays(1);
+                case YEAR:
+                    return bucketStart.plusYears(1).minusDays(1);
+                default:
+                    return bucketStart;
+            }
+        }
+
+        /**
+         * Get a chart label for a bucket, e.g. "2024-03-04", "2024-W10", "2024-03" or "2024"
+         */
+        public String label(LocalDate bucketStart) {
+            switch (this) {
+                case WEEK:
+                    return String.format("%d-W%02d", bucketStart.get(IsoFields.WEEK_BASED_YEAR),
+                                         bucketStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+                case MONTH:
+                    return YearMonth.from(bucketStart).toString();
+                case YEAR:
+                    return String.valueOf(bucketStart.getYear());
+                default:
+                    return bucketStart.toString();
+            }
+        }
+    }
+
+    /**
+     * Where a user's daily totals are read from the first time they are needed
+     */
+    interface HistorySource {
+        /**
+         * @param start First day, or null for the user's first logged day
+         * @param end Last day, or null for the user's last logged day
+         * @return Totals by date for the days with meals
+         */
+        Map<LocalDate, NutritionalData> getDailyTotals(long userId, LocalDate start, LocalDate end);
+    }
+
+    NutritionRollups(HistorySource source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns the singleton instance of NutritionRollups (thread-safe, double-checked locking)
+     */
+    public static NutritionRollups getInstance() {
+        if (instance == null) {
+            synchronized (NutritionRollups.class) {
+                if (instance == null) {
+                    DatabaseManager db = DatabaseManager.getInstance();
+                    NutritionRollups rollups = new NutritionRollups(
+                        (userId, start, end) -> readHistory(db, userId, start, end));
+                    DailyNutritionStore.getInstance().addObserver(rollups);
+                    instance = rollups;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Read the daily totals of the days a user logged meals in a range, from the
+     * summary table when it exists and otherwise from the meals themselves
+     */
+    private static Map<LocalDate, NutritionalData> readHistory(DatabaseManager db, long userId, LocalDate start, LocalDate end) {
+        Map<LocalDate, NutritionalData> days = new HashMap<>();
+        LocalDate[] range = db.getMealDateRange(userId);
+        if (range == null) {
+            return days;
+        }
+        LocalDate from = start == null || start.isBefore(range[0]) ? range[0] : start;
+        LocalDate to = end == null || end.isAfter(range[1]) ? range[1] : end;
+        if (from.isAfter(to)) {
+            return days;
+        }
+
+        Map<LocalDate, NutritionalData> summary = db.getDailyNutritionSummary(userId, from, to);
+        if (summary != null) {
+            return summary;
+        }
+        Map<LocalDate, NutrientAccumulator> totals = new HashMap<>();
+        for (Meal meal : db.getMealsForUser(userId, from, to)) {
+            LocalDate date = meal.getDate() != null ? meal.getDate() : meal.getCreatedAt().toLocalDate();
+            totals.computeIfAbsent(date, k -> new NutrientAccumulator()).add(meal);
+        }
+        for (Map.Entry<LocalDate, NutrientAccumulator> day : totals.entrySet()) {
+            days.put(day.getKey(), day.getValue().toNutritionalData());
+        }
+        return days;
+    }
+
+    /**
+     * Get the totals of every bucket in a range that has something logged.
+     * Buckets cut by the ends of the range only count the days inside it.
+     * @param userId The user
+     * @param resolution The bucket size
+     * @param start First day, or null for the user's first logged day
+     * @param end Last day
+     * @return Totals by bucket start, in date order
+     */
+    public Map<LocalDate, NutritionalData> getTotals(long userId, Resolution resolution, LocalDate start, LocalDate end) {
+        while (true) {
+            synchronized (this) {
+                History history = histories.get(userId);
+                if (history != null && history.coversFrom(start)) {
+                    return bucketTotals(history, resolution, start, end);
+                }
+            }
+            load(userId, start);
+        }
+    }
+
+    private Map<LocalDate, NutritionalData> bucketTotals(History history, Resolution resolution, LocalDate start, LocalDate end) {
+        Map<LocalDate, NutritionalData> totals = new LinkedHashMap<>();
+        if (history == null || history.days.isEmpty()) {
+            return totals;
+        }
+        if (start == null || start.isBefore(history.days.firstKey())) {
+            start = history.days.firstKey();
+        }
+        if (start.isAfter(end)) {
+            return totals;
+        }
+
+        TreeMap<LocalDate, NutrientAccumulator> buckets = history.buckets(resolution);
+        for (Map.Entry<LocalDate, NutrientAccumulator> bucket
+                : buckets.subMap(resolution.bucketStart(start), true, end, true).entrySet()) {
+            LocalDate bucketStart = bucket.getKey();
+            LocalDate bucketEnd = resolution.bucketEnd(bucketStart);
+            if (!bucketStart.isBefore(start) && !bucketEnd.isAfter(end)) {
+                totals.put(bucketStart, bucket.getValue().toNutritionalData());
+            } else {
+                // Partial bucket at an end of the range: add up its days instead
+                NutrientAccumulator partial = new NutrientAccumulator();
+                LocalDate from = bucketStart.isBefore(start) ? start : bucketStart;
+                LocalDate to = bucketEnd.isAfter(end) ? end : bucketEnd;
+                for (NutrientAccumulator day : history.days.subMap(from, true, to, true).values()) {
+                    partial.add(day);
+                }
+                totals.put(bucketStart, partial.toNutritionalData());
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Forget a user's history so the next read starts over
+     */
+    public synchronized void invalidate(long userId) {
+        histories.remove(userId);
+        changeCount++;
+    }
+
+    /**
+     * Forget everything, e.g. when the user logs out
+     */
+    public synchronized void clear() {
+        histories.clear();
+        changeCount++;
+    }
+
+    @Override
+    public void onMealChanged(MealEvent event, Meal meal) {
+        // Day totals arrive through onDailyNutritionChanged
+    }
+
+    @Override
+    public void onDailyNutritionChanged(LocalDate date, NutritionalData newTotal) {
+        // Only the version that names the user is used
+    }
+
+    @Override
+    public synchronized void onDailyNutritionChanged(long userId, LocalDate date, NutritionalData newTotal) {
+        changeCount++;
+        History history = histories.get(userId);
+        if (history == null || !history.covers(date)) {
+            // Not read yet: the day loads complete on its first read
+            return;
+        }
+        NutrientAccumulator updated = new NutrientAccumulator().add(newTotal);
+        NutrientAccumulator old = history.days.get(date);
+        for (Resolution resolution : Resolution.values()) {
+            if (resolution == Resolution.DAY) {
+                continue;
+            }
+            NutrientAccumulator bucket = history.buckets(resolution)
+                .computeIfAbsent(resolution.bucketStart(date), k -> new NutrientAccumulator());
+            if (old != null) {
+                bucket.subtract(old);
+            }
+            bucket.add(updated);
+        }
+        history.days.put(date, updated);
+    }
+
+    /**
+     * Load a user's history back to a day (null for all of it). Only the days
+     * before what is already loaded are read, outside the lock.
+     */
+    private void load(long userId, LocalDate start) {
+        LocalDate readTo;
+        long changesBefore;
+        synchronized (this) {
+            History history = histories.get(userId);
+            if (history != null && history.coversFrom(start)) {
+                return;
+            }
+            readTo = history != null ? history.loadedFrom.minusDays(1) : null;
+            changesBefore = changeCount;
+        }
+
+        Map<LocalDate, NutritionalData> days = userId != 0 ? source.getDailyTotals(userId, start, readTo) : new HashMap<>();
+        synchronized (this) {
+            History history = histories.get(userId);
+            // A change meanwhile may have made the read stale; the caller reads again
+            if (changeCount != changesBefore || (history != null && history.coversFrom(start))) {
+                return;
+            }
+            if (history == null) {
+                history = new History();
+                histories.put(userId, history);
+            }
+            for (Map.Entry<LocalDate, NutritionalData> day : days.entrySet()) {
+                if (!history.covers(day.getKey())) {
+                    add(history, day.getKey(), new NutrientAccumulator().add(day.getValue()));
+                }
+            }
+            history.loadedFrom = start;
+            history.complete = start == null;
+        }
+    }
+
+    private static void add(History history, LocalDate date, NutrientAccumulator total) {
+        history.days.put(date, total);
+        for (Resolution resolution : Resolution.values()) {
+            if (resolution != Resolution.DAY) {
+                history.buckets(resolution)
+                    .computeIfAbsent(resolution.bucketStart(date), k -> new NutrientAccumulator())
+                    .add(total);
+            }
+        }
+    }
+
+    /**
+     * One user's totals at every resolution
+     */
+    private static class History {
+        // The first loaded day, unless the whole history is loaded
+        private LocalDate loadedFrom;
+        private boolean complete;
+        private final TreeMap<LocalDate, NutrientAccumulator> days = new TreeMap<>();
+        private final Map<Resolution, TreeMap<LocalDate, NutrientAccumulator>> buckets = new EnumMap<>(Resolution.class);
+
+        boolean covers(LocalDate date) {
+            return complete || (loadedFrom != null && !date.isBefore(loadedFrom));
+        }
+
+        /**
+         * Whether every day from a date on is loaded (null meaning the whole history)
+         */
+        boolean coversFrom(LocalDate date) {
+            return date == null ? complete : covers(date);
+        }
+
+        TreeMap<LocalDate, NutrientAccumulator> buckets(Resolution resolution) {
+            if (resolution == Resolution.DAY) {
+                return days;
+            }
+            return buckets.computeIfAbsent(resolution, k -> new TreeMap<>());
+        }
+    }
+}
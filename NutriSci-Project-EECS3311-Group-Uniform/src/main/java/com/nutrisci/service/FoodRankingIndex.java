@@ -0,0 +1,222 @@
+package com.nutrisci.service;
+
+import com.nutrisci.catalog.CatalogManager;
+import com.nutrisci.catalog.FoodCatalog;
+import com.nutrisci.database.DatabaseManager;
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.NutrientRegistry;
+import com.nutrisci.model.GoalType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every food in the catalog sorted by each goal nutrient (calories, protein, fibre).
+ *
+ * Finding foods that are better than a given value for a goal is a binary
+ * search into the sorted values followed by a short slice, so swap
+ * suggestions consider the whole catalog without loading it per request.
+ * Foods missing the goal nutrient are left out of that goal's ranking.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class FoodRankingIndex {
+    // Shared index and the catalog it was built from
+    private static FoodRankingIndex shared;
+    private static Object sharedSource;
+    private static long sharedVersion = -1;
+
+    private final Map<GoalType, Ranking> rankings = new EnumMap<>(GoalType.class);
+
+    /**
+     * Build the rankings from a set of foods
+     * @param foods Foods holding at least protein, fat, carbohydrate and fibre
+     */
+    public FoodRankingIndex(Collection<FoodItem> foods) {
+        for (GoalType goalType : GoalType.values()) {
+            rankings.put(goalType, new Ranking(foods, goalType));
+        }
+    }
+
+    /**
+     * Get the index for the current catalog, building it once per catalog version.
+     * Uses the catalog snapshot when there is one, otherwise one database query.
+     * @param db The database to read from when there is no snapshot
+     */
+    public static synchronized FoodRankingIndex forCatalog(DatabaseManager db) {
+        FoodCatalog catalog = CatalogManager.getInstance().getCatalog();
+        Object source = catalog != null ? catalog : db;
+        long version = db.getCatalogVersion();
+        if (shared != null && sharedSource == source && sharedVersion == version) {
+            return shared;
+        }
+
+        shared = new FoodRankingIndex(loadGoalFoods(catalog, db));
+        sharedSource = source;
+        sharedVersion = version;
+        return shared;
+    }
+
+    /**
+     * Read every food with at least its macronutrients and fibre
+     * @param catalog The catalog snapshot, or null to query the database
+     * @param db The database to read from when there is no snapshot
+     */
+    static Collection<FoodItem> loadGoalFoods(FoodCatalog catalog, DatabaseManager db) {
+        if (catalog == null) {
+            return db.loadAllFoodItems(NutrientRegistry.PROTEIN, NutrientRegistry.FAT,
+                                       NutrientRegistry.CARBOHYDRATE, NutrientRegistry.FIBRE).values();
+        }
+        List<FoodItem> foods = new ArrayList<>(catalog.size());
+        for (int row = 0; row < catalog.size(); row++) {
+            foods.add(catalog.getFoodItemAt(row));
+        }
+        return foods;
+    }
+
+    /**
+     * Get the value a goal is measured by, as FoodSwapService compares it
+     * @return The value, or NaN if the food does not have the nutrient
+     */
+    static double valueOf(FoodItem item, GoalType goalType) {
+        switch (goalType) {
+            case CALORIES:
+                if (!item.hasNutrient(NutrientRegistry.PROTEIN) && !item.hasNutrient(NutrientRegistry.FAT)
+                        && !item.hasNutrient(NutrientRegistry.CARBOHYDRATE)) {
+                    return Double.NaN;
+                }
+                return item.calculateCaloriesFromMacros();
+            case PROTEIN:
+                return item.hasNutrient(NutrientRegistry.PROTEIN) ? item.getNutrientValue(NutrientRegistry.PROTEIN) : Double.NaN;
+            case FIBRE:
+                return item.hasNutrient(NutrientRegistry.FIBRE) ? item.getNutrientValue(NutrientRegistry.FIBRE) : Double.NaN;
+            default:
+                return Double.NaN;
+        }
+    }
+
+    /**
+     * Find foods that improve on a value by at least a target amount.
+     * The foods closest to the target are returned, so a suggestion changes
+     * the goal nutrient by about the requested amount rather than to an extreme.
+     * If no food reaches the target, the best foods that still improve are returned.
+     * @param goalType Nutrient to compare
+     * @param value The current food's value
+     * @param target The value a replacement should reach (at or above for an
+     *               increase, at or below for a decrease)
+     * @param increase Whether higher values are better
+     * @param limit Maximum number of food IDs to return
+     * @param excludedFoodId A food to leave out, such as the one being replaced
+     * @return Food IDs, closest to the target first
+     */
+    public List<Long> findBetter(GoalType goalType, double value, double target, boolean increase, int limit, long excludedFoodId) {
+        return rankings.get(goalType).findBetter(value, target, increase, limit, excludedFoodId);
+    }
+
+    /**
+     * Get the number of foods ranked for a goal
+     */
+    public int size(GoalType goalType) {
+        return rankings.get(goalType).ids.length;
+    }
+
+    /**
+     * Foods sorted ascending by one goal value
+     */
+    private static class Ranking {
+        private final long[] ids;
+        private final double[] values;
+
+        Ranking(Collection<FoodItem> foods, GoalType goalType) {
+            List<FoodItem> ranked = new ArrayList<>(foods.size());
+            List<Double> rankedValues = new ArrayList<>(foods.size());
+            for (FoodItem item : foods) {
+                double value = valueOf(item, goalType);
+                if (!Double.isNaN(value)) {
+                    ranked.add(item);
+                    rankedValues.add(value);
+                }
+            }
+
+            Integer[] order = new Integer[ranked.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(rankedValues.get(a), rankedValues.get(b)));
+
+            ids = new long[order.length];
+            values = new double[order.length];
+            for (int i = 0; i < order.length; i++) {
+                ids[i] = ranked.get(order[i]).getId();
+                values[i] = rankedValues.get(order[i]);
+            }
+        }
+
+        List<Long> findBetter(double value, double target, boolean increase, int limit, long excludedFoodId) {
+            List<Long> found = new ArrayList<>(limit);
+            if (increase) {
+                // Better foods are [firstBetter, n); walk away from the target, then back toward the value
+                int firstBetter = firstIndexAbove(value);
+                int atTarget = Math.max(firstBetter, firstIndexAtLeast(target));
+                for (int i = atTarget; i < ids.length && found.size() < limit; i++) {
+                    add(found, i, excludedFoodId);
+                }
+                for (int i = atTarget - 1; i >= firstBetter && found.size() < limit; i--) {
+                    add(found, i, excludedFoodId);
+                }
+            } else {
+                // Better foods are [0, firstNotBetter); the same walk mirrored
+                int firstNotBetter = firstIndexAtLeast(value);
+                int pastTarget = Math.min(firstNotBetter, firstIndexAbove(target));
+                for (int i = pastTarget - 1; i >= 0 && found.size() < limit; i--) {
+                    add(found, i, excludedFoodId);
+                }
+                for (int i = pastTarget; i < firstNotBetter && found.size() < limit; i++) {
+                    add(found, i, excludedFoodId);
+                }
+            }
+            return found;
+        }
+
+        private void add(List<Long> found, int index, long excludedFoodId) {
+            if (ids[index] != excludedFoodId) {
+                found.add(ids[index]);
+            }
+        }
+
+        /** First index whose value is >= the key */
+        private int firstIndexAtLeast(double key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** First index whose value is > the key */
+        private int firstIndexAbove(double key) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
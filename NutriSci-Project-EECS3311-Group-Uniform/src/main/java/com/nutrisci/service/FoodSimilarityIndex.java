@@ -0,0 +1,315 @@
+package com.nutrisci.service;
+
+import com.nutrisci.catalog.CatalogManager;
+import com.nutrisci.catalog.FoodCatalog;
+import com.nutrisci.database.DatabaseManager;
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.NutrientRegistry;
+import com.nutrisci.model.GoalType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * KD-tree over nutrient profiles for "foods like this one" queries.
+ *
+ * Each food is a point of its protein, fat, carbohydrate and fibre per 100 g,
+ * with every dimension divided by its standard deviation across the catalog
+ * so no nutrient dominates the distance. A query returns the k foods closest
+ * to a given food that also pass a filter, such as improving a goal, so swap
+ * suggestions stay nutritionally similar to what they replace.
+ *
+ * Searches stop after a fixed number of tree nodes, which bounds the cost of
+ * filters that reject most foods; the answer is then the best found so far.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class FoodSimilarityIndex {
+    private static final int[] DIMENSIONS = {
+        NutrientRegistry.PROTEIN, NutrientRegistry.FAT, NutrientRegistry.CARBOHYDRATE, NutrientRegistry.FIBRE
+    };
+    private static final int MAX_VISITED_NODES = 4000;
+
+    // Shared index and the catalog it was built from
+    private static FoodSimilarityIndex shared;
+    private static Object sharedSource;
+    private static long sharedVersion = -1;
+
+    private final int size;
+    private final long[] ids;
+    private final String[] foodGroups;
+    private final double[] scale = new double[DIMENSIONS.length];
+    // Normalized points, DIMENSIONS.length values per point, in tree order
+    private final double[] points;
+    // Goal values per point (NaN if missing), indexed [goal ordinal][point]
+    private final double[][] goalValues;
+    // Split dimension of the node whose median is at each position
+    private final byte[] splitDimension;
+
+    /**
+     * Build the tree over a set of foods
+     * @param foods Foods holding at least protein, fat, carbohydrate and fibre
+     */
+    public FoodSimilarityIndex(Collection<FoodItem> foods) {
+        List<FoodItem> usable = new ArrayList<>(foods.size());
+        for (FoodItem item : foods) {
+            if (item.hasNutrient(NutrientRegistry.PROTEIN) || item.hasNutrient(NutrientRegistry.FAT)
+                    || item.hasNutrient(NutrientRegistry.CARBOHYDRATE)) {
+                usable.add(item);
+            }
+        }
+
+        size = usable.size();
+        int dims = DIMENSIONS.length;
+        double[] raw = new double[size * dims];
+        for (int i = 0; i < size; i++) {
+            for (int d = 0; d < dims; d++) {
+                raw[i * dims + d] = usable.get(i).getNutrientOrZero(DIMENSIONS[d]);
+            }
+        }
+        for (int d = 0; d < dims; d++) {
+            double sum = 0;
+            double sumSquares = 0;
+            for (int i = 0; i < size; i++) {
+                sum += raw[i * dims + d];
+                sumSquares += raw[i * dims + d] * raw[i * dims + d];
+            }
+            double mean = size > 0 ? sum / size : 0;
+            double deviation = size > 0 ? Math.sqrt(Math.max(0, sumSquares / size - mean * mean)) : 0;
+            scale[d] = deviation > 0 ? 1.0 / deviation : 1.0;
+        }
+
+        // Arrange points so every subrange [low, high) is a subtree with its median in the middle
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        splitDimension = new byte[size];
+        build(order, raw, 0, size);
+
+        ids = new long[size];
+        foodGroups = new String[size];
+        points = new double[size * dims];
+        goalValues = new double[GoalType.values().length][size];
+        for (int position = 0; position < size; position++) {
+            FoodItem item = usable.get(order[position]);
+            ids[position] = item.getId();
+            foodGroups[position] = item.getFoodGroup();
+            for (int d = 0; d < dims; d++) {
+                points[position * dims + d] = raw[order[position] * dims + d] * scale[d];
+            }
+            for (GoalType goalType : GoalType.values()) {
+                goalValues[goalType.ordinal()][position] = FoodRankingIndex.valueOf(item, goalType);
+            }
+        }
+    }
+
+    private void build(Integer[] order, double[] raw, int low, int high) {
+        if (high - low <= 1) {
+            return;
+        }
+        int dims = DIMENSIONS.length;
+
+        // Split on the dimension with the widest normalized spread
+        int best = 0;
+        double bestSpread = -1;
+        for (int d = 0; d < dims; d++) {
+            double min = Double.MAX_VALUE;
+            double max = -Double.MAX_VALUE;
+            for (int i = low; i < high; i++) {
+                double value = raw[order[i] * dims + d];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if ((max - min) * scale[d] > bestSpread) {
+                bestSpread = (max - min) * scale[d];
+                best = d;
+            }
+        }
+
+        final int axis = best;
+        Arrays.sort(order, low, high, (a, b) -> Double.compare(raw[a * dims + axis], raw[b * dims + axis]));
+        int mid = (low + high) >>> 1;
+        splitDimension[mid] = (byte) axis;
+        build(order, raw, low, mid);
+        build(order, raw, mid + 1, high);
+    }
+
+    /**
+     * Get the index for the current catalog, building it once per catalog version
+     * @param db The database to read from when there is no snapshot
+     */
+    public static synchronized FoodSimilarityIndex forCatalog(DatabaseManager db) {
+        FoodCatalog catalog = CatalogManager.getInstance().getCatalog();
+        Object source = catalog != null ? catalog : db;
+        long version = db.getCatalogVersion();
+        if (shared != null && sharedSource == source && sharedVersion == version) {
+            return shared;
+        }
+
+        shared = new FoodSimilarityIndex(FoodRankingIndex.loadGoalFoods(catalog, db));
+        sharedSource = source;
+        sharedVersion = version;
+        return shared;
+    }
+
+    /**
+     * Find the foods with the most similar nutrient profile that improve a goal
+     * @param item The food to compare against
+     * @param goalType The goal nutrient
+     * @param value The item's value for the goal; foods must strictly improve on it
+     * @param target The value a food must reach (at or above for an increase,
+     *               at or below for a decrease)
+     * @param increase Whether higher values are better
+     * @param sameFoodGroup Only consider foods in the item's food group
+     * @param limit Maximum number of foods to return
+     * @return Food IDs, most similar first
+     */
+    public List<Long> findSimilarBetter(FoodItem item, GoalType goalType, double value, double target,
+                                        boolean increase, boolean sameFoodGroup, int limit) {
+        List<Match> matches = findSimilarMatches(item, goalType, value, target, increase, sameFoodGroup, limit);
+        List<Long> foodIds = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            foodIds.add(match.getFoodId());
+        }
+        return foodIds;
+    }
+
+    /**
+     * Same as findSimilarBetter, also returning each food's goal value and distance
+     * @return Matches, most similar first
+     */
+    public List<Match> findSimilarMatches(FoodItem item, GoalType goalType, double value, double target,
+                                          boolean increase, boolean sameFoodGroup, int limit) {
+        double[] values = goalValues[goalType.ordinal()];
+        String group = item.getFoodGroup();
+        long excluded = item.getId();
+        return findNearest(item, limit, position -> {
+            double candidate = values[position];
+            if (Double.isNaN(candidate) || ids[position] == excluded) {
+                return false;
+            }
+            if (increase ? candidate <= value || candidate < target : candidate >= value || candidate > target) {
+                return false;
+            }
+            return !sameFoodGroup || group.equals(foodGroups[position]);
+        }, values);
+    }
+
+    /**
+     * Find the foods with the most similar nutrient profile
+     * @param item The food to compare against
+     * @param limit Maximum number of foods to return
+     * @param accept Filter on tree positions
+     * @param values Goal value of each position, reported with the matches
+     * @return Matches, most similar first
+     */
+    private List<Match> findNearest(FoodItem item, int limit, IntPredicate accept, double[] values) {
+        int dims = DIMENSIONS.length;
+        double[] query = new double[dims];
+        for (int d = 0; d < dims; d++) {
+            query[d] = item.getNutrientOrZero(DIMENSIONS[d]) * scale[d];
+        }
+
+        Search search = new Search(query, limit, accept);
+        search.visit(0, size);
+
+        List<Match> nearest = new ArrayList<>(search.best.size());
+        while (!search.best.isEmpty()) {
+            int position = search.best.poll();
+            nearest.add(new Match(ids[position], values[position], Math.sqrt(search.bestDistance[position])));
+        }
+        Collections.reverse(nearest);
+        return nearest;
+    }
+
+    /**
+     * Get the number of indexed foods
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A food found by a similarity search
+     */
+    public static class Match {
+        private final long foodId;
+        private final double goalValue;
+        private final double distance;
+
+        public Match(long foodId, double goalValue, double distance) {
+            this.foodId = foodId;
+            this.goalValue = goalValue;
+            this.distance = distance;
+        }
+
+        public long getFoodId() { return foodId; }
+
+        /** The food's value for the goal searched on */
+        public double getGoalValue() { return goalValue; }
+
+        /** Distance between the nutrient profiles, in standard deviations */
+        public double getDistance() { return distance; }
+    }
+
+    /**
+     * State of one k-nearest-neighbour search
+     */
+    private class Search {
+        private final double[] query;
+        private final int limit;
+        private final IntPredicate accept;
+        // Positions of the closest accepted foods so far, farthest on top
+        private final PriorityQueue<Integer> best;
+        private final double[] bestDistance;
+        private int visited;
+
+        Search(double[] query, int limit, IntPredicate accept) {
+            this.query = query;
+            this.limit = limit;
+            this.accept = accept;
+            this.bestDistance = new double[size];
+            this.best = new PriorityQueue<>(limit + 1, (a, b) -> Double.compare(bestDistance[b], bestDistance[a]));
+        }
+
+        void visit(int low, int high) {
+            if (low >= high || visited >= MAX_VISITED_NODES || limit <= 0) {
+                return;
+            }
+            visited++;
+            int dims = DIMENSIONS.length;
+            int mid = (low + high) >>> 1;
+
+            if (accept.test(mid)) {
+                double distance = 0;
+                for (int d = 0; d < dims; d++) {
+                    double diff = points[mid * dims + d] - query[d];
+                    distance += diff * diff;
+                }
+                if (best.size() < limit || distance < bestDistance[best.peek()]) {
+                    bestDistance[mid] = distance;
+                    best.add(mid);
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+
+            int axis = splitDimension[mid];
+            double diff = query[axis] - points[mid * dims + axis];
+            boolean leftFirst = diff < 0;
+            visit(leftFirst ? low : mid + 1, leftFirst ? mid : high);
+            // The far side can only help if the splitting plane is closer than the current worst
+            if (best.size() < limit || diff * diff < bestDistance[best.peek()]) {
+                visit(leftFirst ? mid + 1 : low, leftFirst ? high : mid);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.nutrisci.service;
 
 import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.NutrientRegistry;
 import com.nutrisci.model.Goal;
 import com.nutrisci.model.GoalType;
 import com.nutrisci.database.DatabaseManager;
@@ -9,6 +10,14 @@ import java.util.*;
 
 // Service for smart food item swapping based on user goals
 public class FoodSwapService {
+    // Number of closest replacements to choose from
+    private static final int SWAP_CANDIDATES = 5;
+    // Replacements considered per item, and partial plans kept, by the meal optimizer
+    private static final int MEAL_SWAP_CANDIDATES = 6;
+    private static final int MEAL_SWAP_BEAM_WIDTH = 32;
+    // Time the meal optimizer gets when swaps are requested from the meal logger
+    public static final long MEAL_SWAP_BUDGET_MILLIS = 100;
+
     private DatabaseManager dbManager;
     
     public FoodSwapService() {
@@ -42,14 +51,47 @@ public class FoodSwapService {
     }
     
     /**
-     * Find the food item with the lowest value for the target nutrient
+     * Suggests the smallest set of swaps across the whole meal that reaches the goal
+     * percentage, preferring replacements with a similar nutrient profile
+     * @param currentFoodItems List of current food items in the meal
+     * @param userGoal User's nutrition goal
+     * @param budgetMillis Time allowed for the search; the best plan so far is used when it runs out
+     * @return One suggestion per swap, in meal order; empty if nothing improves the meal
+     */
+    public List<FoodSwapSuggestion> suggestMealSwaps(List<FoodItem> currentFoodItems, Goal userGoal, long budgetMillis) {
+        List<FoodSwapSuggestion> suggestions = new ArrayList<>();
+        if (currentFoodItems == null || currentFoodItems.isEmpty() || userGoal == null) {
+            return suggestions;
+        }
+
+        MealSwapOptimizer optimizer = new MealSwapOptimizer(FoodSimilarityIndex.forCatalog(dbManager),
+                                                            MEAL_SWAP_CANDIDATES, MEAL_SWAP_BEAM_WIDTH);
+        MealSwapOptimizer.Plan plan = optimizer.optimize(currentFoodItems, userGoal, budgetMillis);
+
+        List<Long> replacementIds = new ArrayList<>();
+        for (MealSwapOptimizer.Swap swap : plan.getSwaps()) {
+            replacementIds.add(swap.getReplacementFoodId());
+        }
+        Map<Long, FoodItem> replacements = dbManager.loadFoodItems(replacementIds);
+        for (MealSwapOptimizer.Swap swap : plan.getSwaps()) {
+            FoodItem replacement = replacements.get(swap.getReplacementFoodId());
+            if (replacement != null) {
+                FoodItem original = currentFoodItems.get(swap.getItemIndex());
+                suggestions.add(new FoodSwapSuggestion(original, replacement.adjustForQuantity(original.getGrams()), userGoal));
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Find the food item with the lowest value for the target nutrient, in the portion eaten
      */
     private FoodItem findWorstFoodItem(List<FoodItem> foodItems, GoalType goalType) {
         FoodItem worstItem = null;
         double worstValue = Double.MAX_VALUE;
         
         for (FoodItem item : foodItems) {
-            double nutrientValue = getNutrientValue(item, goalType);
+            double nutrientValue = getNutrientValue(item, goalType) * item.getPortionScale();
             if (nutrientValue < worstValue) {
                 worstValue = nutrientValue;
                 worstItem = item;
@@ -60,58 +102,41 @@ public class FoodSwapService {
     }
     
     /**
-     * Find a better replacement food item
+     * Find a better replacement food item.
+     * Prefers the foods with the most similar nutrient profile that change the
+     * goal nutrient by at least the goal percentage, first within the same food
+     * group and then across the catalog. If none qualify, falls back to the
+     * foods ranked closest to the target. Picks one of the few best for variety.
+     * The search is per 100 g; the replacement is returned in the original's portion.
      */
     private FoodItem findBetterReplacement(FoodItem originalItem, Goal userGoal) {
         GoalType goalType = userGoal.getType();
+        boolean increase = userGoal.isIncrease();
         double originalValue = getNutrientValue(originalItem, goalType);
-        
-        // Get all available food items
-        Map<Long, String> allFoodNames = dbManager.getFoodItems();
-        List<FoodItem> candidates = new ArrayList<>();
-        
-        // Sample a subset of food items for performance (take first 100)
-        int count = 0;
-        for (Map.Entry<Long, String> entry : allFoodNames.entrySet()) {
-            if (count >= 100) break; // Limit for performance
-            
-            try {
-                FoodItem candidate = dbManager.loadFoodItem(entry.getKey());
-                if (candidate != null && !candidate.getDescription().equals(originalItem.getDescription())) {
-                    double candidateValue = getNutrientValue(candidate, goalType);
-                    
-                    // Check if this is a better choice based on goal direction
-                    if (userGoal.isIncrease() && candidateValue > originalValue) {
-                        candidates.add(candidate);
-                    } else if (!userGoal.isIncrease() && candidateValue < originalValue) {
-                        candidates.add(candidate);
-                    }
-                }
-                count++;
-            } catch (Exception e) {
-                // Skip items that can't be loaded
-                continue;
-            }
+        double change = Math.abs(originalValue) * userGoal.getPercent() / 100.0;
+        double target = increase ? originalValue + change : originalValue - change;
+
+        FoodSimilarityIndex similar = FoodSimilarityIndex.forCatalog(dbManager);
+        List<Long> candidates = similar.findSimilarBetter(originalItem, goalType, originalValue, target, increase,
+                                                          true, SWAP_CANDIDATES);
+        if (candidates.isEmpty()) {
+            candidates = similar.findSimilarBetter(originalItem, goalType, originalValue, target, increase,
+                                                   false, SWAP_CANDIDATES);
         }
-        
+        if (candidates.isEmpty()) {
+            candidates = FoodRankingIndex.forCatalog(dbManager).findBetter(goalType, originalValue, target, increase,
+                                                                          SWAP_CANDIDATES, originalItem.getId());
+        }
+
         // If no candidates found, return null
         if (candidates.isEmpty()) {
             return null;
         }
-        
-        // Sort candidates by nutrient value (best first for increase, worst first for decrease)
-        candidates.sort((a, b) -> {
-            double valueA = getNutrientValue(a, goalType);
-            double valueB = getNutrientValue(b, goalType);
-            return userGoal.isIncrease() ? 
-                Double.compare(valueB, valueA) : // Higher values first for increase
-                Double.compare(valueA, valueB);  // Lower values first for decrease
-        });
-        
-        // Return the best candidate (or randomly select from top 5 for variety)
-        int topCount = Math.min(5, candidates.size());
-        int randomIndex = new Random().nextInt(topCount);
-        return candidates.get(randomIndex);
+
+        // Randomly select from the best candidates for variety
+        int randomIndex = new Random().nextInt(candidates.size());
+        FoodItem replacement = dbManager.loadFoodItem(candidates.get(randomIndex));
+        return replacement != null ? replacement.adjustForQuantity(originalItem.getGrams()) : null;
     }
     
     /**
@@ -122,9 +147,9 @@ public class FoodSwapService {
             case CALORIES:
                 return item.calculateCaloriesFromMacros();
             case PROTEIN:
-                return item.getNutrientValue("PROTEIN");
+                return item.getNutrientValue(NutrientRegistry.PROTEIN);
             case FIBRE:
-                return item.getNutrientValue("FIBRE, TOTAL DIETARY");
+                return item.getNutrientValue(NutrientRegistry.FIBRE);
             default:
                 return 0.0;
         }
@@ -153,8 +178,9 @@ public class FoodSwapService {
             String direction = userGoal.isIncrease() ? "increase" : "decrease";
             String unit = getUnitForGoalType(goalType);
             
-            double originalValue = getNutrientValue(originalItem, goalType);
-            double replacementValue = getNutrientValue(replacementItem, goalType);
+            // Compared in the portions eaten
+            double originalValue = getNutrientValue(originalItem, goalType) * originalItem.getPortionScale();
+            double replacementValue = getNutrientValue(replacementItem, goalType) * replacementItem.getPortionScale();
             double difference = Math.abs(replacementValue - originalValue);
             
             return String.format("This swap will %s your %s intake by %.1f %s", 
@@ -166,9 +192,9 @@ public class FoodSwapService {
                 case CALORIES:
                     return item.calculateCaloriesFromMacros();
                 case PROTEIN:
-                    return item.getNutrientValue("PROTEIN");
+                    return item.getNutrientValue(NutrientRegistry.PROTEIN);
                 case FIBRE:
-                    return item.getNutrientValue("FIBRE, TOTAL DIETARY");
+                    return item.getNutrientValue(NutrientRegistry.FIBRE);
                 default:
                     return 0.0;
             }
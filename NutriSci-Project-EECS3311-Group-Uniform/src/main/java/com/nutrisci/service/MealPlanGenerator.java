@@ -0,0 +1,433 @@
+package com.nutrisci.service;
+
+import com.nutrisci.catalog.CatalogManager;
+import com.nutrisci.catalog.FoodCatalog;
+import com.nutrisci.database.DatabaseManager;
+import com.nutrisci.meal.Breakfast;
+import com.nutrisci.meal.Dinner;
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.Lunch;
+import com.nutrisci.meal.MealType;
+import com.nutrisci.meal.NutrientRegistry;
+import com.nutrisci.meal.Snack;
+import com.nutrisci.model.Goal;
+import com.nutrisci.model.GoalType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Generates daily meal plans that meet calorie, protein and fibre targets.
+ *
+ * Foods are held in a dense matrix of calories, protein and fibre per 100 g.
+ * A day is a set of slots (breakfast, lunch, dinner and snacks, limited by
+ * each meal type's getMaxAllowedPerDay), each holding a few foods with a
+ * portion size. The solver starts from random foods and runs simulated
+ * annealing: each step replaces one food or changes one portion, and keeps
+ * the change if it brings the day closer to the targets (or, early on,
+ * sometimes even if it does not). The error is the squared relative miss on
+ * each daily target plus how far each slot is from its share of calories.
+ *
+ * A day stops after a fixed number of steps or its time budget, whichever
+ * comes first. Days of a week are independent, so they run in parallel.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class MealPlanGenerator {
+    // Columns of the nutrient matrix
+    private static final int CALORIES = 0;
+    private static final int PROTEIN = 1;
+    private static final int FIBRE = 2;
+    private static final int COLUMNS = 3;
+
+    private static final double[] PORTION_GRAMS = { 50, 100, 150, 200, 250 };
+    private static final int MAIN_MEAL_ITEMS = 3;
+    private static final int SNACK_ITEMS = 1;
+    private static final int MAX_STEPS = 20000;
+    private static final double SLOT_SHARE_WEIGHT = 0.5;
+    private static final double START_TEMPERATURE = 0.05;
+
+    // Default daily targets before the user's goal is applied
+    public static final double DEFAULT_CALORIES = 2000;
+    public static final double DEFAULT_PROTEIN = 50;
+    public static final double DEFAULT_FIBRE = 28;
+
+    // Shared generator and the catalog it was built from
+    private static MealPlanGenerator shared;
+    private static Object sharedSource;
+    private static long sharedVersion = -1;
+
+    private final long[] ids;
+    // Per 100 g, COLUMNS values per food
+    private final double[] matrix;
+
+    /**
+     * Build the nutrient matrix from a set of foods. Foods without calories are left out.
+     * @param foods Foods holding at least protein, fat, carbohydrate and fibre
+     */
+    public MealPlanGenerator(Collection<FoodItem> foods) {
+        List<FoodItem> usable = new ArrayList<>(foods.size());
+        for (FoodItem item : foods) {
+            if (calories(item) > 0) {
+                usable.add(item);
+            }
+        }
+
+        ids = new long[usable.size()];
+        matrix = new double[usable.size() * COLUMNS];
+        for (int i = 0; i < ids.length; i++) {
+            FoodItem item = usable.get(i);
+            ids[i] = item.getId();
+            matrix[i * COLUMNS + CALORIES] = calories(item);
+            matrix[i * COLUMNS + PROTEIN] = item.getNutrientOrZero(NutrientRegistry.PROTEIN);
+            matrix[i * COLUMNS + FIBRE] = item.getNutrientOrZero(NutrientRegistry.FIBRE);
+        }
+    }
+
+    private static double calories(FoodItem item) {
+        return item.getNutrientOrZero(NutrientRegistry.PROTEIN) * 4
+             + item.getNutrientOrZero(NutrientRegistry.CARBOHYDRATE) * 4
+             + item.getNutrientOrZero(NutrientRegistry.FAT) * 9;
+    }
+
+    /**
+     * Get the generator for the current catalog, building the matrix once per catalog version
+     * @param db The database to read from when there is no snapshot
+     */
+    public static synchronized MealPlanGenerator forCatalog(DatabaseManager db) {
+        FoodCatalog catalog = CatalogManager.getInstance().getCatalog();
+        Object source = catalog != null ? catalog : db;
+        long version = db.getCatalogVersion();
+        if (shared == null || sharedSource != source || sharedVersion != version) {
+            shared = new MealPlanGenerator(FoodRankingIndex.loadGoalFoods(catalog, db));
+            sharedSource = source;
+            sharedVersion = version;
+        }
+        return shared;
+    }
+
+    /**
+     * Daily targets for a goal: the defaults, with the goal's nutrient moved by its percentage
+     * @param goal The user's goal, or null for the defaults
+     */
+    public static Targets targetsFor(Goal goal) {
+        double calories = DEFAULT_CALORIES;
+        double protein = DEFAULT_PROTEIN;
+        double fibre = DEFAULT_FIBRE;
+        if (goal != null) {
+            double factor = 1 + (goal.isIncrease() ? 1 : -1) * goal.getPercent() / 100.0;
+            if (goal.getType() == GoalType.CALORIES) {
+                calories *= factor;
+            } else if (goal.getType() == GoalType.PROTEIN) {
+                protein *= factor;
+            } else if (goal.getType() == GoalType.FIBRE) {
+                fibre *= factor;
+            }
+        }
+        return new Targets(calories, protein, fibre, 1);
+    }
+
+    /**
+     * Generate one day
+     * @param date The day to plan
+     * @param targets Daily targets and number of snacks
+     * @param budgetMillis Time allowed for this day
+     * @return The plan closest to the targets found in time
+     */
+    public DayPlan generateDay(LocalDate date, Targets targets, long budgetMillis) {
+        return new Solver(targets, date.toEpochDay(), budgetMillis).solve(date);
+    }
+
+    /**
+     * Generate seven consecutive days, one per core at a time
+     * @param start The first day to plan
+     * @param targets Daily targets and number of snacks
+     * @param budgetMillisPerDay Time allowed for each day
+     * @return One plan per day, in date order
+     */
+    public List<DayPlan> generateWeek(LocalDate start, Targets targets, long budgetMillisPerDay) {
+        return IntStream.range(0, 7)
+            .parallel()
+            .mapToObj(offset -> generateDay(start.plusDays(offset), targets, budgetMillisPerDay))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the number of foods the generator can choose from
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * The slots of a day, with each meal type's share of the calories
+     */
+    private static List<SlotSpec> daySlots(int snacks) {
+        List<SlotSpec> slots = new ArrayList<>();
+        Breakfast breakfast = new Breakfast();
+        Lunch lunch = new Lunch();
+        Dinner dinner = new Dinner();
+        Snack snack = new Snack();
+        addSlots(slots, MealType.BREAKFAST, 1, breakfast.getMaxAllowedPerDay(), breakfast.getRecommendedCaloriesPercentage(), MAIN_MEAL_ITEMS);
+        addSlots(slots, MealType.LUNCH, 1, lunch.getMaxAllowedPerDay(), lunch.getRecommendedCaloriesPercentage(), MAIN_MEAL_ITEMS);
+        addSlots(slots, MealType.DINNER, 1, dinner.getMaxAllowedPerDay(), dinner.getRecommendedCaloriesPercentage(), MAIN_MEAL_ITEMS);
+        addSlots(slots, MealType.SNACK, snacks, snack.getMaxAllowedPerDay(), snack.getRecommendedCaloriesPercentage(), SNACK_ITEMS);
+
+        // Extra snacks push the shares past 100%; scale them back
+        double total = 0;
+        for (SlotSpec slot : slots) {
+            total += slot.share;
+        }
+        for (SlotSpec slot : slots) {
+            slot.share /= total;
+        }
+        return slots;
+    }
+
+    private static void addSlots(List<SlotSpec> slots, MealType type, int wanted, int maxAllowed, double share, int items) {
+        int count = maxAllowed >= 0 ? Math.min(wanted, maxAllowed) : wanted;
+        for (int i = 0; i < count; i++) {
+            slots.add(new SlotSpec(type, share, items));
+        }
+    }
+
+    /**
+     * Annealing state for one day
+     */
+    private class Solver {
+        private final Targets targets;
+        private final Random random;
+        private final long deadline;
+        private final List<SlotSpec> slots;
+        private final double[] target;
+
+        // Chosen food row and portion index per position, and the slot of each position
+        private final int[] food;
+        private final int[] portion;
+        private final int[] slotOf;
+        private final double[] totals = new double[COLUMNS];
+        private final double[] slotCalories;
+
+        Solver(Targets targets, long seed, long budgetMillis) {
+            this.targets = targets;
+            this.random = new Random(seed);
+            this.deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+            this.slots = daySlots(targets.getSnacks());
+            this.target = new double[] { targets.getCalories(), targets.getProtein(), targets.getFibre() };
+
+            int positions = 0;
+            for (SlotSpec slot : slots) {
+                positions += slot.items;
+            }
+            food = new int[positions];
+            portion = new int[positions];
+            slotOf = new int[positions];
+            slotCalories = new double[slots.size()];
+        }
+
+        DayPlan solve(LocalDate date) {
+            if (ids.length == 0) {
+                return new DayPlan(date, Collections.emptyList(), new double[COLUMNS], targets);
+            }
+
+            int position = 0;
+            for (int s = 0; s < slots.size(); s++) {
+                for (int i = 0; i < slots.get(s).items; i++, position++) {
+                    slotOf[position] = s;
+                    food[position] = random.nextInt(ids.length);
+                    portion[position] = 1;
+                    apply(position, 1);
+                }
+            }
+
+            double error = error();
+            int[] bestFood = food.clone();
+            int[] bestPortion = portion.clone();
+            double bestError = error;
+
+            for (int step = 0; step < MAX_STEPS; step++) {
+                if ((step & 255) == 0 && System.nanoTime() >= deadline) {
+                    break;
+                }
+                int at = random.nextInt(food.length);
+                int oldFood = food[at];
+                int oldPortion = portion[at];
+
+                apply(at, -1);
+                if (random.nextBoolean()) {
+                    food[at] = random.nextInt(ids.length);
+                } else {
+                    portion[at] = random.nextInt(PORTION_GRAMS.length);
+                }
+                if (food[at] != oldFood && isUsedElsewhere(at)) {
+                    food[at] = oldFood;
+                }
+                apply(at, 1);
+
+                double candidate = error();
+                double temperature = START_TEMPERATURE * (1 - (double) step / MAX_STEPS);
+                if (candidate <= error || random.nextDouble() < Math.exp((error - candidate) / Math.max(temperature, 1e-9))) {
+                    error = candidate;
+                    if (error < bestError) {
+                        bestError = error;
+                        bestFood = food.clone();
+                        bestPortion = portion.clone();
+                    }
+                } else {
+                    apply(at, -1);
+                    food[at] = oldFood;
+                    portion[at] = oldPortion;
+                    apply(at, 1);
+                }
+            }
+
+            return plan(date, bestFood, bestPortion);
+        }
+
+        /** Add (sign 1) or remove (sign -1) a position's food from the totals */
+        private void apply(int at, int sign) {
+            double grams = PORTION_GRAMS[portion[at]];
+            int row = food[at] * COLUMNS;
+            for (int k = 0; k < COLUMNS; k++) {
+                totals[k] += sign * matrix[row + k] * grams / 100;
+            }
+            slotCalories[slotOf[at]] += sign * matrix[row + CALORIES] * grams / 100;
+        }
+
+        private boolean isUsedElsewhere(int at) {
+            for (int i = 0; i < food.length; i++) {
+                if (i != at && food[i] == food[at]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private double error() {
+            double error = 0;
+            for (int k = 0; k < COLUMNS; k++) {
+                double miss = (totals[k] - target[k]) / target[k];
+                error += miss * miss;
+            }
+            for (int s = 0; s < slots.size(); s++) {
+                double miss = (slotCalories[s] - slots.get(s).share * target[CALORIES]) / target[CALORIES];
+                error += SLOT_SHARE_WEIGHT * miss * miss;
+            }
+            return error;
+        }
+
+        private DayPlan plan(LocalDate date, int[] chosenFood, int[] chosenPortion) {
+            List<PlannedMeal> meals = new ArrayList<>();
+            double[] dayTotals = new double[COLUMNS];
+            int position = 0;
+            for (SlotSpec slot : slots) {
+                long[] foodIds = new long[slot.items];
+                double[] grams = new double[slot.items];
+                for (int i = 0; i < slot.items; i++, position++) {
+                    foodIds[i] = ids[chosenFood[position]];
+                    grams[i] = PORTION_GRAMS[chosenPortion[position]];
+                    for (int k = 0; k < COLUMNS; k++) {
+                        dayTotals[k] += matrix[chosenFood[position] * COLUMNS + k] * grams[i] / 100;
+                    }
+                }
+                meals.add(new PlannedMeal(slot.type, foodIds, grams));
+            }
+            return new DayPlan(date, meals, dayTotals, targets);
+        }
+    }
+
+    private static class SlotSpec {
+        private final MealType type;
+        private double share;
+        private final int items;
+
+        SlotSpec(MealType type, double share, int items) {
+            this.type = type;
+            this.share = share;
+            this.items = items;
+        }
+    }
+
+    /**
+     * Daily nutrient targets and the number of snacks to plan
+     */
+    public static class Targets {
+        private final double calories;
+        private final double protein;
+        private final double fibre;
+        private final int snacks;
+
+        public Targets(double calories, double protein, double fibre, int snacks) {
+            this.calories = calories;
+            this.protein = protein;
+            this.fibre = fibre;
+            this.snacks = snacks;
+        }
+
+        public double getCalories() { return calories; }
+        public double getProtein() { return protein; }
+        public double getFibre() { return fibre; }
+        public int getSnacks() { return snacks; }
+    }
+
+    /**
+     * One planned meal: its type and each food with a portion in grams
+     */
+    public static class PlannedMeal {
+        private final MealType mealType;
+        private final long[] foodIds;
+        private final double[] grams;
+
+        public PlannedMeal(MealType mealType, long[] foodIds, double[] grams) {
+            this.mealType = mealType;
+            this.foodIds = foodIds;
+            this.grams = grams;
+        }
+
+        public MealType getMealType() { return mealType; }
+        public long[] getFoodIds() { return foodIds.clone(); }
+        public double[] getGrams() { return grams.clone(); }
+    }
+
+    /**
+     * A planned day and how close it comes to the targets
+     */
+    public static class DayPlan {
+        private final LocalDate date;
+        private final List<PlannedMeal> meals;
+        private final double[] totals;
+        private final Targets targets;
+
+        public DayPlan(LocalDate date, List<PlannedMeal> meals, double[] totals, Targets targets) {
+            this.date = date;
+            this.meals = meals;
+            this.totals = totals;
+            this.targets = targets;
+        }
+
+        public LocalDate getDate() { return date; }
+        public List<PlannedMeal> getMeals() { return meals; }
+        public double getCalories() { return totals[CALORIES]; }
+        public double getProtein() { return totals[PROTEIN]; }
+        public double getFibre() { return totals[FIBRE]; }
+        public Targets getTargets() { return targets; }
+
+        /** Every food ID in the plan, for loading them in one call */
+        public List<Long> getAllFoodIds() {
+            List<Long> foodIds = new ArrayList<>();
+            for (PlannedMeal meal : meals) {
+                for (long foodId : meal.foodIds) {
+                    foodIds.add(foodId);
+                }
+            }
+            return foodIds;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.nutrisci.service;
+
+import com.nutrisci.database.DatabaseManager;
+import com.nutrisci.model.Goal;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Service for suggesting meal plans that meet the user's daily targets
+public class MealPlanService {
+    // Time the generator gets per planned day
+    public static final long DAY_BUDGET_MILLIS = 150;
+    // Snacks planned on top of breakfast, lunch and dinner
+    private static final int SNACKS = 1;
+
+    private final Supplier<MealPlanGenerator> generator;
+
+    public MealPlanService() {
+        DatabaseManager dbManager = DatabaseManager.getInstance();
+        this.generator = () -> MealPlanGenerator.forCatalog(dbManager);
+    }
+
+    /**
+     * Create a service over a given generator (used by tests)
+     */
+    MealPlanService(Supplier<MealPlanGenerator> generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Suggest a day of meals for the user's goal. Blocks while the food matrix
+     * is built the first time, so call it off the EDT.
+     * @param userGoal User's nutrition goal, or null for the default targets
+     * @param date The day to plan
+     * @return The planned meals with their foods and portions
+     */
+    public MealPlanGenerator.DayPlan suggestDay(Goal userGoal, LocalDate date) {
+        return generator.get().generateDay(date, targets(userGoal), DAY_BUDGET_MILLIS);
+    }
+
+    /**
+     * Suggest seven days of meals starting on a date, planned in parallel
+     * @param userGoal User's nutrition goal, or null for the default targets
+     * @param start The first day to plan
+     * @return One plan per day, in date order
+     */
+    public List<MealPlanGenerator.DayPlan> suggestWeek(Goal userGoal, LocalDate start) {
+        return generator.get().generateWeek(start, targets(userGoal), DAY_BUDGET_MILLIS);
+    }
+
+    private static MealPlanGenerator.Targets targets(Goal userGoal) {
+        MealPlanGenerator.Targets targets = MealPlanGenerator.targetsFor(userGoal);
+        return new MealPlanGenerator.Targets(targets.getCalories(), targets.getProtein(), targets.getFibre(), SNACKS);
+    }
+}
@@ -0,0 +1,250 @@
+package com.nutrisci.service;
+
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.model.Goal;
+import com.nutrisci.model.GoalType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds the smallest set of swaps across a whole meal that reaches a goal.
+ *
+ * Every item gets a few candidate replacements from the similarity index
+ * (foods with a similar nutrient profile that improve the goal nutrient).
+ * A beam search then decides, item by item, whether to keep the food or use
+ * one of its candidates. A replacement keeps the portion of the food it
+ * replaces, so values are compared per portion (getGrams). Plans are ranked by how far they still are from the
+ * goal and by their cost: one point per swap plus a small charge for how
+ * different each replacement is. Plans that already reach the goal are not
+ * extended, and partial plans that cost more than the best one found are dropped.
+ *
+ * The search checks a deadline between items and returns the best plan found
+ * so far when it runs out of time.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class MealSwapOptimizer {
+    private static final double DISTANCE_COST = 0.1;
+    private static final double SHORTFALL_COST = 100.0;
+
+    private final FoodSimilarityIndex index;
+    private final int candidatesPerItem;
+    private final int beamWidth;
+
+    /**
+     * @param index Similarity index to draw replacements from
+     * @param candidatesPerItem Number of replacements considered for each item
+     * @param beamWidth Number of partial plans kept after each item
+     */
+    public MealSwapOptimizer(FoodSimilarityIndex index, int candidatesPerItem, int beamWidth) {
+        this.index = index;
+        this.candidatesPerItem = candidatesPerItem;
+        this.beamWidth = beamWidth;
+    }
+
+    /**
+     * Plan swaps so the meal's total for the goal nutrient changes by the goal percentage
+     * @param items Foods in the meal
+     * @param goal The user's goal
+     * @param budgetMillis Time allowed for the search
+     * @return The cheapest plan reaching the goal, or the plan closest to it
+     */
+    public Plan optimize(List<FoodItem> items, Goal goal, long budgetMillis) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+        GoalType goalType = goal.getType();
+        boolean increase = goal.isIncrease();
+        int size = items.size();
+
+        // Per 100 g values for the index, and each item's portion to scale them by
+        double originalTotal = 0;
+        double[] perHundred = new double[size];
+        double[] scale = new double[size];
+        for (int i = 0; i < size; i++) {
+            double value = FoodRankingIndex.valueOf(items.get(i), goalType);
+            perHundred[i] = Double.isNaN(value) ? 0 : value;
+            scale[i] = items.get(i).getPortionScale();
+            originalTotal += perHundred[i] * scale[i];
+        }
+        // Improvement needed, always positive so an empty meal or zero total still needs a real change
+        double needed = Math.max(Math.abs(originalTotal) * goal.getPercent() / 100.0, 1e-9);
+
+        // Candidate replacements, as the improvement each one brings
+        List<List<FoodSimilarityIndex.Match>> options = new ArrayList<>(size);
+        double[] bestGain = new double[size];
+        boolean complete = true;
+        for (int i = 0; i < size; i++) {
+            List<FoodSimilarityIndex.Match> matches = Collections.emptyList();
+            if (System.nanoTime() < deadline) {
+                matches = index.findSimilarMatches(items.get(i), goalType, perHundred[i], perHundred[i], increase,
+                                                   false, candidatesPerItem);
+            } else {
+                complete = false;
+            }
+            options.add(matches);
+            for (FoodSimilarityIndex.Match match : matches) {
+                bestGain[i] = Math.max(bestGain[i], gain(match, perHundred[i], scale[i], increase));
+            }
+        }
+
+        // Items that can help the most are decided first
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(bestGain[b], bestGain[a]));
+
+        State closest = new State(size);
+        State best = null;
+        List<State> beam = new ArrayList<>();
+        beam.add(closest);
+        Comparator<State> byPriority = Comparator.comparingDouble(s -> s.cost + SHORTFALL_COST * (needed - s.gain) / needed);
+
+        for (int item : order) {
+            if (beam.isEmpty()) {
+                break;
+            }
+            if (System.nanoTime() >= deadline) {
+                complete = false;
+                break;
+            }
+
+            List<State> next = new ArrayList<>(beam);
+            for (State state : beam) {
+                List<FoodSimilarityIndex.Match> matches = options.get(item);
+                for (int m = 0; m < matches.size(); m++) {
+                    FoodSimilarityIndex.Match match = matches.get(m);
+                    State swapped = state.swap(item, m, gain(match, perHundred[item], scale[item], increase),
+                                               1 + DISTANCE_COST * match.getDistance());
+                    if (swapped.gain >= needed) {
+                        if (best == null || swapped.cost < best.cost) {
+                            best = swapped;
+                        }
+                    } else {
+                        next.add(swapped);
+                    }
+                    if (swapped.gain > closest.gain) {
+                        closest = swapped;
+                    }
+                }
+            }
+
+            // Drop partial plans that already cost more than a finished one
+            if (best != null) {
+                double bound = best.cost;
+                next.removeIf(s -> s.cost >= bound);
+            }
+            next.sort(byPriority);
+            beam = next.size() > beamWidth ? new ArrayList<>(next.subList(0, beamWidth)) : next;
+        }
+
+        State chosen = best != null ? best : closest;
+        List<Swap> swaps = new ArrayList<>();
+        double newTotal = originalTotal;
+        for (int i = 0; i < size; i++) {
+            if (chosen.choice[i] >= 0) {
+                FoodSimilarityIndex.Match match = options.get(i).get(chosen.choice[i]);
+                double original = perHundred[i] * scale[i];
+                double replacement = match.getGoalValue() * scale[i];
+                swaps.add(new Swap(i, match.getFoodId(), original, replacement));
+                newTotal += replacement - original;
+            }
+        }
+        return new Plan(swaps, originalTotal, newTotal, best != null, complete);
+    }
+
+    /**
+     * Improvement a replacement brings at the replaced item's portion
+     */
+    private static double gain(FoodSimilarityIndex.Match match, double perHundred, double scale, boolean increase) {
+        double change = (match.getGoalValue() - perHundred) * scale;
+        return increase ? change : -change;
+    }
+
+    /**
+     * A partial plan: the replacement chosen for each decided item (-1 keeps it)
+     */
+    private static class State {
+        private final int[] choice;
+        private final double gain;
+        private final double cost;
+
+        State(int size) {
+            choice = new int[size];
+            Arrays.fill(choice, -1);
+            gain = 0;
+            cost = 0;
+        }
+
+        private State(int[] choice, double gain, double cost) {
+            this.choice = choice;
+            this.gain = gain;
+            this.cost = cost;
+        }
+
+        State swap(int item, int option, double gainDelta, double costDelta) {
+            int[] copy = choice.clone();
+            copy[item] = option;
+            return new State(copy, gain + gainDelta, cost + costDelta);
+        }
+    }
+
+    /**
+     * One replacement in a plan
+     */
+    public static class Swap {
+        private final int itemIndex;
+        private final long replacementFoodId;
+        private final double originalValue;
+        private final double replacementValue;
+
+        public Swap(int itemIndex, long replacementFoodId, double originalValue, double replacementValue) {
+            this.itemIndex = itemIndex;
+            this.replacementFoodId = replacementFoodId;
+            this.originalValue = originalValue;
+            this.replacementValue = replacementValue;
+        }
+
+        /** Position of the replaced food in the meal's item list */
+        public int getItemIndex() { return itemIndex; }
+        public long getReplacementFoodId() { return replacementFoodId; }
+        /** Goal value of the replaced food at its portion */
+        public double getOriginalValue() { return originalValue; }
+        /** Goal value of the replacement at the same portion */
+        public double getReplacementValue() { return replacementValue; }
+    }
+
+    /**
+     * The swaps chosen for a meal and their effect on the goal nutrient
+     */
+    public static class Plan {
+        private final List<Swap> swaps;
+        private final double originalTotal;
+        private final double newTotal;
+        private final boolean goalReached;
+        private final boolean complete;
+
+        public Plan(List<Swap> swaps, double originalTotal, double newTotal, boolean goalReached, boolean complete) {
+            this.swaps = swaps;
+            this.originalTotal = originalTotal;
+            this.newTotal = newTotal;
+            this.goalReached = goalReached;
+            this.complete = complete;
+        }
+
+        /** Swaps in meal order; empty if nothing improves the meal */
+        public List<Swap> getSwaps() { return swaps; }
+        public double getOriginalTotal() { return originalTotal; }
+        public double getNewTotal() { return newTotal; }
+
+        /** Whether the swaps change the total by at least the goal percentage */
+        public boolean isGoalReached() { return goalReached; }
+
+        /** False if the time budget ran out before every item was considered */
+        public boolean isComplete() { return complete; }
+    }
+}
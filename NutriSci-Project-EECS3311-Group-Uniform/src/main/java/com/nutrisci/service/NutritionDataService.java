@@ -1,27 +1,28 @@
 package com.nutrisci.service;
 
-import com.nutrisci.calculator.NutritionalCalculator;
+import com.nutrisci.calculator.NutrientAccumulator;
 import com.nutrisci.calculator.NutritionalData;
-import com.nutrisci.database.DatabaseManager;
-import com.nutrisci.meal.Meal;
+import com.nutrisci.meal.DailyNutritionStore;
+import com.nutrisci.meal.MealType;
+import com.nutrisci.meal.NutritionRollups;
 import com.nutrisci.model.GoalType;
 import com.nutrisci.util.UserSessionManager;
 import com.nutrisci.model.User;
 
 import java.time.LocalDate;
 import java.util.HashMap;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
-// Service to fetch nutrition data for charts
+// Service to fetch nutrition data for charts, read from the shared DailyNutritionStore
 public class NutritionDataService {
-    private DatabaseManager dbManager;
-    private NutritionalCalculator calculator;
+    private DailyNutritionStore dailyNutritionStore;
+    private NutritionRollups nutritionRollups;
     private UserSessionManager userSessionManager;
     
     public NutritionDataService() {
-        this.dbManager = DatabaseManager.getInstance();
-        this.calculator = new NutritionalCalculator();
+        this.dailyNutritionStore = DailyNutritionStore.getInstance();
+        this.nutritionRollups = NutritionRollups.getInstance();
         this.userSessionManager = UserSessionManager.getInstance();
     }
     
@@ -46,78 +47,58 @@ public class NutritionDataService {
             return data; // Return empty data if no user logged in
         }
         
-        // Get meals for today
-        List<Meal> meals = dbManager.getMealsForUser(userId, today, today);
-        
-        // Group by meal type and calculate totals
-        Map<String, NutritionalData> mealTypeTotals = new HashMap<>();
-        
-        for (Meal meal : meals) {
-            String mealType = meal.getMealType().toString();
-            NutritionalData mealNutrition = calculator.calculateMealNutrition(meal.getFoodItems());
-            
-            if (mealTypeTotals.containsKey(mealType)) {
-                mealTypeTotals.put(mealType, mealTypeTotals.get(mealType).add(mealNutrition));
-            } else {
-                mealTypeTotals.put(mealType, mealNutrition);
-            }
-        }
+        // Today's totals by meal type, kept current by meal events
+        Map<MealType, NutrientAccumulator> mealTypeTotals = dailyNutritionStore.getMealTypeTotals(userId, today);
         
         // Extract the specific nutrient data
-        for (Map.Entry<String, NutritionalData> entry : mealTypeTotals.entrySet()) {
+        for (Map.Entry<MealType, NutrientAccumulator> entry : mealTypeTotals.entrySet()) {
             double value = getNutrientValue(entry.getValue(), nutrientType);
-            data.put(entry.getKey(), value);
+            data.put(entry.getKey().toString(), value);
         }
         
         return data;
     }
     
     /**
-     * Get monthly nutrition data for a specific nutrient
+     * Get monthly nutrition data for a specific nutrient, by ISO week
      */
     public Map<String, Double> getMonthlyNutritionData(GoalType nutrientType) {
-        Map<String, Double> data = new HashMap<>();
+        return getNutritionData(nutrientType, TimeRange.THIS_MONTH);
+    }
+    
+    /**
+     * Get nutrition data for a specific nutrient over a time range, one entry per
+     * meal type (today) or per bucket of the range's resolution, in date order
+     */
+    public Map<String, Double> getNutritionData(GoalType nutrientType, TimeRange timeRange) {
+        if (timeRange == TimeRange.TODAY) {
+            return getDailyNutritionData(nutrientType);
+        }
+        Map<String, Double> data = new LinkedHashMap<>();
         LocalDate today = LocalDate.now();
-        LocalDate startOfMonth = today.withDayOfMonth(1);
         
         long userId = getCurrentUserId();
         if (userId == 0) {
             return data; // Return empty data if no user logged in
         }
         
-        // Get meals for the current month
-        List<Meal> meals = dbManager.getMealsForUser(userId, startOfMonth, today);
-        
-        // Group by week and calculate totals
-        Map<String, NutritionalData> weekTotals = new HashMap<>();
-        
-        for (Meal meal : meals) {
-            LocalDate mealDate = meal.getCreatedAt() != null ? 
-                meal.getCreatedAt().toLocalDate() : LocalDate.now();
-            String weekKey = getWeekKey(mealDate);
-            
-            NutritionalData mealNutrition = calculator.calculateMealNutrition(meal.getFoodItems());
-            
-            if (weekTotals.containsKey(weekKey)) {
-                weekTotals.put(weekKey, weekTotals.get(weekKey).add(mealNutrition));
-            } else {
-                weekTotals.put(weekKey, mealNutrition);
-            }
-        }
+        // Precomputed bucket totals, so long ranges cost one entry per bucket
+        NutritionRollups.Resolution resolution = timeRange.getResolution();
+        Map<LocalDate, NutritionalData> totals = nutritionRollups.getTotals(userId, resolution, timeRange.getStartDate(today), today);
         
         // Extract the specific nutrient data
-        for (Map.Entry<String, NutritionalData> entry : weekTotals.entrySet()) {
-            double value = getNutrientValue(entry.getValue(), nutrientType);
-            data.put(entry.getKey(), value);
+        for (Map.Entry<LocalDate, NutritionalData> entry : totals.entrySet()) {
+            double value = getNutrientValue(new NutrientAccumulator().add(entry.getValue()), nutrientType);
+            data.put(resolution.label(entry.getKey()), value);
         }
         
         return data;
     }
     
     /**
-     * Get the nutrient value from NutritionalData based on GoalType
+     * Get the nutrient value from the accumulated totals based on GoalType
      */
-    private double getNutrientValue(NutritionalData data, GoalType nutrientType) {
+    private double getNutrientValue(NutrientAccumulator data, GoalType nutrientType) {
         switch (nutrientType) {
             case CALORIES:
                 return data.getCalories();
@@ -130,14 +111,6 @@ public class NutritionDataService {
         }
     }
     
-    /**
-     * Get week key for grouping (e.g., "Week 1", "Week 2")
-     */
-    private String getWeekKey(LocalDate date) {
-        int weekOfMonth = ((date.getDayOfMonth() - 1) / 7) + 1;
-        return "Week " + weekOfMonth;
-    }
-    
     /**
      * Get the unit label for a nutrient type
      */
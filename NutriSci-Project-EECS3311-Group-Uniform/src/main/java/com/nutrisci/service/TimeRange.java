@@ -0,0 +1,67 @@
+package com.nutrisci.service;
+
+import com.nutrisci.meal.NutritionRollups;
+
+import java.time.LocalDate;
+
+/**
+ * The ranges the home page chart can show, with the bucket size each is
+ * drawn in
+ */
+public enum TimeRange {
+    TODAY("Daily", "Today", null),
+    THIS_MONTH("Monthly", "This Month", NutritionRollups.Resolution.WEEK),
+    LAST_90_DAYS("90 Days", "Last 90 Days", NutritionRollups.Resolution.WEEK),
+    LAST_YEAR("Yearly", "Last 12 Months", NutritionRollups.Resolution.MONTH),
+    ALL_TIME("All Time", "All Time", NutritionRollups.Resolution.YEAR);
+    
+    private final String buttonLabel;
+    private final String title;
+    private final NutritionRollups.Resolution resolution;
+    
+    TimeRange(String buttonLabel, String title, NutritionRollups.Resolution resolution) {
+        this.buttonLabel = buttonLabel;
+        this.title = title;
+        this.resolution = resolution;
+    }
+    
+    public String getButtonLabel() {
+        return buttonLabel;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    /**
+     * The bucket size of the chart, or null for today's chart by meal type
+     */
+    public NutritionRollups.Resolution getResolution() {
+        return resolution;
+    }
+    
+    /**
+     * The first day of the range ending today, or null for all time
+     */
+    public LocalDate getStartDate(LocalDate today) {
+        switch (this) {
+            case THIS_MONTH:
+                return today.withDayOfMonth(1);
+            case LAST_90_DAYS:
+                return today.minusDays(89);
+            case LAST_YEAR:
+                return today.minusMonths(11).withDayOfMonth(1);
+            case ALL_TIME:
+                return null;
+            default:
+                return today;
+        }
+    }
+    
+    /**
+     * The range the time range button switches to next
+     */
+    public TimeRange next() {
+        return values()[(ordinal() + 1) % values().length];
+    }
+}
@@ -128,38 +128,27 @@ public class GoalDialog extends JDialog {
             
             // Calculate total nutrition for today
             com.nutrisci.calculator.NutritionalCalculator calculator = new com.nutrisci.calculator.NutritionalCalculator();
-            com.nutrisci.calculator.NutritionalData totalNutrition = new com.nutrisci.calculator.NutritionalData(0, 0, 0, 0, 0);
-            com.nutrisci.calculator.NutritionalData resultNutrition = totalNutrition;
-
-            for (com.nutrisci.meal.Meal meal : todaysMeals) {
-                resultNutrition = totalNutrition.add(calculator.calculateMealNutrition(meal.getFoodItems()));
-            }
+            com.nutrisci.calculator.NutritionalData resultNutrition = calculator.calculateTotalNutrition(todaysMeals);
             
-            // Calculate progress based on goal type
+            // Calculate progress against the daily reference amount of the goal's nutrient
             double currentValue = 0.0;
-            double targetValue = 0.0;
+            double targetValue = calculator.getDailyReference(goal.getType());
             
             switch (goal.getType()) {
                 case CALORIES:
                     currentValue = resultNutrition.getCalories();
-                    // For demo purposes, assume target is 2000 calories
-                    targetValue = 2000.0;
                     break;
                 case PROTEIN:
                     currentValue = resultNutrition.getProtein();
-                    // For demo purposes, assume target is 50g protein
-                    targetValue = 50.0;
                     break;
                 case FIBRE:
                     currentValue = resultNutrition.getFiber();
-                    // For demo purposes, assume target is 25g fiber
-                    targetValue = 25.0;
                     break;
                 default:
                     return 0.0;
             }
             
-            if (targetValue == 0) {
+            if (!(targetValue > 0)) {
                 return 0.0;
             }
             
@@ -6,9 +6,17 @@ import java.awt.event.ActionListener;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.CategoryPlot;
 import org.jfree.data.category.DefaultCategoryDataset;
+import com.nutrisci.database.AsyncDatabaseAdapter;
+import com.nutrisci.database.DatabaseAdapterManager;
 import com.nutrisci.model.GoalType;
 import com.nutrisci.service.NutritionDataService;
+import com.nutrisci.service.TimeRange;
+import com.nutrisci.util.SwingBackgroundLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
 
 // Simple home/profile page panel
@@ -22,8 +30,15 @@ public class HomePagePanel extends JPanel {
     private JComboBox<GoalType> nutrientComboBox;
     private JButton timeRangeButton;
     private ChartPanel chartPanel;
-    private boolean showDaily = true;
+    private TimeRange timeRange = TimeRange.TODAY;
     private NutritionDataService nutritionService;
+    private JFreeChart chart;
+    private DefaultCategoryDataset dataset;
+    // Chart data is fetched off the EDT, on the async database pool
+    private final SwingBackgroundLoader chartLoader = new SwingBackgroundLoader();
+    private final AsyncDatabaseAdapter async = DatabaseAdapterManager.getInstance().getAsyncAdapter();
+    private static final String CHART_KEY = "chart";
+    private static final String PREFETCH_KEY = "chart:";
 
     public HomePagePanel(String userNameOrEmail) {
         nutritionService = new NutritionDataService();
@@ -55,6 +70,7 @@ public class HomePagePanel extends JPanel {
         
         // Chart section
         setupChartSection();
+        prefetchTimeRanges();
     }
     
     private void setupChartSection() {
@@ -70,7 +86,7 @@ public class HomePagePanel extends JPanel {
         chartControlsPanel.add(nutrientComboBox);
         
         // Time range button
-        timeRangeButton = new JButton("Daily");
+        timeRangeButton = new JButton(timeRange.getButtonLabel());
         chartControlsPanel.add(timeRangeButton);
         
         add(chartControlsPanel);
@@ -85,62 +101,86 @@ public class HomePagePanel extends JPanel {
         // Add listeners
         nutrientComboBox.addActionListener(e -> updateChart());
         timeRangeButton.addActionListener(e -> toggleTimeRange());
+        updateChart();
     }
     
     private ChartPanel createChartPanel() {
         // helped by AI
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        // The chart and its dataset are built once; updateChart refills the dataset
+        dataset = new DefaultCategoryDataset();
+        chart = ChartFactory.createBarChart("", "", "", dataset);
+        applyChartLabels((GoalType) nutrientComboBox.getSelectedItem(), timeRange);
+        return new ChartPanel(chart);
+    }
+    
+    /**
+     * Fetch the selected nutrient and range in the background, then show it.
+     * A newer selection replaces a fetch that has not finished yet.
+     */
+    private void updateChart() {
         GoalType selectedNutrient = (GoalType) nutrientComboBox.getSelectedItem();
+        TimeRange range = timeRange;
         
-        // Get real data from database
-        Map<String, Double> nutritionData;
-        if (showDaily) {
-            nutritionData = nutritionService.getDailyNutritionData(selectedNutrient);
-        } else {
-            nutritionData = nutritionService.getMonthlyNutritionData(selectedNutrient);
-        }
-        
-        // Add data to chart
-        for (Map.Entry<String, Double> entry : nutritionData.entrySet()) {
-            dataset.addValue(entry.getValue(), "Intake", entry.getKey());
+        chartLoader.loadAsync(CHART_KEY, Arrays.asList(selectedNutrient, range),
+                              () -> async.submit(() -> nutritionService.getNutritionData(selectedNutrient, range)),
+                              nutritionData -> showChartData(selectedNutrient, range, nutritionData), null);
+    }
+    
+    /**
+     * Read the other time ranges alongside the first chart, so the rollups are
+     * warm when the user toggles the range
+     */
+    private void prefetchTimeRanges() {
+        GoalType selectedNutrient = (GoalType) nutrientComboBox.getSelectedItem();
+        for (TimeRange range : TimeRange.values()) {
+            if (range != timeRange) {
+                chartLoader.loadAsync(PREFETCH_KEY + range, selectedNutrient,
+                                      () -> async.submit(() -> nutritionService.getNutritionData(selectedNutrient, range)),
+                                      nutritionData -> { }, null);
+            }
         }
-        
-        // If no data, show a message
-        if (nutritionData.isEmpty()) {
-            dataset.addValue(0, "Intake", "No data available");
+    }
+    
+    /**
+     * Put fetched data into the existing dataset. Change events are held back
+     * until everything is in place, so the chart repaints once.
+     */
+    private void showChartData(GoalType selectedNutrient, TimeRange range, Map<String, Double> nutritionData) {
+        chart.setNotify(false);
+        dataset.setNotify(false);
+        try {
+            applyChartLabels(selectedNutrient, range);
+            
+            // If no data, show a message
+            if (nutritionData.isEmpty()) {
+                nutritionData = Collections.singletonMap("No data available", 0.0);
+            }
+            
+            // Same categories in the same order: update the values where they are
+            if (!dataset.getColumnKeys().equals(new ArrayList<>(nutritionData.keySet()))) {
+                dataset.clear();
+            }
+            for (Map.Entry<String, Double> entry : nutritionData.entrySet()) {
+                dataset.setValue(entry.getValue(), "Intake", entry.getKey());
+            }
+        } finally {
+            dataset.setNotify(true);
+            chart.setNotify(true);
         }
-        
-        String title = selectedNutrient.getDisplayName() + " Intake (" + 
-                      (showDaily ? "Today" : "This Month") + ")";
-        String unitLabel = nutritionService.getUnitLabel(selectedNutrient);
-        
-        JFreeChart chart = ChartFactory.createBarChart(
-            title, 
-            showDaily ? "Meal" : "Week", 
-            selectedNutrient.getDisplayName() + " (" + unitLabel + ")", 
-            dataset
-        );
-        
-        return new ChartPanel(chart);
     }
     
-    private void updateChart() {
-        ChartPanel newChartPanel = createChartPanel();
-        newChartPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
-        newChartPanel.setPreferredSize(new Dimension(600, 300));
-        
-        // Replace the old chart panel
-        remove(chartPanel);
-        chartPanel = newChartPanel;
-        add(chartPanel);
+    private void applyChartLabels(GoalType selectedNutrient, TimeRange range) {
+        String unitLabel = nutritionService.getUnitLabel(selectedNutrient);
+        chart.setTitle(selectedNutrient.getDisplayName() + " Intake (" + range.getTitle() + ")");
         
-        revalidate();
-        repaint();
+        CategoryPlot plot = chart.getCategoryPlot();
+        plot.getDomainAxis().setLabel(range.getResolution() == null ? "Meal" : range.getResolution().getDisplayName());
+        plot.getRangeAxis().setLabel(selectedNutrient.getDisplayName() + " (" + unitLabel + ")");
     }
     
     private void toggleTimeRange() {
-        showDaily = !showDaily;
-        timeRangeButton.setText(showDaily ? "Daily" : "Monthly");
+        timeRange = timeRange.next();
+        timeRangeButton.setText(timeRange.getButtonLabel());
         updateChart();
     }
 
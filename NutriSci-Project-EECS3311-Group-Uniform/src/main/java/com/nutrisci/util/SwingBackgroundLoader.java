@@ -0,0 +1,299 @@
+package com.nutrisci.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs slow work (database reads and writes) off the Event Dispatch Thread
+ * and hands the results back to it.
+ *
+ * A load has a key naming what it fills in, e.g. one food label. Starting a
+ * load for a key replaces the previous one: a queued task is cancelled before
+ * it runs and a finished one's result is dropped, so a stale answer never
+ * reaches the UI after the user changed their mind. Asking for the same
+ * request again while it is still pending joins it instead of running twice.
+ * Tasks started with execute have no key and are never cancelled, for writes.
+ *
+ * Finished tasks are queued and delivered to the EDT in batches: one
+ * invokeLater drains every result that is ready, so a burst of loads costs
+ * one trip to the EDT instead of one per item.
+ *
+ * Tasks run one at a time on a single daemon thread, in the order they were
+ * started, so a read started after a write sees the write; the thread exits
+ * after a minute without work. Independent reads that should overlap use
+ * loadAsync with a CompletableFuture (e.g. from AsyncDatabaseAdapter): they
+ * run on that future's own pool, side by side, and are delivered the same way.
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class SwingBackgroundLoader {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final ExecutorService executor;
+    // Pending keyed tasks, guarded by this
+    private final Map<String, Task<?>> pending = new HashMap<>();
+    private final ConcurrentLinkedQueue<Task<?>> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * Create a loader with its own worker thread
+     */
+    public SwingBackgroundLoader() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "nutrisci-ui-loader-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Let the thread exit while idle, so a loader whose panel is not in use costs nothing
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+    }
+
+    /**
+     * Load something in the background, replacing any pending load for the same key
+     * @param key What the load fills in; a newer load for the key drops the older one
+     * @param request What is being loaded; a pending load with an equal request is joined
+     * @param work The blocking work, run on the worker thread
+     * @param onLoaded Receives the result on the EDT
+     * @param onFailed Receives the error on the EDT, or null to print it
+     */
+    public synchronized <T> void load(String key, Object request, Callable<T> work,
+                                      Consumer<T> onLoaded, Consumer<Exception> onFailed) {
+        @SuppressWarnings("unchecked")
+        Task<T> current = (Task<T>) pending.get(key);
+        if (current != null && Objects.equals(current.request, request)) {
+            current.add(onLoaded, onFailed);
+            return;
+        }
+        if (current != null) {
+            // Not interrupted: a JDBC call is left to finish and its result is dropped
+            current.future.cancel(false);
+        }
+
+        Task<T> task = new Task<>(key, request, work);
+        task.add(onLoaded, onFailed);
+        pending.put(key, task);
+        task.future = executor.submit(() -> run(task));
+    }
+
+    /**
+     * Load something that is already asynchronous, replacing any pending load for
+     * the same key. The work is not queued behind this loader's thread, so
+     * several such loads run at the same time.
+     * @param key What the load fills in; a newer load for the key drops the older one
+     * @param request What is being loaded; a pending load with an equal request is joined
+     * @param start Starts the work and returns its future
+     * @param onLoaded Receives the result on the EDT
+     * @param onFailed Receives the error on the EDT, or null to print it
+     */
+    public synchronized <T> void loadAsync(String key, Object request, Supplier<CompletableFuture<T>> start,
+                                           Consumer<T> onLoaded, Consumer<Exception> onFailed) {
+        @SuppressWarnings("unchecked")
+        Task<T> current = (Task<T>) pending.get(key);
+        if (current != null && Objects.equals(current.request, request)) {
+            current.add(onLoaded, onFailed);
+            return;
+        }
+        if (current != null) {
+            current.future.cancel(false);
+        }
+
+        Task<T> task = new Task<>(key, request, null);
+        task.add(onLoaded, onFailed);
+        pending.put(key, task);
+        CompletableFuture<T> future;
+        try {
+            future = start.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        task.future = future;
+        future.whenComplete((result, error) -> complete(task, result, error));
+    }
+
+    /**
+     * Run work in the background that must not be cancelled or merged, such as saving a meal
+     * @param work The blocking work, run on the worker thread
+     * @param onDone Receives the result on the EDT, or null if nothing needs it
+     */
+    public <T> void execute(Callable<T> work, Consumer<T> onDone) {
+        Task<T> task = new Task<>(null, null, work);
+        task.add(onDone, null);
+        task.future = executor.submit(() -> run(task));
+    }
+
+    /**
+     * Drop the pending load for a key, if there is one
+     */
+    public synchronized void cancel(String key) {
+        Task<?> task = pending.remove(key);
+        if (task != null) {
+            task.future.cancel(false);
+        }
+    }
+
+    /**
+     * Drop every pending load whose key starts with a prefix (writes are not affected)
+     */
+    public synchronized void cancelAll(String keyPrefix) {
+        Iterator<Map.Entry<String, Task<?>>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Task<?>> entry = it.next();
+            if (entry.getKey().startsWith(keyPrefix)) {
+                entry.getValue().future.cancel(false);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Check whether any load whose key starts with a prefix has not been delivered yet
+     */
+    public synchronized boolean isLoading(String keyPrefix) {
+        for (String key : pending.keySet()) {
+            if (key.startsWith(keyPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stop the worker thread; queued tasks are discarded
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private synchronized boolean isCurrent(Task<?> task) {
+        return task.key == null || pending.get(task.key) == task;
+    }
+
+    private void run(Task<?> task) {
+        if (!isCurrent(task)) {
+            return;
+        }
+        task.execute();
+        deliverLater(task);
+    }
+
+    /**
+     * Record the outcome of a loadAsync future and queue it for the EDT
+     */
+    private <T> void complete(Task<T> task, T result, Throwable error) {
+        if (!isCurrent(task)) {
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        task.result = result;
+        if (cause != null) {
+            task.error = cause instanceof Exception ? (Exception) cause : new ExecutionException(cause);
+        }
+        deliverLater(task);
+    }
+
+    private void deliverLater(Task<?> task) {
+        finished.add(task);
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    /**
+     * Deliver every finished task in one EDT event, skipping ones that were replaced meanwhile
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        Task<?> task;
+        while ((task = finished.poll()) != null) {
+            synchronized (this) {
+                if (!isCurrent(task)) {
+                    continue;
+                }
+                if (task.key != null) {
+                    pending.remove(task.key);
+                }
+            }
+            task.deliver();
+        }
+    }
+
+    /**
+     * One piece of background work and everyone waiting for its result
+     */
+    private static class Task<T> {
+        private final String key;
+        private final Object request;
+        private final Callable<T> work;
+        private final List<Consumer<T>> onLoaded = new ArrayList<>();
+        private final List<Consumer<Exception>> onFailed = new ArrayList<>();
+        private volatile Future<?> future;
+        private T result;
+        private Exception error;
+
+        Task(String key, Object request, Callable<T> work) {
+            this.key = key;
+            this.request = request;
+            this.work = work;
+        }
+
+        synchronized void add(Consumer<T> loaded, Consumer<Exception> failed) {
+            if (loaded != null) {
+                onLoaded.add(loaded);
+            }
+            if (failed != null) {
+                onFailed.add(failed);
+            }
+        }
+
+        void execute() {
+            try {
+                result = work.call();
+            } catch (Exception e) {
+                error = e;
+            }
+        }
+
+        void deliver() {
+            List<Consumer<T>> loaded;
+            List<Consumer<Exception>> failed;
+            synchronized (this) {
+                loaded = new ArrayList<>(onLoaded);
+                failed = new ArrayList<>(onFailed);
+            }
+            if (error == null) {
+                for (Consumer<T> callback : loaded) {
+                    callback.accept(result);
+                }
+            } else if (failed.isEmpty()) {
+                System.err.println("Background task failed: " + error.getMessage());
+                error.printStackTrace();
+            } else {
+                for (Consumer<Exception> callback : failed) {
+                    callback.accept(error);
+                }
+            }
+        }
+    }
+}
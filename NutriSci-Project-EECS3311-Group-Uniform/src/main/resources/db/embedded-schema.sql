@@ -0,0 +1,95 @@
+-- Schema for the embedded NutriSci database.
+-- Mirrors the tables of the hosted MySQL database so DatabaseManager
+-- runs the same SQL against both.
+
+-- Canadian Nutrient File reference data
+CREATE TABLE IF NOT EXISTS FOOD_GROUP (
+    FoodGroupID INT PRIMARY KEY,
+    FoodGroupCode INT,
+    FoodGroupName VARCHAR(200)
+);
+
+CREATE TABLE IF NOT EXISTS FOOD_NAME (
+    FoodID INT PRIMARY KEY,
+    FoodCode INT,
+    FoodGroupID INT,
+    FoodDescription VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS IDX_FOOD_NAME_GROUP ON FOOD_NAME (FoodGroupID);
+
+CREATE TABLE IF NOT EXISTS NUTRIENT_NAME (
+    NutrientID INT PRIMARY KEY,
+    NutrientCode INT,
+    NutrientSymbol VARCHAR(20),
+    NutrientUnit VARCHAR(10),
+    NutrientName VARCHAR(200)
+);
+
+CREATE TABLE IF NOT EXISTS NUTRIENT_AMOUNT (
+    FoodID INT NOT NULL,
+    NutrientID INT NOT NULL,
+    NutrientValue DOUBLE,
+    PRIMARY KEY (FoodID, NutrientID)
+);
+
+CREATE TABLE IF NOT EXISTS MEASURE_NAME (
+    MeasureID INT PRIMARY KEY,
+    MeasureDescription VARCHAR(200)
+);
+
+CREATE TABLE IF NOT EXISTS CONVERSION_FACTOR (
+    FoodID INT NOT NULL,
+    MeasureID INT NOT NULL,
+    ConversionFactorValue DOUBLE,
+    PRIMARY KEY (FoodID, MeasureID)
+);
+
+-- Application data
+CREATE TABLE IF NOT EXISTS Meal_User (
+    UserID BIGINT PRIMARY KEY,
+    Username VARCHAR(100),
+    Email VARCHAR(255) UNIQUE,
+    UserPassword VARCHAR(100),
+    Gender VARCHAR(20),
+    DoB DATE,
+    Height DOUBLE,
+    Weight DOUBLE,
+    Units VARCHAR(20),
+    GoalType VARCHAR(20),
+    GoalDescription VARCHAR(100)
+);
+
+CREATE TABLE IF NOT EXISTS Meal_Log (
+    MealID BIGINT PRIMARY KEY,
+    UserID BIGINT NOT NULL,
+    MealType VARCHAR(20) NOT NULL,
+    EntryDate DATE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS IDX_MEAL_LOG_USER_DATE ON Meal_Log (UserID, EntryDate);
+
+-- Grams is the portion logged; NULL (rows from before portions) means 100 g
+CREATE TABLE IF NOT EXISTS Meal_Food (
+    MealID BIGINT NOT NULL,
+    FoodID INT NOT NULL,
+    Grams DOUBLE
+);
+
+ALTER TABLE Meal_Food ADD COLUMN IF NOT EXISTS Grams DOUBLE;
+
+CREATE INDEX IF NOT EXISTS IDX_MEAL_FOOD_MEAL ON Meal_Food (MealID);
+
+-- Per-day totals by meal type, maintained by DatabaseManager on every meal write
+CREATE TABLE IF NOT EXISTS Daily_Nutrition_Summary (
+    UserID BIGINT NOT NULL,
+    EntryDate DATE NOT NULL,
+    MealType VARCHAR(20) NOT NULL,
+    MealCount INT NOT NULL,
+    Calories DOUBLE NOT NULL,
+    Protein DOUBLE NOT NULL,
+    Carbs DOUBLE NOT NULL,
+    Fat DOUBLE NOT NULL,
+    Fibre DOUBLE NOT NULL,
+    PRIMARY KEY (UserID, EntryDate, MealType)
+);
@@ -0,0 +1,6 @@
+-- Adds the portion size to each logged food on the hosted MySQL database.
+-- Run once; DatabaseManager stores and reads portions once the column exists.
+-- Rows written before it have Grams = NULL and keep counting as 100 g.
+ALTER TABLE Meal_Food ADD COLUMN Grams DOUBLE NULL;
+
+-- Recompute the per-day totals afterwards with DailySummaryBackfill.
@@ -0,0 +1,127 @@
+package com.nutrisci.calculator;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.Meal;
+import com.nutrisci.meal.NutrientRegistry;
+import com.nutrisci.meal.Snack;
+import com.nutrisci.model.GoalType;
+
+public class NutrientAccumulatorTest {
+
+    private static FoodItem food(long id, double protein, double fat, double carbs) {
+        Map<String, Double> nutrients = new HashMap<>();
+        nutrients.put("PROTEIN", protein);
+        nutrients.put("FAT (TOTAL LIPIDS)", fat);
+        nutrients.put("CARBOHYDRATE, TOTAL (BY DIFFERENCE)", carbs);
+        return new FoodItem(id, "Food " + id, nutrients, "Test");
+    }
+
+    /**
+     * Meals add up across a day, missing nutrients count as zero, and reset allows reuse
+     */
+    @Test
+    public void sumsMeals() {
+        Meal first = new Snack();
+        first.addFoodItem(food(1, 10, 5, 20));
+        Meal second = new Snack();
+        second.addFoodItem(food(2, 2, 1, 30));
+        second.addFoodItem(new FoodItem(3, "Water", new HashMap<>(), "Beverages"));
+
+        NutritionalData day = new NutritionalCalculator().calculateTotalNutrition(Arrays.asList(first, second));
+        assertEquals(12, day.getProtein(), 0.001);
+        assertEquals(50, day.getCarbs(), 0.001);
+        assertEquals(0, day.getFiber(), 0.001);
+        assertEquals(12 * 4 + 50 * 4 + 6 * 9, day.getCalories(), 0.001);
+        assertEquals(day.getCalories(), first.getTotalCalories() + second.getTotalCalories(), 0.001);
+
+        NutrientAccumulator accumulator = new NutrientAccumulator().add(first);
+        accumulator.reset().add(second).add(day);
+        assertEquals(14, accumulator.getProtein(), 0.001);
+    }
+
+    /**
+     * Micronutrients are summed in the same pass and compared with daily values per day
+     */
+    @Test
+    public void fullVectorAndDailyValues() {
+        NutrientRegistry registry = NutrientRegistry.getInstance();
+        int calcium = registry.register(301, "CALCIUM, CA");
+        double[] values = new double[calcium + 1];
+        Arrays.fill(values, Double.NaN);
+        values[NutrientRegistry.PROTEIN] = 25;
+        values[calcium] = 325;
+
+        Meal meal = new Snack();
+        meal.addFoodItem(new FoodItem(10, "Beef", values, "Beef Products"));
+        meal.addFoodItem(new FoodItem(11, "Spinach", values.clone(), "Vegetables"));
+        NutrientAccumulator totals = new NutritionalCalculator().calculateFullNutrition(Arrays.asList(meal, meal));
+
+        assertEquals(1300, totals.getTotal("CALCIUM, CA"), 0.001);
+        assertEquals(0, totals.getTotal("NOT A NUTRIENT"), 0.001);
+
+        DailyReferenceValues.Comparison calciumPerDay = null;
+        for (DailyReferenceValues.Comparison comparison : DailyReferenceValues.getDefaults().compare(totals, 2)) {
+            if (comparison.getReference().getNutrientId() == 301) {
+                calciumPerDay = comparison;
+            }
+        }
+        assertEquals(650, calciumPerDay.getAmountPerDay(), 0.001);
+        assertEquals(50, calciumPerDay.getPercentOfDailyValue(), 0.001);
+    }
+
+    /**
+     * A day of meals is compared with the calculator's daily values, portions included
+     */
+    @Test
+    public void comparesDayWithDailyValues() {
+        Meal breakfast = new Snack();
+        breakfast.addFoodItem(food(5, 10, 5, 20), 200);
+        Meal lunch = new Snack();
+        lunch.addFoodItem(food(6, 5, 10, 40));
+
+        DailyReferenceValues references = new DailyReferenceValues()
+            .set(208, "Energy", 2000, "kcal")
+            .set(203, "Protein", 50, "g");
+        NutritionalCalculator calculator = new NutritionalCalculator(references);
+        List<DailyReferenceValues.Comparison> day = calculator.compareWithDailyValues(Arrays.asList(breakfast, lunch), 1);
+
+        double calories = (25 + 80) * 4 + 20 * 9;
+        assertEquals(2, day.size());
+        assertEquals(calories, day.get(0).getAmountPerDay(), 0.001);
+        assertEquals(calories / 2000 * 100, day.get(0).getPercentOfDailyValue(), 0.001);
+        assertEquals(25, day.get(1).getAmountPerDay(), 0.001);
+        assertEquals(50, day.get(1).getPercentOfDailyValue(), 0.001);
+
+        assertEquals(50, calculator.getDailyReference(GoalType.PROTEIN), 0.001);
+        assertTrue(Double.isNaN(calculator.getDailyReference(GoalType.FIBRE)));
+        assertEquals(28, new NutritionalCalculator().getDailyReference(GoalType.FIBRE), 0.001);
+    }
+
+    /**
+     * Portions scale the per 100 g values when summed, without changing the food itself
+     */
+    @Test
+    public void scalesPortions() {
+        FoodItem rice = food(4, 2.5, 0.5, 28);
+        Meal meal = new Snack();
+        meal.addFoodItem(rice, 250);
+        meal.addFoodItem(rice);
+
+        assertEquals(2.5 * 3.5, meal.calculateTotalNutrition().getProtein(), 0.001);
+        assertEquals((2.5 * 4 + 28 * 4 + 0.5 * 9) * 3.5, meal.getTotalCalories(), 0.001);
+        assertEquals(100, rice.getGrams(), 0.001);
+        assertEquals(2.5, meal.getFoodItems().get(0).getNutrientValue(NutrientRegistry.PROTEIN), 0.001);
+
+        assertTrue(meal.updateFoodItemQuantity(rice, 50));
+        assertEquals(2.5 * 3, meal.calculateTotalNutrition().getProtein(), 0.001);
+    }
+}
@@ -0,0 +1,68 @@
+package com.nutrisci.catalog;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.NutrientRegistry;
+
+public class CatalogSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Foods written to a snapshot read back identically from the mapped file and can be searched and browsed
+     */
+    @Test
+    public void roundTrip() throws Exception {
+        Map<String, Double> cheese = new HashMap<>();
+        cheese.put("PROTEIN", 24.9);
+        cheese.put("FAT (TOTAL LIPIDS)", 33.3);
+        Map<String, Double> apple = new HashMap<>();
+        apple.put("PROTEIN", 0.3);
+        apple.put("FIBRE, TOTAL DIETARY", 2.4);
+
+        Path path = folder.getRoot().toPath().resolve("catalog.bin");
+        CatalogSnapshot.write(path, Arrays.asList(
+            new FoodItem(5, "Pomme crue, épluchée", apple, "Fruits and fruit juices"),
+            new FoodItem(2, "Cheese, cheddar", cheese, "Dairy and Egg Products"),
+            new FoodItem(9, "Water, tap", new HashMap<>(), "Beverages")));
+
+        FoodCatalog catalog = CatalogSnapshot.open(path);
+
+        assertEquals(3, catalog.size());
+        assertEquals(2, catalog.getFoodId(0));
+        assertEquals(-1, catalog.rowOf(4));
+        assertEquals(3, catalog.getFoodGroups().size());
+
+        int row = catalog.rowOf(5);
+        assertEquals("Pomme crue, épluchée", catalog.getDescription(row));
+        assertEquals("Fruits and fruit juices", catalog.getFoodGroup(row));
+        assertEquals(2.4, catalog.getNutrient(row, NutrientRegistry.FIBRE), 0.001);
+        assertTrue(Double.isNaN(catalog.getNutrient(row, NutrientRegistry.FAT)));
+
+        FoodItem loaded = catalog.getFoodItem(2);
+        assertEquals(cheese, loaded.getNutrients());
+        assertEquals("Cheese, cheddar", catalog.getFoodNames().get(2L));
+        assertEquals(0, catalog.getFoodItem(9).getNutrientCount());
+
+        // The search index is built straight from the snapshot
+        FoodSearchEngine.SearchResult found = FoodSearchEngine.fromCatalog(catalog).search("chedar", 10);
+        assertEquals(Arrays.asList(2L), found.getFoodIds());
+        assertEquals(Integer.valueOf(1), found.getGroupFacets().get("Dairy and Egg Products"));
+
+        // So is the group index, with groups in name order
+        FoodGroupIndex groups = FoodGroupIndex.fromCatalog(catalog);
+        assertEquals(Arrays.asList("Beverages", "Dairy and Egg Products", "Fruits and fruit juices"), groups.getGroups());
+        assertEquals(Arrays.asList(5L), groups.getFoodIds("Fruits and fruit juices", 0, 10));
+    }
+}
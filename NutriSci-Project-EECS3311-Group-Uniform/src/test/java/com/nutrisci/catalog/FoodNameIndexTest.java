@@ -0,0 +1,61 @@
+package com.nutrisci.catalog;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class FoodNameIndexTest {
+
+    private static Map<Long, String> foods() {
+        Map<Long, String> foods = new HashMap<>();
+        foods.put(1L, "Apple, raw");
+        foods.put(2L, "Pie, apple, commercially prepared");
+        foods.put(3L, "Pineapple, raw");
+        foods.put(4L, "Banana, raw");
+        foods.put(5L, "Applesauce, canned");
+        return foods;
+    }
+
+    private static String[] names(FoodNameIndex index, int[] rows) {
+        String[] names = new String[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            names[i] = index.nameAt(rows[i]);
+        }
+        return names;
+    }
+
+    /**
+     * Prefix matches rank before word matches, which rank before other substrings
+     */
+    @Test
+    public void ranksMatches() {
+        FoodNameIndex index = new FoodNameIndex(foods());
+
+        assertArrayEquals(new String[] {
+            "Apple, raw", "Applesauce, canned", "Pie, apple, commercially prepared", "Pineapple, raw"
+        }, names(index, index.search("APPLE")));
+        assertArrayEquals(new String[] { "Banana, raw" }, names(index, index.search("na")));
+        assertEquals(0, index.search("apple pie").length);
+        assertEquals(5, index.search("  ").length);
+    }
+
+    /**
+     * IDs map to rows and back, and an index is reused for subsets of its foods
+     */
+    @Test
+    public void rowsAndReuse() {
+        Map<Long, String> foods = foods();
+        FoodNameIndex index = FoodNameIndex.forNames(foods);
+
+        assertEquals(4L, index.idAt(index.rowOf(4L)));
+        assertEquals(-1, index.rowOf(99L));
+
+        foods.remove(3L);
+        assertSame(index, FoodNameIndex.forNames(foods));
+        foods.put(99L, "Water, tap");
+        assertNotSame(index, FoodNameIndex.forNames(foods));
+    }
+}
@@ -0,0 +1,63 @@
+package com.nutrisci.catalog;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class FoodSearchEngineTest {
+
+    private static FoodSearchEngine engine() {
+        return new FoodSearchEngine(
+            new long[] { 1, 2, 3, 4, 5, 6 },
+            new String[] {
+                "Cheese, cheddar",
+                "Cheese, cheddar, reduced fat",
+                "Cheese, mozzarella, whole milk",
+                "Apple, raw, with skin",
+                "Pie, apple, commercially prepared",
+                "Cheesecake, commercially prepared"
+            },
+            new String[] {
+                "Dairy and Egg Products",
+                "Dairy and Egg Products",
+                "Dairy and Egg Products",
+                "Fruits and fruit juices",
+                "Baked Products",
+                "Baked Products"
+            });
+    }
+
+    /**
+     * Misspelled and partial words still match, and generic foods rank first
+     */
+    @Test
+    public void ranksFuzzyMatches() {
+        FoodSearchEngine engine = engine();
+
+        assertEquals(Arrays.asList(1L, 2L), engine.search("chedar chese", 10).getFoodIds());
+        assertEquals(Arrays.asList(4L, 5L), engine.search("aple", 10).getFoodIds());
+        assertEquals(Arrays.asList(3L), engine.search("mozz", 10).getFoodIds());
+        assertTrue(engine.search("zzzz", 10).getHits().isEmpty());
+        assertTrue(engine.search("  ", 10).getHits().isEmpty());
+    }
+
+    /**
+     * Facets count every group, while the group filter and limit trim the hits
+     */
+    @Test
+    public void facetsAndTopK() {
+        FoodSearchEngine.SearchResult all = engine().search("cheese", 2);
+        assertEquals(2, all.getHits().size());
+        // "cheese" is also a prefix of "cheesecake" while it is still being typed
+        assertEquals(4, all.getTotalMatches());
+        assertEquals(Integer.valueOf(3), all.getGroupFacets().get("Dairy and Egg Products"));
+        assertEquals(Integer.valueOf(1), all.getGroupFacets().get("Baked Products"));
+
+        FoodSearchEngine.SearchResult baked = engine().search("commercial", "Baked Products", 10);
+        assertEquals(Arrays.asList(5L, 6L), baked.getFoodIds());
+        assertEquals(1, FoodSearchEngine.editDistance("chedar", "cheddar", 2));
+        assertEquals(1, FoodSearchEngine.editDistance("cheeps", "cheesp", 2));
+    }
+}
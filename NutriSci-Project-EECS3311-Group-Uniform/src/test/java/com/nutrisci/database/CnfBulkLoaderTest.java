@@ -0,0 +1,135 @@
+package com.nutrisci.database;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.nutrisci.catalog.ServingMeasureTable;
+import com.nutrisci.meal.FoodItem;
+
+public class CnfBulkLoaderTest {
+    private static int databaseCount = 0;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EmbeddedDatabaseAdapter adapter;
+    private Path csvDirectory;
+
+    /**
+     * Write a tiny CNF extract and open an empty embedded database
+     */
+    @Before
+    public void setUp() throws IOException {
+        adapter = new EmbeddedDatabaseAdapter("jdbc:h2:mem:cnf-loader-test-" + (databaseCount++) + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        csvDirectory = folder.getRoot().toPath();
+
+        write("FOOD GROUP.csv",
+            "FoodGroupID,FoodGroupCode,FoodGroupName,FoodGroupNameF",
+            "1,1,Dairy and Egg Products,Produits laitiers et œufs",
+            "9,9,Fruits and fruit juices,Fruits et jus de fruits");
+        write("NUTRIENT NAME.csv",
+            "NutrientID,NutrientCode,NutrientSymbol,NutrientUnit,NutrientName,NutrientNameF,Tagname,NutrientDecimals",
+            "203,203,PROT,g,PROTEIN,PROTÉINES,PROCNT,2",
+            "291,291,TDF,g,\"FIBRE, TOTAL DIETARY\",\"FIBRES ALIMENTAIRES, TOTALES\",FIBTG,1");
+        write("FOOD NAME.csv",
+            "FoodID,FoodCode,FoodGroupID,FoodSourceID,FoodDescription,FoodDescriptionF",
+            "2,2,1,0,\"Cheese, cheddar\",\"Fromage, cheddar\"",
+            "5,5,9,0,\"Apple, raw\",\"Pomme, crue\"");
+        write("NUTRIENT AMOUNT.csv",
+            "FoodID,NutrientID,NutrientValue,StandardError,NumberofObservations,NutrientSourceID,NutrientDateOfEntry",
+            "2,203,24.9,,,1,2009-07-03",
+            "5,203,0.3,,,1,2009-07-03",
+            "5,291,2.4,,,1,2009-07-03",
+            "");
+    }
+
+    private void write(String fileName, String... lines) throws IOException {
+        Files.write(csvDirectory.resolve(fileName), String.join("\r\n", lines).getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Every file is loaded, quoted fields keep their commas, and the checkpoint is removed
+     */
+    @Test
+    public void loadsAllTables() throws Exception {
+        write("MEASURE NAME.csv",
+            "MeasureID,MeasureDescription,MeasureDescriptionF",
+            "1089,\"1 medium, 7 cm diameter\",\"1 moyenne, 7 cm de diamètre\"",
+            "1572,250 ml shredded,250 ml râpé");
+        write("CONVERSION FACTOR.csv",
+            "FoodID,MeasureID,ConversionFactorValue,ConvFactorDateOfEntry",
+            "5,1089,1.38,2013-10-01",
+            "2,1572,1.13,2013-10-01");
+        List<CnfBulkLoader.TableReport> reports = new CnfBulkLoader(adapter).setBatchSize(2).load(csvDirectory);
+
+        assertEquals(6, reports.size());
+        assertEquals(3, count("NUTRIENT_AMOUNT"));
+        assertFalse(Files.exists(csvDirectory.resolve(".cnf-load.checkpoint")));
+
+        FoodItem apple = adapter.loadFoodItem(5L);
+        assertEquals("Apple, raw", apple.getDescription());
+        assertEquals(2.4, apple.getNutrientValue("FIBRE, TOTAL DIETARY"), 0.001);
+
+        List<FoodItem> found = adapter.getDatabaseManager().searchFoodItems("chedar");
+        assertEquals(1, found.size());
+        assertEquals(24.9, found.get(0).getNutrientValue("PROTEIN"), 0.001);
+
+        DatabaseManager db = adapter.getDatabaseManager();
+        assertEquals(1, db.getFoodGroupSize("Fruits and fruit juices"));
+        assertEquals("Apple, raw", db.getFoodItemsByGroup("Fruits and fruit juices").get(0).getDescription());
+        assertTrue(db.getFoodItemsByGroup("Fruits and fruit juices", "cheese", 0, 10).isEmpty());
+        assertTrue(db.getFoodItemsByGroup("Fruits and fruit juices", null, 1, 10).isEmpty());
+
+        List<ServingMeasureTable.Measure> measures = db.getServingMeasures(5L);
+        assertEquals(1, measures.size());
+        assertEquals("1 medium, 7 cm diameter", measures.get(0).getDescription());
+        assertEquals(138, measures.get(0).getGrams(), 0.001);
+        assertEquals(113, db.getServingMeasures().gramsOf(2L, 1572), 0.001);
+        assertTrue(Double.isNaN(db.getServingMeasures().gramsOf(2L, 1089)));
+    }
+
+    /**
+     * A load interrupted part way through a table resumes after the committed rows
+     */
+    @Test
+    public void resumesFromCheckpoint() throws Exception {
+        try (Connection connection = adapter.getDatabaseManager().getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO NUTRIENT_AMOUNT (FoodID, NutrientID, NutrientValue) VALUES (2, 203, 24.9)");
+        }
+        write(".cnf-load.checkpoint",
+            "completed=FOOD_GROUP,NUTRIENT_NAME,FOOD_NAME",
+            "table=NUTRIENT_AMOUNT",
+            "rows=1");
+
+        List<CnfBulkLoader.TableReport> reports = new CnfBulkLoader(adapter).load(csvDirectory);
+
+        assertEquals(1, reports.size());
+        assertEquals(2, reports.get(0).getRows());
+        assertEquals(3, count("NUTRIENT_AMOUNT"));
+        assertEquals(0, count("FOOD_NAME"));
+    }
+
+    private int count(String table) throws SQLException {
+        try (Connection connection = adapter.getDatabaseManager().getConnection();
+             Statement stmt = connection.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table);
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
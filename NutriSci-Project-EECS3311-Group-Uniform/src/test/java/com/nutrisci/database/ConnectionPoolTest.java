@@ -0,0 +1,129 @@
+package com.nutrisci.database;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ConnectionPoolTest {
+    private ConnectionPool pool;
+
+    /**
+     * A pool over its own in-memory database, with no connections opened up front
+     */
+    private static ConnectionPool createPool(String name, int maxSize, long validationIntervalMillis) {
+        Properties properties = new Properties();
+        properties.setProperty("db.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        properties.setProperty("db.user", "sa");
+        properties.setProperty("db.password", "");
+        properties.setProperty("db.pool.maxSize", String.valueOf(maxSize));
+        properties.setProperty("db.pool.minIdle", "0");
+        properties.setProperty("db.pool.borrowTimeoutMillis", "200");
+        properties.setProperty("db.pool.validationIntervalMillis", String.valueOf(validationIntervalMillis));
+        return new ConnectionPool(properties);
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Borrowing from an exhausted pool fails after the borrow timeout
+     */
+    @Test
+    public void borrowTimesOutWhenExhausted() throws SQLException {
+        pool = createPool("pool-timeout", 1, 500);
+        try (Connection held = pool.getConnection()) {
+            long start = System.nanoTime();
+            try {
+                pool.getConnection();
+                fail("Expected the borrow to time out");
+            } catch (SQLException e) {
+                assertTrue(e.getMessage().contains("Timed out"));
+            }
+            assertTrue((System.nanoTime() - start) / 1_000_000 >= 150);
+            assertEquals(1, pool.getStats().getActive());
+        }
+        assertEquals(0, pool.getStats().getActive());
+    }
+
+    /**
+     * close() gives the connection back for reuse, and a second close() does not return it twice
+     */
+    @Test
+    public void closeReturnsConnection() throws SQLException {
+        pool = createPool("pool-return", 2, 500);
+        Connection connection = pool.getConnection();
+        connection.close();
+        connection.close();
+        assertTrue(connection.isClosed());
+
+        ConnectionPool.PoolStats stats = pool.getStats();
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getIdle());
+
+        // Both permits are still there and the idle connection is reused
+        try (Connection first = pool.getConnection(); Connection second = pool.getConnection()) {
+            assertEquals(2, pool.getStats().getActive());
+        }
+        assertEquals(2, pool.getStats().getCreatedCount());
+        assertEquals(2, pool.getStats().getIdle());
+    }
+
+    /**
+     * An idle connection that died is dropped on the next borrow and replaced
+     */
+    @Test
+    public void evictsDeadConnection() throws SQLException {
+        pool = createPool("pool-dead", 1, 0);
+        Connection physical;
+        try (Connection connection = pool.getConnection()) {
+            physical = connection.unwrap(Connection.class);
+        }
+        physical.close();
+
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+            assertNotSame(physical, connection.unwrap(Connection.class));
+        }
+        ConnectionPool.PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getValidationFailures());
+        assertEquals(2, stats.getCreatedCount());
+    }
+
+    /**
+     * A connection returned in the middle of a transaction is rolled back
+     */
+    @Test
+    public void releaseRollsBackOpenTransaction() throws SQLException {
+        pool = createPool("pool-rollback", 1, 500);
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE Pool_Test (Id INT)");
+        }
+
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("INSERT INTO Pool_Test (Id) VALUES (1)");
+            }
+        }
+
+        try (Connection connection = pool.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM Pool_Test")) {
+            assertTrue(connection.getAutoCommit());
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+}
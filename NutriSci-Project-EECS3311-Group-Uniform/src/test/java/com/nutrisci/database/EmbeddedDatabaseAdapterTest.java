@@ -0,0 +1,246 @@
+package com.nutrisci.database;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.nutrisci.calculator.NutritionalData;
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.Meal;
+import com.nutrisci.meal.MealType;
+import com.nutrisci.meal.Snack;
+
+public class EmbeddedDatabaseAdapterTest {
+    private static EmbeddedDatabaseAdapter adapter;
+
+    /**
+     * Create an in-memory database with a small slice of the CNF
+     */
+    @BeforeClass
+    public static void setUp() throws SQLException {
+        adapter = new EmbeddedDatabaseAdapter("jdbc:h2:mem:embedded-adapter-test;MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+        try (Connection connection = adapter.getDatabaseManager().getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("INSERT INTO FOOD_GROUP (FoodGroupID, FoodGroupName) VALUES (1, 'Dairy and Egg Products'), (9, 'Fruits and fruit juices')");
+            stmt.executeUpdate("INSERT INTO FOOD_NAME (FoodID, FoodGroupID, FoodDescription) VALUES "
+                    + "(2, 1, 'Cheese, cheddar'), (5, 9, 'Apple, raw'), (7, 9, 'Banana, raw')");
+            stmt.executeUpdate("INSERT INTO NUTRIENT_NAME (NutrientID, NutrientName) VALUES "
+                    + "(203, 'PROTEIN'), (204, 'FAT (TOTAL LIPIDS)'), (205, 'CARBOHYDRATE, TOTAL (BY DIFFERENCE)'), (291, 'FIBRE, TOTAL DIETARY')");
+            stmt.executeUpdate("INSERT INTO NUTRIENT_AMOUNT (FoodID, NutrientID, NutrientValue) VALUES "
+                    + "(2, 203, 24.9), (2, 204, 33.3), (2, 205, 1.3), "
+                    + "(5, 203, 0.3), (5, 204, 0.2), (5, 205, 13.8), (5, 291, 2.4)");
+        }
+    }
+
+    /**
+     * A single food comes back with its description, group and nutrients
+     */
+    @Test
+    public void loadFoodItem() {
+        FoodItem cheese = adapter.loadFoodItem(2L);
+
+        assertEquals("Cheese, cheddar", cheese.getDescription());
+        assertEquals(24.9, cheese.getNutrientValue("PROTEIN"), 0.001);
+        assertEquals(-1, cheese.getNutrientValue("FIBRE, TOTAL DIETARY"), 0.001);
+        assertTrue(cheese.getDisplayName().contains("Dairy and Egg Products"));
+    }
+
+    /**
+     * Foods without nutrient rows still load, and unknown IDs are skipped
+     */
+    @Test
+    public void loadFoodItems() {
+        Map<Long, FoodItem> items = adapter.loadFoodItems(Arrays.asList(5L, 404L, 7L, 5L));
+
+        assertEquals(Arrays.asList(5L, 7L), List.copyOf(items.keySet()));
+        assertEquals(2.4, items.get(5L).getNutrientValue("FIBRE, TOTAL DIETARY"), 0.001);
+        assertEquals("Banana, raw", items.get(7L).getDescription());
+    }
+
+    /**
+     * A saved meal is rebuilt with all of its food items
+     */
+    @Test
+    public void saveAndLoadMeal() {
+        long userId = 42;
+        Meal meal = new Snack();
+        meal.setId(1_000_001L);
+        meal.addFoodItem(adapter.loadFoodItem(2L));
+        meal.addFoodItem(adapter.loadFoodItem(5L));
+
+        assertTrue(adapter.saveMeal(meal, userId));
+        assertTrue(adapter.canAddMealType(userId, MealType.SNACK, LocalDate.now()));
+        assertEquals(1, adapter.getMealCountForType(userId, MealType.SNACK, LocalDate.now()));
+
+        List<Meal> meals = adapter.getMealsForUser(userId, LocalDate.now(), LocalDate.now());
+        assertEquals(1, meals.size());
+        assertEquals(MealType.SNACK, meals.get(0).getMealType());
+        assertEquals(2, meals.get(0).getFoodItemCount());
+
+        assertTrue(adapter.deleteMeal(meal.getId()));
+        assertTrue(adapter.getMealsForUser(userId, LocalDate.now(), LocalDate.now()).isEmpty());
+    }
+
+    /**
+     * Portions are stored per food, read back and imported, and scale the daily summary
+     */
+    @Test
+    public void saveAndLoadPortions() {
+        long userId = 47;
+        Meal meal = new Snack();
+        meal.setId(1_000_006L);
+        meal.addFoodItem(adapter.loadFoodItem(2L), 50);
+        meal.addFoodItem(adapter.loadFoodItem(5L));
+        assertTrue(adapter.saveMeal(meal, userId));
+
+        List<FoodItem> items = adapter.getMealsForUser(userId, LocalDate.now(), LocalDate.now()).get(0).getFoodItems();
+        assertEquals(50, items.get(0).getGrams(), 0.001);
+        assertEquals(100, items.get(1).getGrams(), 0.001);
+
+        NutritionalData day = adapter.getDatabaseManager().getDailyNutritionSummary(userId, LocalDate.now(), LocalDate.now()).get(LocalDate.now());
+        assertEquals(24.9 / 2 + 0.3, day.getProtein(), 0.001);
+
+        // Importing the meal brings each food back in its portion
+        List<FoodItem> imported = adapter.importMealItems(meal.getId());
+        assertEquals(2, imported.size());
+        for (FoodItem item : imported) {
+            assertEquals(item.getId() == 2L ? 50 : 100, item.getGrams(), 0.001);
+        }
+
+        assertTrue(adapter.deleteMeal(meal.getId()));
+    }
+
+    /**
+     * Updating a meal replaces its food items, and a rejected save leaves nothing behind
+     */
+    @Test
+    public void updateAndRejectedSave() {
+        long userId = 43;
+        Meal meal = new Snack();
+        meal.setId(1_000_002L);
+        meal.addFoodItem(adapter.loadFoodItem(2L));
+        assertTrue(adapter.saveMeal(meal, userId));
+
+        meal.setFoodItems(new ArrayList<>(Arrays.asList(adapter.loadFoodItem(5L), adapter.loadFoodItem(7L))));
+        assertTrue(adapter.updateMeal(meal));
+        assertEquals(Arrays.asList(5L, 7L), adapter.importMeal(meal.getId()));
+
+        // Same MealID again: the Meal_Log insert fails, so no duplicate food rows are written
+        assertFalse(adapter.saveMeal(meal, userId));
+        assertEquals(Arrays.asList(5L, 7L), adapter.importMeal(meal.getId()));
+
+        assertTrue(adapter.deleteMeal(meal.getId()));
+    }
+
+    /**
+     * Meal writes keep the per-day summary current, and a rebuild reproduces it
+     */
+    @Test
+    public void dailySummaryFollowsWrites() throws SQLException {
+        long userId = 44;
+        LocalDate day = LocalDate.of(2024, 3, 4);
+        DatabaseManager db = adapter.getDatabaseManager();
+        assertTrue(db.hasDailySummary());
+
+        Meal snack = new Snack();
+        snack.setId(1_000_003L);
+        snack.setDate(day);
+        snack.addFoodItem(adapter.loadFoodItem(2L));
+        assertTrue(adapter.saveMeal(snack, userId));
+
+        Meal second = new Snack();
+        second.setId(1_000_004L);
+        second.setDate(day);
+        second.addFoodItem(adapter.loadFoodItem(5L));
+        assertTrue(adapter.saveMeal(second, userId));
+
+        Map<LocalDate, NutritionalData> summary = db.getDailyNutritionSummary(userId, day, day);
+        assertEquals(25.2, summary.get(day).getProtein(), 0.001);
+        assertEquals(2.4, summary.get(day).getFiber(), 0.001);
+        assertEquals(25.2 * 4 + 15.1 * 4 + 33.5 * 9, summary.get(day).getCalories(), 0.001);
+
+        assertTrue(adapter.deleteMeal(snack.getId()));
+        assertEquals(0.3, db.getDailyNutritionSummary(userId, day, day).get(day).getProtein(), 0.001);
+
+        assertTrue(db.rebuildDailySummaries() >= 1);
+        assertEquals(0.3, db.getDailyNutritionSummary(userId, day, day).get(day).getProtein(), 0.001);
+
+        assertTrue(adapter.deleteMeal(second.getId()));
+        assertTrue(db.getDailyNutritionSummary(userId, day, day).isEmpty());
+    }
+
+    /**
+     * Concurrent saves to the same day and meal type all succeed and are all counted
+     */
+    @Test
+    public void concurrentSummaryWrites() throws Exception {
+        long userId = 45;
+        LocalDate day = LocalDate.of(2024, 3, 5);
+        int threads = 4;
+        int mealsPerThread = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> saves = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long firstId = 2_000_000L + t * mealsPerThread;
+            saves.add(executor.submit(() -> {
+                boolean saved = true;
+                for (int i = 0; i < mealsPerThread; i++) {
+                    Meal meal = new Snack();
+                    meal.setId(firstId + i);
+                    meal.setDate(day);
+                    meal.addFoodItem(adapter.loadFoodItem(5L));
+                    saved &= adapter.saveMeal(meal, userId);
+                }
+                return saved;
+            }));
+        }
+        for (Future<Boolean> save : saves) {
+            assertTrue(save.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(threads * mealsPerThread * 0.3,
+                     adapter.getDatabaseManager().getDailyNutritionSummary(userId, day, day).get(day).getProtein(), 0.001);
+    }
+
+    /**
+     * Without the summary table or the Grams column, meal writes still work,
+     * the summary reads as unavailable and portions read back as 100 g
+     */
+    @Test
+    public void writesWithoutSummaryTable() throws SQLException {
+        EmbeddedDatabaseAdapter legacy = new EmbeddedDatabaseAdapter("jdbc:h2:mem:embedded-adapter-legacy;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Connection connection = legacy.getDatabaseManager().getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP TABLE Daily_Nutrition_Summary");
+            stmt.executeUpdate("ALTER TABLE Meal_Food DROP COLUMN Grams");
+            stmt.executeUpdate("INSERT INTO FOOD_GROUP (FoodGroupID, FoodGroupName) VALUES (9, 'Fruits and fruit juices')");
+            stmt.executeUpdate("INSERT INTO FOOD_NAME (FoodID, FoodGroupID, FoodDescription) VALUES (5, 9, 'Apple, raw')");
+        }
+
+        Meal meal = new Snack();
+        meal.setId(1_000_005L);
+        meal.addFoodItem(legacy.loadFoodItem(5L), 50);
+        assertTrue(legacy.saveMeal(meal, 46));
+        // Without the Grams column the portion is not kept
+        assertEquals(100, legacy.getMealsForUser(46, LocalDate.now(), LocalDate.now()).get(0).getFoodItems().get(0).getGrams(), 0.001);
+        assertFalse(legacy.getDatabaseManager().hasDailySummary());
+        assertNull(legacy.getDatabaseManager().getDailyNutritionSummary(46, LocalDate.now(), LocalDate.now()));
+        assertTrue(legacy.deleteMeal(meal.getId()));
+    }
+}
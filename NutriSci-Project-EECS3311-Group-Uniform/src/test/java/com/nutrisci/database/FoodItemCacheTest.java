@@ -0,0 +1,97 @@
+package com.nutrisci.database;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.nutrisci.meal.FoodItem;
+
+public class FoodItemCacheTest {
+
+    private static FoodItem food(long id) {
+        Map<String, Double> nutrients = new HashMap<>();
+        nutrients.put("PROTEIN", 1.0 * id);
+        return new FoodItem(id, "Food " + id, nutrients, "Group");
+    }
+
+    /**
+     * The least recently used food is evicted once the cache is full
+     */
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        FoodItemCache cache = new FoodItemCache(2, 0, 0);
+        cache.put(food(1), cache.getVersion());
+        cache.put(food(2), cache.getVersion());
+        assertNotNull(cache.get(1));
+
+        cache.put(food(3), cache.getVersion());
+
+        assertNull(cache.get(2));
+        assertNotNull(cache.get(1));
+        assertNotNull(cache.get(3));
+
+        FoodItemCache.CacheStats stats = cache.getStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(3, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    /**
+     * The byte limit evicts foods even when the entry limit has room
+     */
+    @Test
+    public void respectsByteLimit() {
+        long oneFood = FoodItemCache.estimateBytes(food(1));
+        FoodItemCache cache = new FoodItemCache(100, oneFood * 2, 0);
+        cache.putAll(Arrays.asList(food(1), food(2), food(3)), cache.getVersion());
+
+        assertEquals(2, cache.getStats().getSize());
+        assertTrue(cache.getStats().getApproximateBytes() <= oneFood * 2);
+    }
+
+    /**
+     * Expired entries miss, and invalidation drops everything
+     */
+    @Test
+    public void expiresAndInvalidates() throws InterruptedException {
+        FoodItemCache cache = new FoodItemCache(10, 0, 20);
+        cache.put(food(1), cache.getVersion());
+        Thread.sleep(40);
+        assertNull(cache.get(1));
+        assertEquals(1, cache.getStats().getExpirations());
+
+        FoodItemCache unbounded = new FoodItemCache(10, 0, 0);
+        unbounded.put(food(1), unbounded.getVersion());
+        unbounded.putFoodNames(Map.of(1L, "Food 1"), unbounded.getVersion());
+        unbounded.invalidateAll();
+        assertNull(unbounded.get(1));
+        assertNull(unbounded.getFoodNames());
+    }
+
+    /**
+     * Callers get copies, and a put read before an invalidation is dropped
+     */
+    @Test
+    public void copiesAndRejectsStalePuts() {
+        FoodItemCache cache = new FoodItemCache(10, 0, 0);
+        cache.put(food(1), cache.getVersion());
+        cache.get(1).setId(99);
+        assertEquals(1, cache.get(1).getId());
+        assertNotSame(cache.get(1), cache.get(1));
+
+        long before = cache.getVersion();
+        cache.invalidateAll();
+        cache.put(food(2), before);
+        cache.putFoodNames(Map.of(2L, "Food 2"), before);
+        assertNull(cache.get(2));
+        assertNull(cache.getFoodNames());
+
+        cache.put(food(2), cache.getVersion());
+        assertNotNull(cache.get(2));
+    }
+}
@@ -0,0 +1,170 @@
+package com.nutrisci.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.nutrisci.meal.FoodItem;
+
+/**
+ * Micro-benchmark for FoodItem hydration, run by hand from the test classpath.
+ * Compares the original three-query lookup (nutrients, food group, description,
+ * built by string concatenation) with the single parameterized query used by
+ * DatabaseManager.loadFoodItem, and prints per-item latency for both. The old
+ * lookup is kept here as the baseline only; nothing in the application uses it.
+ *
+ * Usage: FoodItemLoadBenchmark [foodCount] [rounds]
+ *
+ * @author NutriSci Team
+ * @version 1.0
+ */
+public class FoodItemLoadBenchmark {
+
+    /**
+     * Runs the benchmark against the configured database
+     */
+    public static void main(String[] args) throws SQLException {
+        int foodCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        DatabaseManager db = DatabaseManager.getInstance();
+        List<Long> foodIds = new ArrayList<>(db.getFoodItems().keySet());
+        if (foodIds.isEmpty()) {
+            System.err.println("No foods found in FOOD_NAME, nothing to benchmark.");
+            return;
+        }
+        foodIds = foodIds.subList(0, Math.min(foodCount, foodIds.size()));
+
+        System.out.println("=== FoodItem load benchmark: " + foodIds.size() + " foods x " + rounds + " rounds ===");
+
+        // Warm up both paths so connection setup and JIT do not skew the first round
+        runLegacy(db, foodIds.subList(0, Math.min(20, foodIds.size())));
+        runSingleQuery(db, foodIds.subList(0, Math.min(20, foodIds.size())));
+
+        long[] legacy = new long[foodIds.size() * rounds];
+        long[] single = new long[foodIds.size() * rounds];
+        for (int round = 0; round < rounds; round++) {
+            long[] legacyRound = runLegacy(db, foodIds);
+            long[] singleRound = runSingleQuery(db, foodIds);
+            System.arraycopy(legacyRound, 0, legacy, round * foodIds.size(), legacyRound.length);
+            System.arraycopy(singleRound, 0, single, round * foodIds.size(), singleRound.length);
+        }
+
+        report("Before (3 queries)", legacy);
+        report("After (1 query)   ", single);
+
+        db.invalidateFoodCache();
+        long start = System.nanoTime();
+        db.loadFoodItems(foodIds);
+        double bulkMillis = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("Bulk loadFoodItems: %.2f ms total, %.3f ms per item%n", bulkMillis, bulkMillis / foodIds.size());
+
+        // Every food is now cached, so this round never reaches the database
+        report("Cached (0 queries)", runCached(db, foodIds));
+        System.out.println("Cache: " + db.getFoodCacheStats());
+        System.out.println("Pool: " + db.getPoolStats());
+    }
+
+    /**
+     * Time the single-query path for each food, starting from an empty cache
+     */
+    private static long[] runSingleQuery(DatabaseManager db, List<Long> foodIds) {
+        db.invalidateFoodCache();
+        long[] timings = new long[foodIds.size()];
+        for (int i = 0; i < foodIds.size(); i++) {
+            long start = System.nanoTime();
+            db.loadFoodItem(foodIds.get(i));
+            timings[i] = System.nanoTime() - start;
+        }
+        return timings;
+    }
+
+    /**
+     * Time repeated lookups of foods that are already cached
+     */
+    private static long[] runCached(DatabaseManager db, List<Long> foodIds) {
+        long[] timings = new long[foodIds.size()];
+        for (int i = 0; i < foodIds.size(); i++) {
+            long start = System.nanoTime();
+            db.loadFoodItem(foodIds.get(i));
+            timings[i] = System.nanoTime() - start;
+        }
+        return timings;
+    }
+
+    /**
+     * Time the original three-query path for each food
+     */
+    private static long[] runLegacy(DatabaseManager db, List<Long> foodIds) throws SQLException {
+        long[] timings = new long[foodIds.size()];
+        for (int i = 0; i < foodIds.size(); i++) {
+            long start = System.nanoTime();
+            loadFoodItemLegacy(db, foodIds.get(i));
+            timings[i] = System.nanoTime() - start;
+        }
+        return timings;
+    }
+
+    /**
+     * The lookup DatabaseManager.loadFoodItem used before it was collapsed into one query
+     */
+    private static FoodItem loadFoodItemLegacy(DatabaseManager db, long foodId) throws SQLException {
+        Map<String, Double> nutrients = new HashMap<>();
+        String foodGroup = "";
+        String foodDesc = "";
+
+        try (Connection connection = db.getConnection()) {
+            String sqlNutrientString = "select NutrientName, NutrientValue from NUTRIENT_NAME NN "
+                                     + "inner join NUTRIENT_AMOUNT NA on NN.NutrientID=NA.NutrientID "
+                                     + "where NA.FoodID=" + foodId;
+            try (PreparedStatement ps = connection.prepareStatement(sqlNutrientString)) {
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    nutrients.put(rs.getString("NutrientName"), rs.getDouble("NutrientValue"));
+                }
+            }
+
+            String sqlFoodGroupString = "select FoodGroupName from FOOD_GROUP FG "
+                                      + "inner join FOOD_NAME FA on FA.FoodGroupID=FG.FoodGroupID "
+                                      + "where FA.FoodID=" + foodId;
+            try (PreparedStatement ps = connection.prepareStatement(sqlFoodGroupString)) {
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    foodGroup = rs.getString("FoodGroupName");
+                }
+            }
+
+            String sqlFoodDescString = "select FoodDescription from FOOD_NAME where FoodID=" + foodId;
+            try (PreparedStatement ps = connection.prepareStatement(sqlFoodDescString)) {
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    foodDesc = rs.getString("FoodDescription");
+                }
+            }
+        }
+
+        return new FoodItem(foodId, foodDesc, nutrients, foodGroup);
+    }
+
+    /**
+     * Print mean and percentile latency for a set of timings
+     */
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0) / 1_000_000.0;
+        System.out.printf("%s: mean %.3f ms, p50 %.3f ms, p99 %.3f ms per item%n",
+                label, mean, percentile(sorted, 0.50), percentile(sorted, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)));
+        return sorted[index] / 1_000_000.0;
+    }
+}
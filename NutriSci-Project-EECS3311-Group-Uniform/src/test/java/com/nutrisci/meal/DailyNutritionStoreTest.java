@@ -0,0 +1,100 @@
+package com.nutrisci.meal;
+
+import static org.junit.Assert.*;
+import static com.nutrisci.meal.TestFoods.food;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.nutrisci.calculator.NutrientAccumulator;
+
+public class DailyNutritionStoreTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    private static Meal meal(Meal meal, long id, LocalDate date, FoodItem... items) {
+        meal.setId(id);
+        meal.setDate(date);
+        meal.setFoodItems(new ArrayList<>(Arrays.asList(items)));
+        return meal;
+    }
+
+    /**
+     * A day is read once; adds, updates and deletes then change it without another read
+     */
+    @Test
+    public void followsMealEvents() {
+        List<LocalDate[]> reads = new ArrayList<>();
+        DailyNutritionStore store = new DailyNutritionStore((userId, start, end) -> {
+            reads.add(new LocalDate[] { start, end });
+            List<Meal> meals = new ArrayList<>();
+            if (!DAY.isBefore(start) && !DAY.isAfter(end)) {
+                meals.add(meal(new Lunch(), 1, DAY, food(1, 10)));
+            }
+            return meals;
+        }, () -> 7);
+
+        assertEquals(10, store.getDailyTotals(7, DAY).getProtein(), 0.001);
+
+        Meal snack = meal(new Snack(), 2, DAY, food(2, 5));
+        store.onMealChanged(MealEvent.MEAL_ADDED, snack);
+        assertEquals(15, store.getDailyTotals(7, DAY).getProtein(), 0.001);
+        assertEquals(5, store.getMealTypeTotals(7, DAY).get(MealType.SNACK).getProtein(), 0.001);
+
+        snack.addFoodItem(food(3, 4), 50);
+        store.onMealChanged(MealEvent.MEAL_UPDATED, snack);
+        assertEquals(17, store.getDailyTotals(7, DAY).getProtein(), 0.001);
+
+        store.onMealDeleted(2);
+        assertEquals(10, store.getDailyTotals(7, DAY).getProtein(), 0.001);
+        assertFalse(store.getMealTypeTotals(7, DAY).containsKey(MealType.SNACK));
+        assertEquals(1, reads.size());
+
+        // Days never read ignore events and load complete when first read
+        store.onMealChanged(MealEvent.MEAL_ADDED, meal(new Snack(), 3, DAY.minusDays(1), food(4, 8)));
+        Map<LocalDate, NutrientAccumulator> range = store.getDailyTotals(7, DAY.minusDays(2), DAY);
+        assertEquals(3, range.size());
+        assertEquals(0, range.get(DAY.minusDays(1)).getProtein(), 0.001);
+        assertEquals(10, range.get(DAY).getProtein(), 0.001);
+        assertEquals(2, reads.size());
+        assertEquals(DAY.minusDays(1), reads.get(1)[1]);
+    }
+
+    /**
+     * A slow database read for one user does not block reads or events for another
+     */
+    @Test
+    public void loadsOutsideTheLock() throws Exception {
+        CountDownLatch slowReadStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlowRead = new CountDownLatch(1);
+        DailyNutritionStore store = new DailyNutritionStore((userId, start, end) -> {
+            if (userId == 1) {
+                slowReadStarted.countDown();
+                try {
+                    releaseSlowRead.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new ArrayList<>();
+        }, () -> 2);
+
+        Thread slow = new Thread(() -> store.getDailyTotals(1, DAY));
+        slow.start();
+        assertTrue(slowReadStarted.await(5, TimeUnit.SECONDS));
+
+        assertEquals(0, store.getDailyTotals(2, DAY).getProtein(), 0.001);
+        store.onMealChanged(MealEvent.MEAL_ADDED, meal(new Snack(), 5, DAY, food(5, 3)));
+        assertEquals(3, store.getDailyTotals(2, DAY).getProtein(), 0.001);
+
+        releaseSlowRead.countDown();
+        slow.join(5000);
+        assertFalse(slow.isAlive());
+    }
+}
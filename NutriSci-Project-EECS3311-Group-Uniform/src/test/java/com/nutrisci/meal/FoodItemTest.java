@@ -0,0 +1,54 @@
+package com.nutrisci.meal;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class FoodItemTest {
+
+    /**
+     * Name-based and index-based lookups see the same dense values
+     */
+    @Test
+    public void nutrientLookups() {
+        Map<String, Double> nutrients = new HashMap<>();
+        nutrients.put("PROTEIN", 24.9);
+        nutrients.put("FAT (TOTAL LIPIDS)", 33.3);
+        nutrients.put("CARBOHYDRATE, TOTAL (BY DIFFERENCE)", 1.3);
+        nutrients.put("VITAMIN K", 2.8);
+        FoodItem cheese = new FoodItem(2, "Cheese, cheddar", nutrients, "Dairy and Egg Products");
+
+        assertEquals(24.9, cheese.getNutrientValue(NutrientRegistry.PROTEIN), 0.001);
+        assertEquals(33.3, cheese.getNutrientValue("FAT (TOTAL LIPIDS)"), 0.001);
+        assertEquals(2.8, cheese.getNutrientValue("VITAMIN K"), 0.001);
+        assertEquals(-1, cheese.getNutrientValue(NutrientRegistry.FIBRE), 0.001);
+        assertEquals(-1, cheese.getNutrientValue("NOT A NUTRIENT"), 0.001);
+        assertEquals(0, cheese.getNutrientOrZero(NutrientRegistry.FIBRE), 0.001);
+        // An unknown name resolves to -1, which every lookup treats as missing
+        assertEquals(0, cheese.getNutrientOrZero(-1), 0.001);
+        assertFalse(cheese.hasNutrient(-1));
+
+        assertEquals(4, cheese.getNutrientCount());
+        assertEquals(nutrients, cheese.getNutrients());
+        assertEquals(24.9 * 4 + 1.3 * 4 + 33.3 * 9, cheese.calculateCaloriesFromMacros(), 0.01);
+    }
+
+    /**
+     * CNF NutrientIDs and names resolve to the same index
+     */
+    @Test
+    public void registryIndices() {
+        NutrientRegistry registry = NutrientRegistry.getInstance();
+
+        assertEquals(NutrientRegistry.PROTEIN, registry.register(203, "PROTEIN"));
+        assertEquals(NutrientRegistry.FIBRE, registry.indexOfNutrientId(291));
+
+        int iron = registry.register(303, "IRON");
+        assertEquals(iron, registry.indexOf("IRON"));
+        assertEquals("IRON", registry.nameOf(iron));
+        assertEquals(303, registry.nutrientIdOf(iron));
+    }
+}
@@ -0,0 +1,45 @@
+package com.nutrisci.meal;
+
+import static org.junit.Assert.*;
+import static com.nutrisci.meal.TestFoods.food;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import com.nutrisci.database.DatabaseManager;
+import com.nutrisci.database.EmbeddedDatabaseAdapter;
+
+public class MealManagerTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    /**
+     * A save the database rejects returns false and sends no event, so the daily totals stay as they were
+     */
+    @Test
+    public void failedSaveLeavesStoreUnchanged() {
+        DatabaseManager db = new EmbeddedDatabaseAdapter("jdbc:h2:mem:meal-manager-test;MODE=MySQL;DB_CLOSE_DELAY=-1")
+            .getDatabaseManager();
+        DailyNutritionStore store = new DailyNutritionStore(db::getMealsForUser, () -> 7);
+        MealManager manager = new MealManager(db, store, () -> 7);
+        assertEquals(0, store.getDailyTotals(7, DAY).getProtein(), 0.001);
+
+        Meal snack = new Snack();
+        snack.setId(3_000_001L);
+        snack.setDate(DAY);
+        snack.addFoodItem(food(1, 10));
+        assertTrue(manager.addMeal(snack));
+        assertEquals(10, store.getDailyTotals(7, DAY).getProtein(), 0.001);
+
+        // Same MealID again: the database rejects it
+        Meal duplicate = new Snack();
+        duplicate.setId(3_000_001L);
+        duplicate.setDate(DAY);
+        duplicate.addFoodItem(food(2, 25));
+        assertFalse(manager.addMeal(duplicate));
+        assertEquals(10, store.getDailyTotals(7, DAY).getProtein(), 0.001);
+
+        assertTrue(manager.deleteMeal(snack.getId()));
+        assertEquals(0, store.getDailyTotals(7, DAY).getProtein(), 0.001);
+    }
+}
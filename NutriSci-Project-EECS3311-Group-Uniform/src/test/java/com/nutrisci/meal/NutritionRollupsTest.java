@@ -0,0 +1,75 @@
+package com.nutrisci.meal;
+
+import static org.junit.Assert.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.nutrisci.calculator.NutritionalData;
+import com.nutrisci.meal.NutritionRollups.Resolution;
+
+public class NutritionRollupsTest {
+
+    private static NutritionalData protein(double grams) {
+        return new NutritionalData(grams * 4, grams, 0, 0, 0);
+    }
+
+    /**
+     * Weeks follow ISO-8601 across month ends, cut buckets only count days in range,
+     * only the requested range is read, and a user's day changes update every
+     * resolution of that user without rereading the history
+     */
+    @Test
+    public void rollsUpAndFollowsChanges() {
+        List<LocalDate[]> reads = new ArrayList<>();
+        Map<LocalDate, NutritionalData> history = new HashMap<>();
+        history.put(LocalDate.of(2024, 2, 29), protein(10)); // Thursday of 2024-W09
+        history.put(LocalDate.of(2024, 3, 1), protein(20));  // Friday of 2024-W09
+        history.put(LocalDate.of(2024, 3, 4), protein(30));  // Monday of 2024-W10
+        history.put(LocalDate.of(2023, 12, 31), protein(5)); // Sunday of 2023-W52
+        NutritionRollups rollups = new NutritionRollups((userId, start, end) -> {
+            reads.add(new LocalDate[] { start, end });
+            Map<LocalDate, NutritionalData> days = new HashMap<>();
+            for (Map.Entry<LocalDate, NutritionalData> day : history.entrySet()) {
+                if ((start == null || !day.getKey().isBefore(start)) && (end == null || !day.getKey().isAfter(end))) {
+                    days.put(day.getKey(), day.getValue());
+                }
+            }
+            return days;
+        });
+
+        Map<LocalDate, NutritionalData> weeks = rollups.getTotals(7, Resolution.WEEK, LocalDate.of(2024, 2, 26), LocalDate.of(2024, 3, 10));
+        assertEquals(2, weeks.size());
+        assertEquals(30, weeks.get(LocalDate.of(2024, 2, 26)).getProtein(), 0.001);
+        assertEquals("2024-W09", Resolution.WEEK.label(LocalDate.of(2024, 2, 26)));
+        assertEquals("2023-W52", Resolution.WEEK.label(LocalDate.of(2023, 12, 25)));
+
+        // The range starts mid-week, so only March counts towards W09
+        weeks = rollups.getTotals(7, Resolution.WEEK, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 10));
+        assertEquals(20, weeks.get(LocalDate.of(2024, 2, 26)).getProtein(), 0.001);
+
+        // Only the days before what is loaded are read for a longer range
+        assertEquals(1, reads.size());
+        Map<LocalDate, NutritionalData> years = rollups.getTotals(7, Resolution.YEAR, null, LocalDate.of(2024, 12, 31));
+        assertEquals(2, reads.size());
+        assertNull(reads.get(1)[0]);
+        assertEquals(LocalDate.of(2024, 2, 25), reads.get(1)[1]);
+        assertEquals(5, years.get(LocalDate.of(2023, 1, 1)).getProtein(), 0.001);
+        assertEquals(60, years.get(LocalDate.of(2024, 1, 1)).getProtein(), 0.001);
+
+        rollups.onDailyNutritionChanged(7, LocalDate.of(2024, 3, 4), protein(12));
+        rollups.onDailyNutritionChanged(7, LocalDate.of(2024, 4, 2), protein(8));
+        // Another user's change leaves user 7 alone
+        rollups.onDailyNutritionChanged(8, LocalDate.of(2024, 3, 4), protein(100));
+        Map<LocalDate, NutritionalData> months = rollups.getTotals(7, Resolution.MONTH, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 4, 30));
+        assertEquals(3, months.size());
+        assertEquals(32, months.get(LocalDate.of(2024, 3, 1)).getProtein(), 0.001);
+        assertEquals(32, months.get(LocalDate.of(2024, 4, 1)).getCalories(), 0.001);
+        assertEquals(2, reads.size());
+    }
+}
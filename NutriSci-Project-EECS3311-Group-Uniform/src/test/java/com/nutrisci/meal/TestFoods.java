@@ -0,0 +1,36 @@
+package com.nutrisci.meal;
+
+import java.util.Arrays;
+
+/**
+ * Small food items for tests, built straight from NutrientRegistry indexes
+ */
+public final class TestFoods {
+
+    private TestFoods() {
+    }
+
+    /**
+     * A food with only a protein value, in the "Test" group
+     * @param id Food id, also used in the description
+     * @param protein Protein per 100 g
+     */
+    public static FoodItem food(long id, double protein) {
+        return new FoodItem(id, "Food " + id, new double[] {protein}, "Test");
+    }
+
+    /**
+     * A food with protein and fibre values (fat and carbohydrate missing)
+     * @param id Food id, also used in the description
+     * @param protein Protein per 100 g
+     * @param fibre Fibre per 100 g
+     * @param foodGroup Name of the food group
+     */
+    public static FoodItem food(long id, double protein, double fibre, String foodGroup) {
+        double[] values = new double[NutrientRegistry.FIBRE + 1];
+        Arrays.fill(values, Double.NaN);
+        values[NutrientRegistry.PROTEIN] = protein;
+        values[NutrientRegistry.FIBRE] = fibre;
+        return new FoodItem(id, "Food " + id, values, foodGroup);
+    }
+}
@@ -0,0 +1,43 @@
+package com.nutrisci.service;
+
+import static org.junit.Assert.*;
+import static com.nutrisci.meal.TestFoods.food;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.model.GoalType;
+
+public class FoodRankingIndexTest {
+
+    /**
+     * Better foods closest to the target come first, falling back to the best short of it
+     */
+    @Test
+    public void findsClosestBetterFoods() {
+        List<FoodItem> foods = new ArrayList<>();
+        for (int id = 1; id <= 10; id++) {
+            foods.add(food(id, id * 2.0));
+        }
+        foods.add(new FoodItem(99, "Water", new HashMap<>(), "Test"));
+        Collections.shuffle(foods);
+        FoodRankingIndex index = new FoodRankingIndex(foods);
+
+        assertEquals(10, index.size(GoalType.PROTEIN));
+        assertEquals(0, index.size(GoalType.FIBRE));
+
+        // 6 g now, want at least 9 g: 10 g, 12 g, then 14 g
+        assertEquals(Arrays.asList(5L, 6L, 7L), index.findBetter(GoalType.PROTEIN, 6, 9, true, 3, 3));
+        // Nothing reaches 50 g, so offer the highest that still improve
+        assertEquals(Arrays.asList(10L, 9L, 8L), index.findBetter(GoalType.PROTEIN, 6, 50, true, 3, 3));
+        // 12 g now, want at most 8 g, excluding food 4 (8 g)
+        assertEquals(Arrays.asList(3L, 2L), index.findBetter(GoalType.PROTEIN, 12, 8, false, 2, 4));
+        assertTrue(index.findBetter(GoalType.PROTEIN, 20, 21, true, 3, 0).isEmpty());
+    }
+}
@@ -0,0 +1,45 @@
+package com.nutrisci.service;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.TestFoods;
+import com.nutrisci.model.GoalType;
+
+public class FoodSimilarityIndexTest {
+
+    private static FoodItem food(long id, double protein) {
+        return TestFoods.food(id, protein, 1.0, id % 2 == 0 ? "Even" : "Odd");
+    }
+
+    /**
+     * The closest foods that reach the target come back in order, optionally within the group
+     */
+    @Test
+    public void findsNearestImprovingFoods() {
+        List<FoodItem> foods = new ArrayList<>();
+        for (int id = 1; id <= 200; id++) {
+            foods.add(food(id, id));
+        }
+        Collections.shuffle(foods, new Random(7));
+        FoodSimilarityIndex index = new FoodSimilarityIndex(foods);
+        assertEquals(200, index.size());
+
+        FoodItem current = food(100, 100);
+        assertEquals(Arrays.asList(105L, 106L, 107L),
+            index.findSimilarBetter(current, GoalType.PROTEIN, 100, 105, true, false, 3));
+        assertEquals(Arrays.asList(106L, 108L, 110L),
+            index.findSimilarBetter(current, GoalType.PROTEIN, 100, 105, true, true, 3));
+        assertEquals(Arrays.asList(99L, 98L),
+            index.findSimilarBetter(current, GoalType.PROTEIN, 100, 100, false, false, 2));
+        assertTrue(index.findSimilarBetter(current, GoalType.PROTEIN, 100, 300, true, false, 3).isEmpty());
+    }
+}
@@ -0,0 +1,105 @@
+package com.nutrisci.service;
+
+import static org.junit.Assert.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.nutrisci.meal.Breakfast;
+import com.nutrisci.meal.Dinner;
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.Lunch;
+import com.nutrisci.meal.Meal;
+import com.nutrisci.meal.MealType;
+import com.nutrisci.model.Goal;
+import com.nutrisci.model.GoalType;
+
+public class MealPlanGeneratorTest {
+
+    // About as many foods as the Canadian Nutrient File
+    private static final int CATALOG_SIZE = 5690;
+
+    private static MealPlanGenerator generator() {
+        return generator(300);
+    }
+
+    private static MealPlanGenerator generator(int count) {
+        Random random = new Random(3);
+        List<FoodItem> foods = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            Map<String, Double> nutrients = new HashMap<>();
+            nutrients.put("PROTEIN", random.nextDouble() * 25);
+            nutrients.put("FAT (TOTAL LIPIDS)", random.nextDouble() * 15);
+            nutrients.put("CARBOHYDRATE, TOTAL (BY DIFFERENCE)", random.nextDouble() * 60);
+            nutrients.put("FIBRE, TOTAL DIETARY", random.nextDouble() * 8);
+            foods.add(new FoodItem(id, "Food " + id, nutrients, "Test"));
+        }
+        return new MealPlanGenerator(foods);
+    }
+
+    /**
+     * A generated day lands close to every target with one meal per slot and no repeated food
+     */
+    @Test
+    public void meetsDailyTargets() {
+        MealPlanGenerator.Targets targets = MealPlanGenerator.targetsFor(new Goal(GoalType.PROTEIN, true, 10));
+        assertEquals(55, targets.getProtein(), 0.001);
+
+        MealPlanGenerator.DayPlan day = generator().generateDay(LocalDate.of(2024, 3, 4), targets, 1000);
+
+        assertEquals(targets.getCalories(), day.getCalories(), targets.getCalories() * 0.05);
+        assertEquals(targets.getProtein(), day.getProtein(), targets.getProtein() * 0.05);
+        assertEquals(targets.getFibre(), day.getFibre(), targets.getFibre() * 0.05);
+        assertEquals(4, day.getMeals().size());
+        assertEquals(MealType.BREAKFAST, day.getMeals().get(0).getMealType());
+        assertEquals(day.getAllFoodIds().size(), new HashSet<>(day.getAllFoodIds()).size());
+    }
+
+    /**
+     * A week has seven plans in date order
+     */
+    @Test
+    public void generatesWeek() {
+        LocalDate start = LocalDate.of(2024, 3, 4);
+        List<MealPlanGenerator.DayPlan> week = generator().generateWeek(start, MealPlanGenerator.targetsFor(null), 1000);
+
+        assertEquals(7, week.size());
+        for (int i = 0; i < 7; i++) {
+            assertEquals(start.plusDays(i), week.get(i).getDate());
+        }
+    }
+
+    /**
+     * The service plans a day from a catalog-sized matrix within 200 ms, with
+     * no meal type planned more often than it may be logged in a day
+     */
+    @Test
+    public void servicePlansCatalogSizedDayInTime() {
+        MealPlanGenerator catalog = generator(CATALOG_SIZE);
+        assertEquals(CATALOG_SIZE, catalog.size());
+        MealPlanService service = new MealPlanService(() -> catalog);
+
+        long start = System.nanoTime();
+        MealPlanGenerator.DayPlan day = service.suggestDay(new Goal(GoalType.FIBRE, true, 20), LocalDate.of(2024, 3, 4));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("Took " + elapsedMillis + " ms", elapsedMillis < 200);
+
+        Map<MealType, Integer> planned = new EnumMap<>(MealType.class);
+        for (MealPlanGenerator.PlannedMeal meal : day.getMeals()) {
+            planned.merge(meal.getMealType(), 1, Integer::sum);
+        }
+        for (Meal meal : new Meal[] { new Breakfast(), new Lunch(), new Dinner() }) {
+            assertEquals(meal.getMaxAllowedPerDay(), (int) planned.get(meal.getMealType()));
+        }
+        assertTrue(planned.get(MealType.SNACK) >= 1);
+        assertEquals(day.getTargets().getCalories(), day.getCalories(), day.getTargets().getCalories() * 0.1);
+    }
+}
@@ -0,0 +1,80 @@
+package com.nutrisci.service;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.nutrisci.meal.FoodItem;
+import com.nutrisci.meal.TestFoods;
+import com.nutrisci.model.Goal;
+import com.nutrisci.model.GoalType;
+
+public class MealSwapOptimizerTest {
+
+    private static FoodItem food(long id, double protein) {
+        return TestFoods.food(id, protein, 1.0, "Test");
+    }
+
+    private static MealSwapOptimizer optimizer() {
+        List<FoodItem> foods = new ArrayList<>();
+        for (int id = 1; id <= 200; id++) {
+            foods.add(food(id, id));
+        }
+        return new MealSwapOptimizer(new FoodSimilarityIndex(foods), 6, 16);
+    }
+
+    /**
+     * One small swap is preferred when it reaches the goal, and several are combined when it cannot
+     */
+    @Test
+    public void plansFewestSwaps() {
+        List<FoodItem> meal = Arrays.asList(food(10, 10), food(50, 50));
+
+        MealSwapOptimizer.Plan oneSwap = optimizer().optimize(meal, new Goal(GoalType.PROTEIN, true, 10), 1000);
+        assertTrue(oneSwap.isGoalReached());
+        assertTrue(oneSwap.isComplete());
+        assertEquals(1, oneSwap.getSwaps().size());
+        assertEquals(66, oneSwap.getNewTotal(), 0.001);
+
+        // 15% of 60 g is 9 g, more than six candidates of one item can add
+        MealSwapOptimizer.Plan twoSwaps = optimizer().optimize(meal, new Goal(GoalType.PROTEIN, false, 15), 1000);
+        assertTrue(twoSwaps.isGoalReached());
+        assertEquals(2, twoSwaps.getSwaps().size());
+        assertTrue(twoSwaps.getNewTotal() <= 51);
+    }
+
+    /**
+     * Values are compared in the portions eaten, so the large portion is the one swapped
+     */
+    @Test
+    public void weighsPortions() {
+        // 40 g of protein from 400 g of the first food, 10 g from 20 g of the second
+        List<FoodItem> meal = Arrays.asList(food(10, 10).adjustForQuantity(400), food(50, 50).adjustForQuantity(20));
+
+        MealSwapOptimizer.Plan plan = optimizer().optimize(meal, new Goal(GoalType.PROTEIN, true, 10), 1000);
+        assertTrue(plan.isGoalReached());
+        assertEquals(50, plan.getOriginalTotal(), 0.001);
+        assertEquals(1, plan.getSwaps().size());
+
+        MealSwapOptimizer.Swap swap = plan.getSwaps().get(0);
+        assertEquals(0, swap.getItemIndex());
+        assertEquals(40, swap.getOriginalValue(), 0.001);
+        assertEquals(swap.getReplacementFoodId() * 4, swap.getReplacementValue(), 0.001);
+        assertTrue(plan.getNewTotal() >= 55);
+    }
+
+    /**
+     * An exhausted budget still returns a plan, marked incomplete
+     */
+    @Test
+    public void respectsBudget() {
+        MealSwapOptimizer.Plan plan = optimizer().optimize(Arrays.asList(food(10, 10)), new Goal(GoalType.PROTEIN, true, 5), 0);
+        assertFalse(plan.isComplete());
+        assertFalse(plan.isGoalReached());
+        assertTrue(plan.getSwaps().isEmpty());
+    }
+}
@@ -0,0 +1,99 @@
+package com.nutrisci.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+public class SwingBackgroundLoaderTest {
+
+    /**
+     * A newer load for a key drops the older one, an equal pending request is joined,
+     * and results arrive on the EDT
+     */
+    @Test
+    public void dropsStaleAndJoinsRepeatedLoads() throws Exception {
+        SwingBackgroundLoader loader = new SwingBackgroundLoader();
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(3);
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger runs = new AtomicInteger();
+
+        // Hold the worker so the loads below queue up behind it
+        loader.execute(() -> gate.await(5, TimeUnit.SECONDS), null);
+
+        loader.load("food:1", 1L, () -> "first pick", results::add, null);
+        loader.load("food:1", 2L, () -> "second pick", result -> {
+            assertTrue(SwingUtilities.isEventDispatchThread());
+            results.add(result);
+            delivered.countDown();
+        }, null);
+
+        for (int i = 0; i < 2; i++) {
+            loader.load("foodNames", null, () -> "names " + runs.incrementAndGet(), result -> {
+                results.add(result);
+                delivered.countDown();
+            }, null);
+        }
+        assertTrue(loader.isLoading("food:"));
+
+        gate.countDown();
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(1, runs.get());
+        assertFalse(results.contains("first pick"));
+        assertEquals(2, Collections.frequency(results, "names 1"));
+        assertTrue(results.contains("second pick"));
+        assertFalse(loader.isLoading(""));
+        loader.shutdown();
+    }
+
+    /**
+     * Async loads are not queued behind the worker, a newer one drops the older one,
+     * and a failed future reaches onFailed with its own exception
+     */
+    @Test
+    public void asyncLoadsRunBesideTheWorker() throws Exception {
+        SwingBackgroundLoader loader = new SwingBackgroundLoader();
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(2);
+        List<Object> results = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<String> stale = new CompletableFuture<>();
+
+        loader.execute(() -> gate.await(5, TimeUnit.SECONDS), null);
+
+        loader.loadAsync("chart", 1, () -> stale, results::add, null);
+        loader.loadAsync("chart", 2, () -> CompletableFuture.supplyAsync(() -> "chart 2"), result -> {
+            assertTrue(SwingUtilities.isEventDispatchThread());
+            results.add(result);
+            delivered.countDown();
+        }, null);
+        loader.loadAsync("foodNames", null, () -> CompletableFuture.supplyAsync(() -> {
+            throw new IllegalStateException("offline");
+        }), results::add, error -> {
+            results.add(error);
+            delivered.countDown();
+        });
+
+        // Both arrive while the worker is still held
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        stale.complete("chart 1");
+        gate.countDown();
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertTrue(results.contains("chart 2"));
+        assertFalse(results.contains("chart 1"));
+        assertTrue(results.stream().anyMatch(r -> r instanceof IllegalStateException));
+        loader.shutdown();
+    }
+}